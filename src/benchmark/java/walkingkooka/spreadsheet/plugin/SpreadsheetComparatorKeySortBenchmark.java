@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.tree.expression.ExpressionNumberKind;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SpreadsheetComparatorKeySort} with sorting indices using the {@link SpreadsheetComparator} for every
+ * comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpreadsheetComparatorKeySortBenchmark {
+
+    @Param({"date", "number"})
+    public String type;
+
+    @Param({"10000", "500000"})
+    public int size;
+
+    private List<Object> values;
+
+    private SpreadsheetComparator<?> comparator;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(1);
+        final List<Object> values = Lists.array();
+
+        switch (this.type) {
+            case "date":
+                for (int i = 0; i < this.size; i++) {
+                    values.add(
+                        LocalDate.ofEpochDay(random.nextInt(100_000))
+                    );
+                }
+                this.comparator = SpreadsheetComparators.date();
+                break;
+            case "number":
+                for (int i = 0; i < this.size; i++) {
+                    values.add(
+                        ExpressionNumberKind.BIG_DECIMAL.create(
+                            random.nextDouble() * 1_000_000
+                        )
+                    );
+                }
+                this.comparator = SpreadsheetComparators.number();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type " + this.type);
+        }
+
+        this.values = values;
+    }
+
+    @Benchmark
+    public int[] keySort() {
+        return SpreadsheetComparatorKeySort.sort(
+            this.values,
+            this.comparator
+        );
+    }
+
+    @Benchmark
+    public Integer[] comparatorSort() {
+        final List<Object> values = this.values;
+        final Comparator<Object> comparator = Cast.to(this.comparator);
+
+        final Integer[] indices = new Integer[values.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        Arrays.sort(
+            indices,
+            (l, r) -> comparator.compare(
+                values.get(l),
+                values.get(r)
+            )
+        );
+        return indices;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfo;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfo;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * JMH benchmarks for the {@link SpreadsheetFormatterProviderPluginProvider} and
+ * {@link SpreadsheetComparatorProviderPluginProvider} wrappers. Only the {@link PluginInfo} benchmarks depend on the
+ * size of the wrapped info sets, so they use {@link InfoSets}, which holds wrappers for each size. The wrappers cache
+ * {@link PluginInfo} until the wrapped info set changes, so the uncached benchmarks wrap providers that return a new
+ * info set on every call, which measures the conversion of the infos to {@link PluginInfo} at each size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpreadsheetPluginProviderBenchmark {
+
+    private final static ProviderContext PROVIDER_CONTEXT = SpreadsheetMetadataTesting.PROVIDER_CONTEXT;
+
+    private final static SpreadsheetFormatterProviderSamplesContext SAMPLES_CONTEXT = SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT;
+
+    private final static SpreadsheetFormatterSelector FORMATTER_SELECTOR = SpreadsheetFormatterSelector.parse("date dd/mm/yyyy");
+
+    private final static SpreadsheetComparatorName COMPARATOR_NAME = SpreadsheetComparators.date()
+        .name();
+
+    /**
+     * The max size of the formatter and comparator caches, which only ever hold the single benchmarked entry.
+     */
+    private final static int CACHE_MAX_SIZE = 16;
+
+    /**
+     * Wrappers over info sets of different sizes, used by the {@link PluginInfo} benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class InfoSets {
+
+        /**
+         * The number of entries in the wrapped info sets.
+         */
+        @Param({"10", "100", "1000", "10000"})
+        public int size;
+
+        private SpreadsheetFormatterProviderPluginProvider formatterPluginProvider;
+
+        private SpreadsheetFormatterProviderPluginProvider formatterUncachedPluginProvider;
+
+        private SpreadsheetComparatorProviderPluginProvider comparatorPluginProvider;
+
+        private SpreadsheetComparatorProviderPluginProvider comparatorUncachedPluginProvider;
+
+        @Setup
+        public void setup() {
+            final Set<SpreadsheetFormatterInfo> formatterInfos = formatterInfos(this.size);
+            final SpreadsheetFormatterInfoSet formatterInfoSet = SpreadsheetFormatterInfoSet.with(formatterInfos);
+
+            this.formatterPluginProvider = SpreadsheetFormatterProviderPluginProvider.with(
+                formatterProvider(
+                    () -> formatterInfoSet
+                ),
+                PluginProviderName.with("formatter"),
+                Url.parseAbsolute("https://example.com/formatter")
+            );
+            this.formatterUncachedPluginProvider = SpreadsheetFormatterProviderPluginProvider.with(
+                formatterProvider(
+                    () -> SpreadsheetFormatterInfoSet.with(formatterInfos)
+                ),
+                PluginProviderName.with("formatter-uncached"),
+                Url.parseAbsolute("https://example.com/formatter-uncached")
+            );
+
+            final Set<SpreadsheetComparatorInfo> comparatorInfos = comparatorInfos(this.size);
+            final SpreadsheetComparatorInfoSet comparatorInfoSet = SpreadsheetComparatorInfoSet.with(comparatorInfos);
+
+            this.comparatorPluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+                comparatorProvider(
+                    () -> comparatorInfoSet
+                ),
+                PluginProviderName.with("comparator"),
+                Url.parseAbsolute("https://example.com/comparator")
+            );
+            this.comparatorUncachedPluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+                comparatorProvider(
+                    () -> SpreadsheetComparatorInfoSet.with(comparatorInfos)
+                ),
+                PluginProviderName.with("comparator-uncached"),
+                Url.parseAbsolute("https://example.com/comparator-uncached")
+            );
+        }
+    }
+
+    private SpreadsheetFormatterProviderPluginProvider formatterPluginProvider;
+
+    private SpreadsheetFormatterProviderPluginProvider formatterCachePluginProvider;
+
+    private SpreadsheetComparatorProviderPluginProvider comparatorPluginProvider;
+
+    private SpreadsheetComparatorProviderPluginProvider comparatorCachePluginProvider;
+
+    @Setup
+    public void setup() {
+        final SpreadsheetFormatterProvider formatterProvider = SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_PROVIDER;
+
+        this.formatterPluginProvider = SpreadsheetFormatterProviderPluginProvider.with(
+            formatterProvider,
+            PluginProviderName.with("formatter"),
+            Url.parseAbsolute("https://example.com/formatter")
+        );
+        this.formatterCachePluginProvider = SpreadsheetFormatterProviderPluginProvider.with(
+            SpreadsheetFormatterProviderCache.with(
+                formatterProvider,
+                CACHE_MAX_SIZE
+            ),
+            PluginProviderName.with("formatter-cache"),
+            Url.parseAbsolute("https://example.com/formatter-cache")
+        );
+
+        final SpreadsheetComparatorProvider comparatorProvider = SpreadsheetComparatorProviders.spreadsheetComparators();
+
+        this.comparatorPluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+            comparatorProvider,
+            PluginProviderName.with("comparator"),
+            Url.parseAbsolute("https://example.com/comparator")
+        );
+        this.comparatorCachePluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+            SpreadsheetComparatorProviderCache.with(
+                comparatorProvider,
+                CACHE_MAX_SIZE
+            ),
+            PluginProviderName.with("comparator-cache"),
+            Url.parseAbsolute("https://example.com/comparator-cache")
+        );
+    }
+
+    // formatter........................................................................................................
+
+    @Benchmark
+    public Set<PluginInfo> formatterPluginInfos(final InfoSets infoSets) {
+        return infoSets.formatterPluginProvider.pluginInfos();
+    }
+
+    @Benchmark
+    public Set<PluginInfo> formatterPluginInfosUncached(final InfoSets infoSets) {
+        return infoSets.formatterUncachedPluginProvider.pluginInfos();
+    }
+
+    @Benchmark
+    public SpreadsheetFormatter spreadsheetFormatterSelector() {
+        return this.formatterPluginProvider.spreadsheetFormatter(
+            FORMATTER_SELECTOR,
+            PROVIDER_CONTEXT
+        );
+    }
+
+    /**
+     * A cache hit allocates its key, 24 bytes, and the lambda that would compute a miss, 24 bytes, so
+     * {@code gc.alloc.rate.norm} from the gc profiler should stay at or below 48 bytes per op. Escape analysis usually
+     * removes both.
+     */
+    @Benchmark
+    public SpreadsheetFormatter spreadsheetFormatterSelectorCache() {
+        return this.formatterCachePluginProvider.spreadsheetFormatter(
+            FORMATTER_SELECTOR,
+            PROVIDER_CONTEXT
+        );
+    }
+
+    @Benchmark
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken() {
+        return this.formatterPluginProvider.spreadsheetFormatterNextToken(FORMATTER_SELECTOR);
+    }
+
+    @Benchmark
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples() {
+        return this.formatterPluginProvider.spreadsheetFormatterSamples(
+            FORMATTER_SELECTOR,
+            true, // includeSamples
+            SAMPLES_CONTEXT
+        );
+    }
+
+    private static Set<SpreadsheetFormatterInfo> formatterInfos(final int size) {
+        final Set<SpreadsheetFormatterInfo> infos = Sets.sorted();
+
+        for (int i = 0; i < size; i++) {
+            infos.add(
+                SpreadsheetFormatterInfo.with(
+                    Url.parseAbsolute("https://example.com/formatter/" + i),
+                    SpreadsheetFormatterName.with("formatter" + i)
+                )
+            );
+        }
+
+        return infos;
+    }
+
+    private static SpreadsheetFormatterProvider formatterProvider(final Supplier<SpreadsheetFormatterInfoSet> infos) {
+        final SpreadsheetFormatterProvider provider = SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_PROVIDER;
+
+        return new SpreadsheetFormatterProvider() {
+            @Override
+            public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                             final ProviderContext context) {
+                return provider.spreadsheetFormatter(
+                    selector,
+                    context
+                );
+            }
+
+            @Override
+            public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                             final List<?> values,
+                                                             final ProviderContext context) {
+                return provider.spreadsheetFormatter(
+                    name,
+                    values,
+                    context
+                );
+            }
+
+            @Override
+            public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+                return provider.spreadsheetFormatterNextToken(selector);
+            }
+
+            @Override
+            public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                                final boolean includeSamples,
+                                                                                final SpreadsheetFormatterProviderSamplesContext context) {
+                return provider.spreadsheetFormatterSamples(
+                    selector,
+                    includeSamples,
+                    context
+                );
+            }
+
+            @Override
+            public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+                return infos.get();
+            }
+        };
+    }
+
+    // comparator.......................................................................................................
+
+    @Benchmark
+    public Set<PluginInfo> comparatorPluginInfos(final InfoSets infoSets) {
+        return infoSets.comparatorPluginProvider.pluginInfos();
+    }
+
+    @Benchmark
+    public Set<PluginInfo> comparatorPluginInfosUncached(final InfoSets infoSets) {
+        return infoSets.comparatorUncachedPluginProvider.pluginInfos();
+    }
+
+    @Benchmark
+    public SpreadsheetComparator<?> spreadsheetComparatorName() {
+        return this.comparatorPluginProvider.spreadsheetComparator(
+            COMPARATOR_NAME,
+            Lists.empty(),
+            PROVIDER_CONTEXT
+        );
+    }
+
+    /**
+     * A cache hit allocates its key, 24 bytes, the read only copy of the values, up to 24 bytes, and the lambda that
+     * would compute a miss, 24 bytes, so {@code gc.alloc.rate.norm} from the gc profiler should stay at or below 72
+     * bytes per op. Escape analysis usually removes the key and lambda.
+     */
+    @Benchmark
+    public SpreadsheetComparator<?> spreadsheetComparatorNameCache() {
+        return this.comparatorCachePluginProvider.spreadsheetComparator(
+            COMPARATOR_NAME,
+            Lists.empty(),
+            PROVIDER_CONTEXT
+        );
+    }
+
+    private static Set<SpreadsheetComparatorInfo> comparatorInfos(final int size) {
+        final Set<SpreadsheetComparatorInfo> infos = Sets.sorted();
+
+        for (int i = 0; i < size; i++) {
+            infos.add(
+                SpreadsheetComparatorInfo.with(
+                    Url.parseAbsolute("https://example.com/comparator/" + i),
+                    SpreadsheetComparatorName.with("comparator" + i)
+                )
+            );
+        }
+
+        return infos;
+    }
+
+    private static SpreadsheetComparatorProvider comparatorProvider(final Supplier<SpreadsheetComparatorInfoSet> infos) {
+        final SpreadsheetComparatorProvider provider = SpreadsheetComparatorProviders.spreadsheetComparators();
+
+        return new SpreadsheetComparatorProvider() {
+            @Override
+            public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                                  final ProviderContext context) {
+                return provider.spreadsheetComparator(
+                    selector,
+                    context
+                );
+            }
+
+            @Override
+            public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                                  final List<?> values,
+                                                                  final ProviderContext context) {
+                return provider.spreadsheetComparator(
+                    name,
+                    values,
+                    context
+                );
+            }
+
+            @Override
+            public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+                return infos.get();
+            }
+        };
+    }
+}
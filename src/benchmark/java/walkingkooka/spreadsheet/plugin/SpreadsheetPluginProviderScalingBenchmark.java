@@ -0,0 +1,250 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+import walkingkooka.tree.text.TextNode;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the throughput of the wrappers, with and without their caches, along with the samples, next token,
+ * render and selector caches, scales as threads are added. All threads share the same wrappers and caches. Running
+ * {@link #main(String[])} repeats every benchmark for 1, 2, 4... threads up to the number of processors and prints a
+ * table of the throughput of each count relative to a single thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class SpreadsheetPluginProviderScalingBenchmark {
+
+    private final static ProviderContext PROVIDER_CONTEXT = SpreadsheetMetadataTesting.PROVIDER_CONTEXT;
+
+    private final static SpreadsheetFormatterSelector FORMATTER_SELECTOR = SpreadsheetFormatterSelector.parse("date dd/mm/yyyy");
+
+    private final static SpreadsheetComparatorName COMPARATOR_NAME = SpreadsheetComparatorName.with("date");
+
+    private final static String FORMATTER_SELECTOR_TEXT = "date dd/mm/yyyy";
+
+    private final static String COMPARATOR_SELECTOR_TEXT = "date";
+
+    private final static LocalDate RENDER_VALUE = LocalDate.of(2000, 1, 31);
+
+    private final SpreadsheetFormatterProviderPluginProvider formatterPluginProvider = SpreadsheetFormatterProviderPluginProvider.with(
+        SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_PROVIDER,
+        PluginProviderName.with("formatter"),
+        Url.parseAbsolute("https://example.com/formatter")
+    );
+
+    private final SpreadsheetFormatterProviderPluginProvider formatterCachePluginProvider = SpreadsheetFormatterProviderPluginProvider.with(
+        SpreadsheetFormatterProviderCache.with(
+            SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_PROVIDER,
+            100
+        ),
+        PluginProviderName.with("formatter-cache"),
+        Url.parseAbsolute("https://example.com/formatter-cache")
+    );
+
+    private final SpreadsheetFormatterProviderCache formatterCache = SpreadsheetFormatterProviderCache.with(
+        SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_PROVIDER,
+        100
+    );
+
+    private final SpreadsheetFormatterRenderCache renderCache = SpreadsheetFormatterRenderCache.with(
+        SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_PROVIDER,
+        64 * 1024
+    );
+
+    private final SpreadsheetPluginSelectorCache selectorCache = SpreadsheetPluginSelectorCache.with(100);
+
+    private final SpreadsheetComparatorProviderPluginProvider comparatorPluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+        SpreadsheetComparatorProviders.spreadsheetComparators(),
+        PluginProviderName.with("comparator"),
+        Url.parseAbsolute("https://example.com/comparator")
+    );
+
+    private final SpreadsheetComparatorProviderPluginProvider comparatorCachePluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+        SpreadsheetComparatorProviderCache.with(
+            SpreadsheetComparatorProviders.spreadsheetComparators(),
+            100
+        ),
+        PluginProviderName.with("comparator-cache"),
+        Url.parseAbsolute("https://example.com/comparator-cache")
+    );
+
+    @Benchmark
+    public Set<PluginInfo> formatterPluginInfos() {
+        return this.formatterPluginProvider.pluginInfos();
+    }
+
+    @Benchmark
+    public SpreadsheetFormatter spreadsheetFormatter() {
+        return this.formatterPluginProvider.spreadsheetFormatter(
+            FORMATTER_SELECTOR,
+            PROVIDER_CONTEXT
+        );
+    }
+
+    @Benchmark
+    public SpreadsheetFormatter spreadsheetFormatterCache() {
+        return this.formatterCachePluginProvider.spreadsheetFormatter(
+            FORMATTER_SELECTOR,
+            PROVIDER_CONTEXT
+        );
+    }
+
+    @Benchmark
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamplesCache() {
+        return this.formatterCache.spreadsheetFormatterSamples(
+            FORMATTER_SELECTOR,
+            true, // includeSamples
+            SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+        );
+    }
+
+    @Benchmark
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextTokenCache() {
+        return this.formatterCache.spreadsheetFormatterNextToken(FORMATTER_SELECTOR);
+    }
+
+    @Benchmark
+    public Optional<TextNode> renderCache() {
+        return this.renderCache.format(
+            FORMATTER_SELECTOR,
+            RENDER_VALUE,
+            PROVIDER_CONTEXT,
+            SpreadsheetMetadataTesting.SPREADSHEET_FORMATTER_CONTEXT
+        );
+    }
+
+    @Benchmark
+    public SpreadsheetFormatterSelector spreadsheetFormatterSelectorCache() {
+        return this.selectorCache.spreadsheetFormatterSelector(FORMATTER_SELECTOR_TEXT);
+    }
+
+    @Benchmark
+    public SpreadsheetComparatorSelector spreadsheetComparatorSelectorCache() {
+        return this.selectorCache.spreadsheetComparatorSelector(COMPARATOR_SELECTOR_TEXT);
+    }
+
+    @Benchmark
+    public Set<PluginInfo> comparatorPluginInfos() {
+        return this.comparatorPluginProvider.pluginInfos();
+    }
+
+    @Benchmark
+    public SpreadsheetComparator<?> spreadsheetComparator() {
+        return this.comparatorPluginProvider.spreadsheetComparator(
+            COMPARATOR_NAME,
+            Lists.empty(),
+            PROVIDER_CONTEXT
+        );
+    }
+
+    @Benchmark
+    public SpreadsheetComparator<?> spreadsheetComparatorCache() {
+        return this.comparatorCachePluginProvider.spreadsheetComparator(
+            COMPARATOR_NAME,
+            Lists.empty(),
+            PROVIDER_CONTEXT
+        );
+    }
+
+    /**
+     * Runs every benchmark with 1, 2, 4... threads and prints the throughput and speedup over a single thread.
+     */
+    public static void main(final String[] args) throws RunnerException {
+        final int maxThreads = Runtime.getRuntime()
+            .availableProcessors();
+        final Map<String, Double> singleThreaded = Maps.sorted();
+
+        final StringBuilder table = new StringBuilder();
+        table.append(
+            String.format("%-70s %8s %14s %8s%n", "benchmark", "threads", "ops/us", "speedup")
+        );
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            final Iterable<RunResult> results = new Runner(
+                new OptionsBuilder()
+                    .include(SpreadsheetPluginProviderScalingBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()
+            ).run();
+
+            for (final RunResult result : results) {
+                final String benchmark = result.getParams()
+                    .getBenchmark();
+                final double score = result.getPrimaryResult()
+                    .getScore();
+                if (1 == threads) {
+                    singleThreaded.put(
+                        benchmark,
+                        score
+                    );
+                }
+
+                table.append(
+                    String.format(
+                        "%-70s %8d %14.3f %8.2f%n",
+                        benchmark,
+                        threads,
+                        score,
+                        score / singleThreaded.get(benchmark)
+                    )
+                );
+            }
+        }
+
+        System.out.print(table);
+    }
+}
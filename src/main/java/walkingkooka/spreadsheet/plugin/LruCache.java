@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A size bounded cache that evicts the least recently used entry when full. Values are computed outside the lock so a
+ * slow factory never blocks readers of other keys, and hits and misses are counted.
+ */
+final class LruCache<K, V> {
+
+    static <K, V> LruCache<K, V> with(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Invalid maxSize " + maxSize + " <= 0");
+        }
+
+        return new LruCache<>(maxSize);
+    }
+
+    private LruCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(
+            16,
+            0.75f,
+            true // accessOrder
+        ) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the given key, computing and caching it with the factory when absent.
+     */
+    V get(final K key,
+          final Function<? super K, ? extends V> factory) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(factory, "factory");
+
+        V value;
+        synchronized (this.entries) {
+            value = this.entries.get(key);
+            if (null != value) {
+                this.hits++;
+                return value;
+            }
+            this.misses++;
+        }
+
+        value = factory.apply(key);
+        if (null != value) {
+            synchronized (this.entries) {
+                final V previous = this.entries.putIfAbsent(
+                    key,
+                    value
+                );
+                if (null != previous) {
+                    value = previous;
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Removes all entries, leaving the hit and miss counters unchanged.
+     */
+    void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    int maxSize() {
+        return this.maxSize;
+    }
+
+    private final int maxSize;
+
+    private final LinkedHashMap<K, V> entries;
+
+    long hits() {
+        synchronized (this.entries) {
+            return this.hits;
+        }
+    }
+
+    private long hits;
+
+    long misses() {
+        synchronized (this.entries) {
+            return this.misses;
+        }
+    }
+
+    private long misses;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        synchronized (this.entries) {
+            return "size=" + this.entries.size() +
+                " maxSize=" + this.maxSize +
+                " hits=" + this.hits +
+                " misses=" + this.misses;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.collect.set.Sets;
+import walkingkooka.plugin.PluginInfo;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tracks a monotonically increasing version of a provider's {@link PluginInfo} along with a bounded log of the infos
+ * added and removed by each version, so polling clients only receive what changed since their last version.
+ * <br>
+ * Versions start at a random epoch held in the high 32 bits, with the low 32 bits counting changes. A version returned
+ * by another feed, such as another server instance or the same server after a restart, therefore lies outside the
+ * range of this feed and always receives a resync rather than changes computed against unrelated infos.
+ */
+final class PluginInfoChangeFeed {
+
+    /**
+     * The number of versions retained by the wrappers, older clients receive a resync.
+     */
+    final static int MAX_CHANGES = 64;
+
+    static PluginInfoChangeFeed with(final int maxChanges) {
+        return with(
+            maxChanges,
+            epoch(
+                ThreadLocalRandom.current()
+                    .nextInt(1, Integer.MAX_VALUE)
+            )
+        );
+    }
+
+    /**
+     * Creates a feed whose versions start at the given epoch, which should come from {@link #epoch(int)}.
+     */
+    static PluginInfoChangeFeed with(final int maxChanges,
+                                     final long epoch) {
+        if (maxChanges <= 0) {
+            throw new IllegalArgumentException("Invalid maxChanges " + maxChanges + " <= 0");
+        }
+
+        return new PluginInfoChangeFeed(
+            maxChanges,
+            epoch
+        );
+    }
+
+    /**
+     * Returns the first version of a feed for the given epoch, which occupies the high 32 bits.
+     */
+    static long epoch(final int epoch) {
+        if (epoch <= 0) {
+            throw new IllegalArgumentException("Invalid epoch " + epoch + " <= 0");
+        }
+        return (long) epoch << 32;
+    }
+
+    private PluginInfoChangeFeed(final int maxChanges,
+                                 final long epoch) {
+        this.maxChanges = maxChanges;
+        this.version = epoch;
+    }
+
+    /**
+     * Records the given infos as the current infos, creating a new version if they differ from the previous infos.
+     * The infos are first compared by identity, so an unchanged cached set is never diffed.
+     */
+    synchronized void update(final Set<PluginInfo> infos) {
+        Objects.requireNonNull(infos, "infos");
+
+        final Set<PluginInfo> current = this.current;
+        if (infos != current) {
+            final Set<PluginInfo> added = Sets.hash();
+            for (final PluginInfo info : infos) {
+                if (false == current.contains(info)) {
+                    added.add(info);
+                }
+            }
+
+            final Set<PluginInfo> removed = Sets.hash();
+            for (final PluginInfo info : current) {
+                if (false == infos.contains(info)) {
+                    removed.add(info);
+                }
+            }
+
+            this.current = infos;
+
+            if (false == added.isEmpty() || false == removed.isEmpty()) {
+                this.version++;
+                this.changes.addLast(
+                    new Change(
+                        this.version,
+                        added,
+                        removed
+                    )
+                );
+                if (this.changes.size() > this.maxChanges) {
+                    this.changes.removeFirst();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the changes after the given version, or a resync when the version is unknown or no longer retained.
+     * Versions from another epoch are always outside the retained range.
+     */
+    synchronized SpreadsheetPluginInfosDelta since(final long version) {
+        final long current = this.version;
+
+        final SpreadsheetPluginInfosDelta delta;
+        if (version == current) {
+            delta = SpreadsheetPluginInfosDelta.changes(
+                current,
+                Sets.empty(),
+                Sets.empty()
+            );
+        } else if (version > current || version < this.oldestRetained()) {
+            delta = SpreadsheetPluginInfosDelta.resync(
+                current,
+                this.current
+            );
+        } else {
+            final Set<PluginInfo> added = Sets.hash();
+            final Set<PluginInfo> removed = Sets.hash();
+
+            for (final Change change : this.changes) {
+                if (change.version > version) {
+                    for (final PluginInfo info : change.added) {
+                        if (false == removed.remove(info)) {
+                            added.add(info);
+                        }
+                    }
+                    for (final PluginInfo info : change.removed) {
+                        if (false == added.remove(info)) {
+                            removed.add(info);
+                        }
+                    }
+                }
+            }
+
+            delta = SpreadsheetPluginInfosDelta.changes(
+                current,
+                added,
+                removed
+            );
+        }
+
+        return delta;
+    }
+
+    /**
+     * The oldest version a client may hold and still receive changes, which is the version before the first retained
+     * change.
+     */
+    private long oldestRetained() {
+        final Change first = this.changes.peekFirst();
+        return null == first ?
+            this.version :
+            first.version - 1;
+    }
+
+    synchronized long version() {
+        return this.version;
+    }
+
+    private final int maxChanges;
+
+    private long version;
+
+    private Set<PluginInfo> current = Sets.empty();
+
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+
+    private final static class Change {
+
+        Change(final long version,
+               final Set<PluginInfo> added,
+               final Set<PluginInfo> removed) {
+            this.version = version;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        final long version;
+
+        final Set<PluginInfo> added;
+
+        final Set<PluginInfo> removed;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public synchronized String toString() {
+        return "version=" + this.version + " changes=" + this.changes.size();
+    }
+}
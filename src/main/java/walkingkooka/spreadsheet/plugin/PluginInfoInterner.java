@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginName;
+
+import java.util.Objects;
+
+/**
+ * Shared pools of canonical {@link AbsoluteUrl}, {@link PluginName} and {@link PluginInfo}, so many wrappers over the
+ * same providers share a single copy of each info.
+ */
+final class PluginInfoInterner {
+
+    /**
+     * Returns the canonical {@link PluginInfo} for the given url and name.
+     */
+    static PluginInfo pluginInfo(final AbsoluteUrl url,
+                                 final String name) {
+        Objects.requireNonNull(url, "url");
+        Objects.requireNonNull(name, "name");
+
+        return PLUGIN_INFOS.intern(
+            PluginInfo.with(
+                URLS.intern(url),
+                PLUGIN_NAMES.intern(
+                    PluginName.with(name)
+                )
+            )
+        );
+    }
+
+    final static WeakInterner<AbsoluteUrl> URLS = WeakInterner.empty();
+
+    final static WeakInterner<PluginName> PLUGIN_NAMES = WeakInterner.empty();
+
+    final static WeakInterner<PluginInfo> PLUGIN_INFOS = WeakInterner.empty();
+
+    /**
+     * Stop creation
+     */
+    private PluginInfoInterner() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.collect.set.Sets;
+import walkingkooka.plugin.PluginInfo;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Holds a read only snapshot of {@link PluginInfo} computed from a provider info set, such as a
+ * {@link walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet}. The snapshot is only recomputed when
+ * the given info set is a different instance to the one used to compute the previous snapshot.
+ */
+final class PluginInfoSetCache<S> {
+
+    static <S> PluginInfoSetCache<S> with(final Function<S, Set<PluginInfo>> mapper) {
+        return new PluginInfoSetCache<>(
+            Objects.requireNonNull(mapper, "mapper")
+        );
+    }
+
+    private PluginInfoSetCache(final Function<S, Set<PluginInfo>> mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Returns the cached {@link PluginInfo} if the infos have not changed identity, otherwise the mapper is used to
+     * compute and cache a new snapshot.
+     */
+    Set<PluginInfo> get(final S infos) {
+        Objects.requireNonNull(infos, "infos");
+
+        Snapshot<S> snapshot = this.snapshot;
+        if (null == snapshot || infos != snapshot.infos) {
+            snapshot = new Snapshot<>(
+                infos,
+                Sets.readOnly(
+                    this.mapper.apply(infos)
+                )
+            );
+            this.snapshot = snapshot;
+        }
+
+        return snapshot.pluginInfos;
+    }
+
+    private final Function<S, Set<PluginInfo>> mapper;
+
+    /**
+     * The source infos and computed {@link PluginInfo} are held together so readers never see one without the other.
+     */
+    private volatile Snapshot<S> snapshot;
+
+    private final static class Snapshot<S> {
+
+        Snapshot(final S infos,
+                 final Set<PluginInfo> pluginInfos) {
+            this.infos = infos;
+            this.pluginInfos = pluginInfos;
+        }
+
+        final S infos;
+
+        final Set<PluginInfo> pluginInfos;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        final Snapshot<S> snapshot = this.snapshot;
+        return null == snapshot ?
+            "" :
+            snapshot.pluginInfos.toString();
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.Cast;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A stable sort of values or rows using {@link SpreadsheetComparator}, that returns the indices in sorted order.
+ * When the comparator, or for rows the comparator of the first column, is one of the built in date, date time, time or
+ * number comparators and every value has the matching type, a primitive key is computed once for each value and the
+ * keys are sorted instead of calling the comparator for every comparison. Keys that may lose precision, such
+ * as a number converted to a double, only order values, runs of values with equal keys are then sorted again with the
+ * comparator. Rows with equal first column keys are sorted again comparing all their columns, so only the first column
+ * of a multi column sort benefits from primitive keys. All other comparators and values fall back to sorting with the
+ * comparators.
+ * <br>
+ * The gain over sorting with the comparators has not been measured, {@code SpreadsheetComparatorKeySortBenchmark}
+ * compares the two.
+ */
+final class SpreadsheetComparatorKeySort {
+
+    /**
+     * Ranges with this many values or fewer are sorted using an insertion sort.
+     */
+    private final static int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Returns the indices of the values in sorted order. Equal values keep their original relative order.
+     */
+    static int[] sort(final List<?> values,
+                      final SpreadsheetComparator<?> comparator) {
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(comparator, "comparator");
+
+        final Object[] array = values.toArray();
+
+        return sort(
+            array,
+            comparator,
+            new ComparatorKeys(
+                array,
+                Cast.to(comparator)
+            ),
+            false // moreColumns
+        );
+    }
+
+    /**
+     * Returns the indices of the rows in sorted order, where each row holds one value for each comparator. Equal rows
+     * keep their original relative order.
+     */
+    static int[] sortRows(final List<? extends List<?>> rows,
+                          final List<SpreadsheetComparator<?>> comparators) {
+        Objects.requireNonNull(rows, "rows");
+        Objects.requireNonNull(comparators, "comparators");
+        if (comparators.isEmpty()) {
+            throw new IllegalArgumentException("Missing comparators");
+        }
+
+        final Object[] array = rows.toArray();
+        final int count = array.length;
+
+        final Object[] firstColumn = new Object[count];
+        for (int i = 0; i < count; i++) {
+            firstColumn[i] = ((List<?>) array[i]).get(0);
+        }
+
+        return sort(
+            firstColumn,
+            comparators.get(0),
+            new ComparatorKeys(
+                array,
+                Cast.to(
+                    SpreadsheetComparatorRowComparator.with(comparators)
+                )
+            ),
+            comparators.size() > 1
+        );
+    }
+
+    /**
+     * Sorts using primitive keys of the values when possible, and the comparator keys for unsupported values and to
+     * order runs of values with equal inexact primitive keys or when the comparator keys compare more columns.
+     */
+    private static int[] sort(final Object[] values,
+                              final SpreadsheetComparator<?> comparator,
+                              final Keys comparatorKeys,
+                              final boolean moreColumns) {
+        final int count = values.length;
+
+        final int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = i;
+        }
+
+        final Keys primitiveKeys = primitiveKeys(
+            values,
+            comparator
+        );
+        final int[] temp = new int[count];
+
+        if (null != primitiveKeys) {
+            sort(
+                indices,
+                temp,
+                0,
+                count,
+                primitiveKeys
+            );
+
+            if (moreColumns || !primitiveKeys.exact) {
+                sortEqualKeyRuns(
+                    indices,
+                    temp,
+                    primitiveKeys,
+                    comparatorKeys
+                );
+            }
+        } else {
+            sort(
+                indices,
+                temp,
+                0,
+                count,
+                comparatorKeys
+            );
+        }
+
+        return indices;
+    }
+
+    /**
+     * Returns primitive keys if the comparator and every value are supported, otherwise returns null.
+     */
+    private static Keys primitiveKeys(final Object[] values,
+                                      final SpreadsheetComparator<?> comparator) {
+        Keys keys = null;
+
+        if (SpreadsheetComparators.date().equals(comparator)) {
+            keys = dateKeys(values);
+        } else if (SpreadsheetComparators.dateTime().equals(comparator)) {
+            keys = dateTimeKeys(values);
+        } else if (SpreadsheetComparators.time().equals(comparator)) {
+            keys = timeKeys(values);
+        } else if (SpreadsheetComparators.number().equals(comparator)) {
+            keys = numberKeys(values);
+        }
+
+        return keys;
+    }
+
+    private static Keys dateKeys(final Object[] values) {
+        final int count = values.length;
+        final long[] keys = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            final Object value = values[i];
+            if (false == value instanceof LocalDate) {
+                return null;
+            }
+            keys[i] = ((LocalDate) value).toEpochDay();
+        }
+
+        return new LongKeys(
+            keys,
+            true // exact
+        );
+    }
+
+    /**
+     * The epoch second ignores nanos, so equal keys are sorted again with the comparator.
+     */
+    private static Keys dateTimeKeys(final Object[] values) {
+        final int count = values.length;
+        final long[] keys = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            final Object value = values[i];
+            if (false == value instanceof LocalDateTime) {
+                return null;
+            }
+            keys[i] = ((LocalDateTime) value).toEpochSecond(ZoneOffset.UTC);
+        }
+
+        return new LongKeys(
+            keys,
+            false // exact
+        );
+    }
+
+    private static Keys timeKeys(final Object[] values) {
+        final int count = values.length;
+        final long[] keys = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            final Object value = values[i];
+            if (false == value instanceof LocalTime) {
+                return null;
+            }
+            keys[i] = ((LocalTime) value).toNanoOfDay();
+        }
+
+        return new LongKeys(
+            keys,
+            true // exact
+        );
+    }
+
+    /**
+     * Numbers such as a {@link java.math.BigDecimal} may round when converted to a double, so equal keys are sorted
+     * again with the comparator. NaN has no order with other doubles and is not supported.
+     */
+    private static Keys numberKeys(final Object[] values) {
+        final int count = values.length;
+        final double[] keys = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            final Object value = values[i];
+            if (false == value instanceof Number) {
+                return null;
+            }
+            final double key = ((Number) value).doubleValue();
+            if (Double.isNaN(key)) {
+                return null;
+            }
+            keys[i] = key;
+        }
+
+        return new DoubleKeys(keys);
+    }
+
+    /**
+     * Sorts each run of indices whose primitive keys are equal using the comparator keys.
+     */
+    private static void sortEqualKeyRuns(final int[] indices,
+                                         final int[] temp,
+                                         final Keys primitiveKeys,
+                                         final Keys comparatorKeys) {
+        final int count = indices.length;
+        int from = 0;
+
+        while (from < count) {
+            int to = from + 1;
+            while (to < count && 0 == primitiveKeys.compare(indices[from], indices[to])) {
+                to++;
+            }
+
+            if (to - from > 1) {
+                sort(
+                    indices,
+                    temp,
+                    from,
+                    to,
+                    comparatorKeys
+                );
+            }
+            from = to;
+        }
+    }
+
+    /**
+     * A stable merge sort of the indices between from and to, using temp as the merge buffer.
+     */
+    private static void sort(final int[] indices,
+                             final int[] temp,
+                             final int from,
+                             final int to,
+                             final Keys keys) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                final int index = indices[i];
+                int j = i - 1;
+                while (j >= from && keys.compare(indices[j], index) > 0) {
+                    indices[j + 1] = indices[j];
+                    j--;
+                }
+                indices[j + 1] = index;
+            }
+        } else {
+            final int middle = (from + to) >>> 1;
+            sort(
+                indices,
+                temp,
+                from,
+                middle,
+                keys
+            );
+            sort(
+                indices,
+                temp,
+                middle,
+                to,
+                keys
+            );
+
+            // already in order
+            if (keys.compare(indices[middle - 1], indices[middle]) > 0) {
+                System.arraycopy(
+                    indices,
+                    from,
+                    temp,
+                    from,
+                    to - from
+                );
+
+                int left = from;
+                int right = middle;
+                int i = from;
+                while (left < middle && right < to) {
+                    indices[i++] = keys.compare(temp[right], temp[left]) < 0 ?
+                        temp[right++] :
+                        temp[left++];
+                }
+                while (left < middle) {
+                    indices[i++] = temp[left++];
+                }
+                while (right < to) {
+                    indices[i++] = temp[right++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares two values given their indices.
+     */
+    private static abstract class Keys {
+
+        Keys(final boolean exact) {
+            this.exact = exact;
+        }
+
+        abstract int compare(final int left,
+                             final int right);
+
+        /**
+         * When false, values with equal keys may still be different and must be compared using the comparator.
+         */
+        final boolean exact;
+    }
+
+    private final static class LongKeys extends Keys {
+
+        LongKeys(final long[] keys,
+                 final boolean exact) {
+            super(exact);
+            this.keys = keys;
+        }
+
+        @Override
+        int compare(final int left,
+                    final int right) {
+            return Long.compare(
+                this.keys[left],
+                this.keys[right]
+            );
+        }
+
+        private final long[] keys;
+    }
+
+    /**
+     * Uses primitive comparisons rather than {@link Double#compare(double, double)} so negative and positive zero are
+     * equal keys and left to the comparator.
+     */
+    private final static class DoubleKeys extends Keys {
+
+        DoubleKeys(final double[] keys) {
+            super(false);
+            this.keys = keys;
+        }
+
+        @Override
+        int compare(final int left,
+                    final int right) {
+            final double leftKey = this.keys[left];
+            final double rightKey = this.keys[right];
+
+            return leftKey < rightKey ?
+                -1 :
+                leftKey > rightKey ?
+                    1 :
+                    0;
+        }
+
+        private final double[] keys;
+    }
+
+    private final static class ComparatorKeys extends Keys {
+
+        ComparatorKeys(final Object[] values,
+                       final Comparator<Object> comparator) {
+            super(true);
+            this.values = values;
+            this.comparator = comparator;
+        }
+
+        @Override
+        int compare(final int left,
+                    final int right) {
+            return this.comparator.compare(
+                this.values[left],
+                this.values[right]
+            );
+        }
+
+        private final Object[] values;
+
+        private final Comparator<Object> comparator;
+    }
+
+    /**
+     * Stop creation
+     */
+    private SpreadsheetComparatorKeySort() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A stable parallel sort, typically of rows using the {@link Comparator} returned by
+ * {@link SpreadsheetPluginProviders#spreadsheetComparators(walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider, List, walkingkooka.plugin.ProviderContext)}.
+ * {@link Arrays#parallelSort(Object[], Comparator)} is already a stable fork join merge sort on the common pool, which
+ * sorts small arrays sequentially, so it is used rather than a custom pool and threshold.
+ */
+final class SpreadsheetComparatorParallelSort {
+
+    /**
+     * Returns a new list holding the rows in sorted order, rows that compare equal keep their original relative order.
+     */
+    static <T> List<T> sort(final List<T> rows,
+                            final Comparator<? super T> comparator) {
+        Objects.requireNonNull(rows, "rows");
+        Objects.requireNonNull(comparator, "comparator");
+
+        final T[] array = Cast.to(
+            rows.toArray()
+        );
+        Arrays.parallelSort(
+            array,
+            comparator
+        );
+
+        return Lists.of(array);
+    }
+
+    /**
+     * Stop creation
+     */
+    private SpreadsheetComparatorParallelSort() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link SpreadsheetComparatorProvider} that memoizes the {@link SpreadsheetComparator} resolved for each
+ * {@link SpreadsheetComparatorSelector} or {@link SpreadsheetComparatorName} and values pair. Entries are also keyed by
+ * the identity of the {@link ProviderContext}, so a comparator created for one context is never returned to another,
+ * callers should reuse a single long lived context per tenant or user to benefit from the cache.
+ * <br>
+ * Selector text given to {@link #spreadsheetComparator(String, ProviderContext)} is parsed through a
+ * {@link SpreadsheetPluginSelectorCache}, either owned by this cache or shared with other caches of the same tenant.
+ */
+public final class SpreadsheetComparatorProviderCache implements SpreadsheetComparatorProvider {
+
+    static SpreadsheetComparatorProviderCache with(final SpreadsheetComparatorProvider provider,
+                                                   final int maxSize) {
+        return with(
+            provider,
+            maxSize,
+            SpreadsheetPluginSelectorCache.with(maxSize)
+        );
+    }
+
+    static SpreadsheetComparatorProviderCache with(final SpreadsheetComparatorProvider provider,
+                                                   final int maxSize,
+                                                   final SpreadsheetPluginSelectorCache selectors) {
+        return new SpreadsheetComparatorProviderCache(
+            Objects.requireNonNull(provider, "provider"),
+            LruCache.with(maxSize),
+            Objects.requireNonNull(selectors, "selectors")
+        );
+    }
+
+    private SpreadsheetComparatorProviderCache(final SpreadsheetComparatorProvider provider,
+                                               final LruCache<Key, SpreadsheetComparator<?>> comparators,
+                                               final SpreadsheetPluginSelectorCache selectors) {
+        this.provider = provider;
+        this.comparators = comparators;
+        this.selectors = selectors;
+    }
+
+    /**
+     * Parses the selector text using the {@link #selectors()} and returns the cached comparator for the selector.
+     */
+    public SpreadsheetComparator<?> spreadsheetComparator(final String text,
+                                                          final ProviderContext context) {
+        return this.spreadsheetComparator(
+            this.selectors.spreadsheetComparatorSelector(text),
+            context
+        );
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                          final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return this.comparators.get(
+            new Key(
+                selector,
+                Lists.empty(),
+                context
+            ),
+            (k) -> this.provider.spreadsheetComparator(
+                selector,
+                context
+            )
+        );
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                          final List<?> values,
+                                                          final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+
+        return this.comparators.get(
+            new Key(
+                name,
+                Lists.immutable(values),
+                context
+            ),
+            (k) -> this.provider.spreadsheetComparator(
+                name,
+                k.values,
+                context
+            )
+        );
+    }
+
+    @Override
+    public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+        return this.provider.spreadsheetComparatorInfos();
+    }
+
+    private final SpreadsheetComparatorProvider provider;
+
+    // cache............................................................................................................
+
+    /**
+     * The number of comparator lookups answered from the cache.
+     */
+    public long hits() {
+        return this.comparators.hits();
+    }
+
+    /**
+     * The number of comparator lookups that called the wrapped provider.
+     */
+    public long misses() {
+        return this.comparators.misses();
+    }
+
+    private final LruCache<Key, SpreadsheetComparator<?>> comparators;
+
+    /**
+     * The cache used to parse selector text.
+     */
+    public SpreadsheetPluginSelectorCache selectors() {
+        return this.selectors;
+    }
+
+    private final SpreadsheetPluginSelectorCache selectors;
+
+    /**
+     * The cache key, either a {@link SpreadsheetComparatorSelector} with no values or a {@link SpreadsheetComparatorName}
+     * with a read only copy of its values, and the identity of the {@link ProviderContext}.
+     */
+    private final static class Key {
+
+        Key(final Object name,
+            final List<?> values,
+            final ProviderContext context) {
+            this.name = name;
+            this.values = values;
+            this.context = context;
+        }
+
+        final Object name;
+
+        final List<?> values;
+
+        final ProviderContext context;
+
+        @Override
+        public int hashCode() {
+            return (31 * this.name.hashCode() +
+                this.values.hashCode()) * 31 +
+                System.identityHashCode(this.context);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return this == other ||
+                other instanceof Key &&
+                    this.equals0((Key) other);
+        }
+
+        private boolean equals0(final Key other) {
+            return this.name.equals(other.name) &&
+                this.values.equals(other.values) &&
+                this.context == other.context;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + " " + this.values;
+        }
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link SpreadsheetComparatorProvider} that runs every call to the wrapped provider through a
+ * {@link SpreadsheetPluginProviderBulkhead}, so a slow or hanging provider is rejected or timed out instead of
+ * stalling its callers.
+ * <br>
+ * Only the calls to the provider are guarded, the returned {@link SpreadsheetComparator} is not wrapped and runs on the
+ * caller's thread, so a comparator that hangs while comparing values still stalls its caller.
+ */
+final class SpreadsheetComparatorProviderGuarded implements SpreadsheetComparatorProvider {
+
+    static SpreadsheetComparatorProviderGuarded with(final SpreadsheetComparatorProvider provider,
+                                                     final SpreadsheetPluginProviderBulkhead bulkhead) {
+        return new SpreadsheetComparatorProviderGuarded(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(bulkhead, "bulkhead")
+        );
+    }
+
+    private SpreadsheetComparatorProviderGuarded(final SpreadsheetComparatorProvider provider,
+                                                 final SpreadsheetPluginProviderBulkhead bulkhead) {
+        this.provider = provider;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                          final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.bulkhead.call(
+            () -> this.provider.spreadsheetComparator(
+                selector,
+                context
+            )
+        );
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                          final List<?> values,
+                                                          final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+
+        return this.bulkhead.call(
+            () -> this.provider.spreadsheetComparator(
+                name,
+                values,
+                context
+            )
+        );
+    }
+
+    @Override
+    public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+        return this.bulkhead.call(
+            this.provider::spreadsheetComparatorInfos
+        );
+    }
+
+    private final SpreadsheetComparatorProvider provider;
+
+    private final SpreadsheetPluginProviderBulkhead bulkhead;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link SpreadsheetComparatorProvider} that records the latency of every call to the wrapped provider in a
+ * {@link SpreadsheetPluginProviderMetrics}, keyed by method and {@link SpreadsheetComparatorName}.
+ * <br>
+ * Only the calls to the provider are timed, the returned {@link SpreadsheetComparator} is not wrapped, so the time
+ * spent comparing values is not recorded and a comparator that is slow to compare does not show in the metrics.
+ */
+final class SpreadsheetComparatorProviderInstrumented implements SpreadsheetComparatorProvider {
+
+    static SpreadsheetComparatorProviderInstrumented with(final SpreadsheetComparatorProvider provider,
+                                                          final SpreadsheetPluginProviderMetrics metrics) {
+        return new SpreadsheetComparatorProviderInstrumented(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(metrics, "metrics")
+        );
+    }
+
+    private SpreadsheetComparatorProviderInstrumented(final SpreadsheetComparatorProvider provider,
+                                                      final SpreadsheetPluginProviderMetrics metrics) {
+        this.provider = provider;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                          final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final SpreadsheetComparator<?> result = this.provider.spreadsheetComparator(
+                selector,
+                context
+            );
+            failed = false;
+            return result;
+        } finally {
+            this.record(
+                "spreadsheetComparator",
+                selector.name(),
+                start,
+                failed
+            );
+        }
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                          final List<?> values,
+                                                          final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final SpreadsheetComparator<?> result = this.provider.spreadsheetComparator(
+                name,
+                values,
+                context
+            );
+            failed = false;
+            return result;
+        } finally {
+            this.record(
+                "spreadsheetComparator",
+                name,
+                start,
+                failed
+            );
+        }
+    }
+
+    @Override
+    public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final SpreadsheetComparatorInfoSet result = this.provider.spreadsheetComparatorInfos();
+            failed = false;
+            return result;
+        } finally {
+            this.record(
+                "spreadsheetComparatorInfos",
+                null,
+                start,
+                failed
+            );
+        }
+    }
+
+    private final SpreadsheetComparatorProvider provider;
+
+    /**
+     * Records the latency of a call that started at the given {@link System#nanoTime()}, timing inline so recording a
+     * call does not allocate a lambda.
+     */
+    private void record(final String method,
+                        final Object name,
+                        final long start,
+                        final boolean failed) {
+        this.metrics.record(
+            method,
+            name,
+            System.nanoTime() - start,
+            failed
+        );
+    }
+
+    private final SpreadsheetPluginProviderMetrics metrics;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
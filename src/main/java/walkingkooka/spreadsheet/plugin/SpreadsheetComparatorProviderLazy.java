@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SpreadsheetComparatorProvider} that defers creating the wrapped provider until its first use. The
+ * {@link Supplier} is invoked at most once, even when several threads race on the first call.
+ */
+final class SpreadsheetComparatorProviderLazy implements SpreadsheetComparatorProvider {
+
+    static SpreadsheetComparatorProviderLazy with(final Supplier<SpreadsheetComparatorProvider> supplier) {
+        return new SpreadsheetComparatorProviderLazy(
+            Objects.requireNonNull(supplier, "supplier")
+        );
+    }
+
+    private SpreadsheetComparatorProviderLazy(final Supplier<SpreadsheetComparatorProvider> supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                          final ProviderContext context) {
+        return this.provider()
+            .spreadsheetComparator(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                          final List<?> values,
+                                                          final ProviderContext context) {
+        return this.provider()
+            .spreadsheetComparator(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+        return this.provider()
+            .spreadsheetComparatorInfos();
+    }
+
+    /**
+     * Returns the wrapped {@link SpreadsheetComparatorProvider}, creating it on the first call.
+     */
+    SpreadsheetComparatorProvider provider() {
+        SpreadsheetComparatorProvider provider = this.provider;
+        if (null == provider) {
+            synchronized (this) {
+                provider = this.provider;
+                if (null == provider) {
+                    provider = Objects.requireNonNull(
+                        this.supplier.get(),
+                        "supplier returned null provider"
+                    );
+                    this.provider = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
+    private final Supplier<SpreadsheetComparatorProvider> supplier;
+
+    private volatile SpreadsheetComparatorProvider provider;
+
+    // Object...........................................................................................................
+
+    /**
+     * Does not create the wrapped provider, returning the {@link Supplier#toString()} until it has been created.
+     */
+    @Override
+    public String toString() {
+        final SpreadsheetComparatorProvider provider = this.provider;
+        return null != provider ?
+            provider.toString() :
+            this.supplier.toString();
+    }
+}
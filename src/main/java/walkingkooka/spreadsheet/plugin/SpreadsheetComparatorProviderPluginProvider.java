@@ -19,7 +19,6 @@ package walkingkooka.spreadsheet.plugin;
 
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.plugin.PluginInfo;
-import walkingkooka.plugin.PluginName;
 import walkingkooka.plugin.PluginProvider;
 import walkingkooka.plugin.PluginProviderName;
 import walkingkooka.plugin.ProviderContext;
@@ -29,6 +28,7 @@ import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
 import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
 import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
 import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
 
 import java.util.List;
 import java.util.Objects;
@@ -56,10 +56,27 @@ final class SpreadsheetComparatorProviderPluginProvider implements SpreadsheetCo
                                                         final PluginProviderName name,
                                                         final AbsoluteUrl url) {
         this.spreadsheetComparatorProvider = spreadsheetComparatorProvider;
+        this.selectors = spreadsheetComparatorProvider instanceof SpreadsheetComparatorProviderCache ?
+            ((SpreadsheetComparatorProviderCache) spreadsheetComparatorProvider).selectors() :
+            SpreadsheetPluginSelectorCache.with(SpreadsheetPluginSelectorCache.MAX_SIZE);
         this.name = name;
         this.url = url;
     }
 
+    /**
+     * Parses the selector text using the {@link SpreadsheetPluginSelectorCache} owned by this wrapper, or by the wrapped
+     * {@link SpreadsheetComparatorProviderCache}, so each distinct selector is parsed once, and returns its comparator.
+     */
+    SpreadsheetComparator<?> spreadsheetComparator(final String text,
+                                                   final ProviderContext context) {
+        return this.spreadsheetComparator(
+            this.selectors.spreadsheetComparatorSelector(text),
+            context
+        );
+    }
+
+    private final SpreadsheetPluginSelectorCache selectors;
+
     @Override
     public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
                                                           final ProviderContext context) {
@@ -105,19 +122,73 @@ final class SpreadsheetComparatorProviderPluginProvider implements SpreadsheetCo
 
     @Override
     public Set<PluginInfo> pluginInfos() {
-        return this.spreadsheetComparatorInfos()
-            .stream()
+        return this.pluginInfos.get(
+            this.spreadsheetComparatorInfos()
+        );
+    }
+
+    /**
+     * Caches the {@link PluginInfo} until the {@link SpreadsheetComparatorInfoSet} changes.
+     */
+    private final PluginInfoSetCache<SpreadsheetComparatorInfoSet> pluginInfos = PluginInfoSetCache.with(
+        SpreadsheetComparatorProviderPluginProvider::toPlugins
+    );
+
+    private static Set<PluginInfo> toPlugins(final SpreadsheetComparatorInfoSet infos) {
+        return infos.stream()
             .map(SpreadsheetComparatorProviderPluginProvider::toPlugin)
             .collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the changes to the {@link #pluginInfos()} since the given version.
+     */
+    SpreadsheetPluginInfosDelta pluginInfosSince(final long version) {
+        final PluginInfoChangeFeed changes = this.changes;
+        changes.update(
+            this.pluginInfos()
+        );
+        return changes.since(version);
+    }
+
+    private final PluginInfoChangeFeed changes = PluginInfoChangeFeed.with(PluginInfoChangeFeed.MAX_CHANGES);
+
+    /**
+     * Returns the JSON of the {@link #pluginInfos()}, which is cached until the infos change.
+     */
+    SpreadsheetPluginJsonPayload pluginInfosJson(final JsonNodeMarshallContext context) {
+        return this.pluginInfosJson.get(
+            this.pluginInfos(),
+            context
+        );
+    }
+
+    private final SpreadsheetPluginJsonPayloadCache<Set<PluginInfo>> pluginInfosJson = SpreadsheetPluginJsonPayloadCache.with(
+        (infos, context) -> context.marshallCollection(infos)
+    );
+
+    /**
+     * Returns the JSON of the {@link #spreadsheetComparatorInfos()}, which is cached until the infos change.
+     */
+    SpreadsheetPluginJsonPayload spreadsheetComparatorInfosJson(final JsonNodeMarshallContext context) {
+        return this.spreadsheetComparatorInfosJson.get(
+            this.spreadsheetComparatorInfos(),
+            context
+        );
+    }
+
+    private final SpreadsheetPluginJsonPayloadCache<SpreadsheetComparatorInfoSet> spreadsheetComparatorInfosJson = SpreadsheetPluginJsonPayloadCache.with(
+        (infos, context) -> context.marshall(infos)
+    );
+
+    /**
+     * Returns the canonical {@link PluginInfo}, so identical infos from other wrappers share one instance.
+     */
     private static PluginInfo toPlugin(final SpreadsheetComparatorInfo info) {
-        return PluginInfo.with(
+        return PluginInfoInterner.pluginInfo(
             info.url(),
-            PluginName.with(
-                info.name()
-                    .value()
-            )
+            info.name()
+                .value()
         );
     }
 
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link SpreadsheetComparatorProvider} whose wrapped provider can be replaced while it is in use. The provider and
+ * the caches built over it by the decorator form an immutable generation, which
+ * {@link #reload(SpreadsheetComparatorProvider)} replaces with a single atomic write. Readers never lock and
+ * each call uses a single generation, so a reload never mixes a new provider with caches of the old one.
+ * <br>
+ * Caches built outside the decorator, such as the indices of a {@link SpreadsheetPluginProviderCollection}, are not
+ * part of a generation. Owners should register a listener with {@link #addReloadListener(Runnable)} to rebuild or
+ * clear them after each reload.
+ */
+public final class SpreadsheetComparatorProviderReloadable implements SpreadsheetComparatorProvider {
+
+    static SpreadsheetComparatorProviderReloadable with(final SpreadsheetComparatorProvider provider,
+                                                        final UnaryOperator<SpreadsheetComparatorProvider> decorator) {
+        return new SpreadsheetComparatorProviderReloadable(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(decorator, "decorator")
+        );
+    }
+
+    private SpreadsheetComparatorProviderReloadable(final SpreadsheetComparatorProvider provider,
+                                                    final UnaryOperator<SpreadsheetComparatorProvider> decorator) {
+        this.decorator = decorator;
+        this.generation = new AtomicReference<>(
+            this.generation(provider)
+        );
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                          final ProviderContext context) {
+        return this.decorated()
+            .spreadsheetComparator(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                          final List<?> values,
+                                                          final ProviderContext context) {
+        return this.decorated()
+            .spreadsheetComparator(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+        return this.decorated()
+            .spreadsheetComparatorInfos();
+    }
+
+    /**
+     * Replaces the wrapped provider, decorating it with fresh caches, and returns the previous undecorated provider.
+     * Calls already in progress complete with the previous provider. The reload listeners are run before returning.
+     */
+    public SpreadsheetComparatorProvider reload(final SpreadsheetComparatorProvider provider) {
+        Objects.requireNonNull(provider, "provider");
+
+        final SpreadsheetComparatorProvider previous = this.generation.getAndSet(
+            this.generation(provider)
+        ).provider;
+
+        for (final Runnable listener : this.listeners) {
+            listener.run();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Adds a listener that is run after every reload, once the new provider is in use. The returned {@link Runnable}
+     * removes the listener.
+     */
+    public Runnable addReloadListener(final Runnable listener) {
+        Objects.requireNonNull(listener, "listener");
+
+        this.listeners.add(listener);
+        return () -> this.listeners.remove(listener);
+    }
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the current undecorated provider.
+     */
+    public SpreadsheetComparatorProvider provider() {
+        return this.generation.get()
+            .provider;
+    }
+
+    /**
+     * Returns the decorated provider of the current generation.
+     */
+    private SpreadsheetComparatorProvider decorated() {
+        return this.generation.get()
+            .decorated;
+    }
+
+    private Generation generation(final SpreadsheetComparatorProvider provider) {
+        return new Generation(
+            provider,
+            Objects.requireNonNull(
+                this.decorator.apply(provider),
+                "decorator returned null provider"
+            )
+        );
+    }
+
+    private final UnaryOperator<SpreadsheetComparatorProvider> decorator;
+
+    private final AtomicReference<Generation> generation;
+
+    private final static class Generation {
+
+        Generation(final SpreadsheetComparatorProvider provider,
+                   final SpreadsheetComparatorProvider decorated) {
+            this.provider = provider;
+            this.decorated = decorated;
+        }
+
+        final SpreadsheetComparatorProvider provider;
+
+        final SpreadsheetComparatorProvider decorated;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider()
+            .toString();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link Comparator} that compares rows, where each row is a {@link List} holding one value per column. Column
+ * values are compared left to right with the {@link SpreadsheetComparator} for that column, stopping at the first
+ * column that is not equal.
+ */
+final class SpreadsheetComparatorRowComparator implements Comparator<List<?>> {
+
+    /**
+     * Resolves all the selectors of a multi column sort using the provider, returning a comparator that compares rows
+     * where each row holds one value for each selector. Selectors that appear more than once are only resolved once.
+     */
+    static SpreadsheetComparatorRowComparator resolve(final SpreadsheetComparatorProvider provider,
+                                                      final List<SpreadsheetComparatorSelector> selectors,
+                                                      final ProviderContext context) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(selectors, "selectors");
+        Objects.requireNonNull(context, "context");
+
+        final Map<SpreadsheetComparatorSelector, SpreadsheetComparator<?>> selectorToComparator = Maps.hash();
+        final List<SpreadsheetComparator<?>> comparators = Lists.array();
+
+        for (final SpreadsheetComparatorSelector selector : selectors) {
+            SpreadsheetComparator<?> comparator = selectorToComparator.get(selector);
+            if (null == comparator) {
+                comparator = provider.spreadsheetComparator(
+                    selector,
+                    context
+                );
+                selectorToComparator.put(
+                    selector,
+                    comparator
+                );
+            }
+            comparators.add(comparator);
+        }
+
+        return with(comparators);
+    }
+
+    static SpreadsheetComparatorRowComparator with(final List<SpreadsheetComparator<?>> comparators) {
+        return new SpreadsheetComparatorRowComparator(
+            comparators.toArray(new SpreadsheetComparator<?>[0])
+        );
+    }
+
+    private SpreadsheetComparatorRowComparator(final SpreadsheetComparator<?>[] comparators) {
+        this.comparators = comparators;
+    }
+
+    @Override
+    public int compare(final List<?> left,
+                       final List<?> right) {
+        final SpreadsheetComparator<?>[] comparators = this.comparators;
+        final int count = comparators.length;
+
+        int result = 0;
+        for (int i = 0; 0 == result && i < count; i++) {
+            final Comparator<Object> comparator = Cast.to(comparators[i]);
+            result = comparator.compare(
+                left.get(i),
+                right.get(i)
+            );
+        }
+
+        return result;
+    }
+
+    private final SpreadsheetComparator<?>[] comparators;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.comparators);
+    }
+}
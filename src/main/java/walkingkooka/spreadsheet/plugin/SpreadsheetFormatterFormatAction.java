@@ -0,0 +1,167 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatterContext;
+import walkingkooka.tree.text.TextNode;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * A {@link RecursiveAction} that formats a range of values with a single {@link SpreadsheetFormatter}, splitting the
+ * range in half until it is below a threshold. Each result is written to the same index as its value, so results are
+ * always in input order.
+ * <br>
+ * {@link SpreadsheetFormatterContext} are not required to be thread safe, so each range asks the context
+ * {@link Supplier} for its own context on the worker thread formatting it. The supplier itself is called from many
+ * threads and must return a context that is not used by any other thread, or one that is known to be thread safe.
+ */
+final class SpreadsheetFormatterFormatAction extends RecursiveAction {
+
+    /**
+     * Ranges with this many values or fewer are formatted by the current thread.
+     */
+    final static int THRESHOLD = 1024;
+
+    /**
+     * Formats all the values with the formatter in parallel chunks using the given {@link ForkJoinPool}, returning the
+     * results in the same order as the values.
+     */
+    static List<Optional<TextNode>> format(final SpreadsheetFormatter formatter,
+                                           final List<?> values,
+                                           final Supplier<? extends SpreadsheetFormatterContext> context,
+                                           final ForkJoinPool pool) {
+        Objects.requireNonNull(formatter, "formatter");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(pool, "pool");
+
+        final Object[] array = values.toArray();
+        final Object[] results = new Object[array.length];
+
+        pool.invoke(
+            with(
+                formatter,
+                context,
+                array,
+                results
+            )
+        );
+
+        return Cast.to(
+            Lists.of(results)
+        );
+    }
+
+    static SpreadsheetFormatterFormatAction with(final SpreadsheetFormatter formatter,
+                                                 final Supplier<? extends SpreadsheetFormatterContext> context,
+                                                 final Object[] values,
+                                                 final Object[] results) {
+        return new SpreadsheetFormatterFormatAction(
+            formatter,
+            context,
+            values,
+            results,
+            0,
+            values.length
+        );
+    }
+
+    private SpreadsheetFormatterFormatAction(final SpreadsheetFormatter formatter,
+                                             final Supplier<? extends SpreadsheetFormatterContext> context,
+                                             final Object[] values,
+                                             final Object[] results,
+                                             final int from,
+                                             final int to) {
+        this.formatter = formatter;
+        this.context = context;
+        this.values = values;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        final int from = this.from;
+        final int to = this.to;
+
+        if (to - from <= THRESHOLD) {
+            final SpreadsheetFormatter formatter = this.formatter;
+            final SpreadsheetFormatterContext context = Objects.requireNonNull(
+                this.context.get(),
+                "context supplier returned null"
+            );
+            final Object[] values = this.values;
+            final Object[] results = this.results;
+
+            for (int i = from; i < to; i++) {
+                results[i] = formatter.format(
+                    values[i],
+                    context
+                );
+            }
+        } else {
+            final int middle = (from + to) >>> 1;
+
+            invokeAll(
+                this.range(from, middle),
+                this.range(middle, to)
+            );
+        }
+    }
+
+    private SpreadsheetFormatterFormatAction range(final int from,
+                                                   final int to) {
+        return new SpreadsheetFormatterFormatAction(
+            this.formatter,
+            this.context,
+            this.values,
+            this.results,
+            from,
+            to
+        );
+    }
+
+    private final SpreadsheetFormatter formatter;
+
+    private final Supplier<? extends SpreadsheetFormatterContext> context;
+
+    private final Object[] values;
+
+    private final Object[] results;
+
+    private final int from;
+
+    private final int to;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.formatter + " " + this.from + ".." + this.to;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link SpreadsheetFormatterProvider} that memoizes the {@link SpreadsheetFormatter} created for each
+ * {@link SpreadsheetFormatterSelector} and {@link ProviderContext}, so the pattern is only parsed once per distinct
+ * selector. Contexts are compared by identity, so a formatter created for one context is never returned to another,
+ * callers should reuse a single long lived context per tenant or user to benefit from the cache.
+ * <br>
+ * The next token for each selector is cached, so retyping or deleting characters in a pattern editor revisits
+ * previously computed selectors without calling the wrapped provider.
+ * <br>
+ * Samples are also cached, keyed by the selector, includeSamples and a fingerprint of the locale, number and date
+ * symbols including month and week day name abbreviations, and the full current date time of the
+ * {@link SpreadsheetFormatterProviderSamplesContext}. Samples preview the current date time, so they are only reused
+ * while {@link SpreadsheetFormatterProviderSamplesContext#now()} returns the same value, for example by a context that
+ * fixes the time for a request, and entries for past times are evicted as the least recently used.
+ * <br>
+ * Selector text given to {@link #spreadsheetFormatter(String, ProviderContext)} is parsed through a
+ * {@link SpreadsheetPluginSelectorCache}, either owned by this cache or shared with other caches of the same tenant.
+ */
+public final class SpreadsheetFormatterProviderCache implements SpreadsheetFormatterProvider {
+
+    static SpreadsheetFormatterProviderCache with(final SpreadsheetFormatterProvider provider,
+                                                  final int maxSize) {
+        return with(
+            provider,
+            maxSize,
+            SpreadsheetPluginSelectorCache.with(maxSize)
+        );
+    }
+
+    static SpreadsheetFormatterProviderCache with(final SpreadsheetFormatterProvider provider,
+                                                  final int maxSize,
+                                                  final SpreadsheetPluginSelectorCache selectors) {
+        return new SpreadsheetFormatterProviderCache(
+            Objects.requireNonNull(provider, "provider"),
+            LruCache.with(maxSize),
+            LruCache.with(maxSize),
+            LruCache.with(maxSize),
+            Objects.requireNonNull(selectors, "selectors")
+        );
+    }
+
+    private SpreadsheetFormatterProviderCache(final SpreadsheetFormatterProvider provider,
+                                              final LruCache<Key, SpreadsheetFormatter> formatters,
+                                              final LruCache<SpreadsheetFormatterSelector, Optional<SpreadsheetFormatterSelectorToken>> nextTokens,
+                                              final LruCache<List<Object>, List<SpreadsheetFormatterSample>> samples,
+                                              final SpreadsheetPluginSelectorCache selectors) {
+        this.provider = provider;
+        this.formatters = formatters;
+        this.nextTokens = nextTokens;
+        this.samples = samples;
+        this.selectors = selectors;
+    }
+
+    /**
+     * Parses the selector text using the {@link #selectors()} and returns the cached formatter for the selector.
+     */
+    public SpreadsheetFormatter spreadsheetFormatter(final String text,
+                                                     final ProviderContext context) {
+        return this.spreadsheetFormatter(
+            this.selectors.spreadsheetFormatterSelector(text),
+            context
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                     final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return this.formatters.get(
+            new Key(
+                selector,
+                context
+            ),
+            (k) -> this.provider.spreadsheetFormatter(
+                selector,
+                context
+            )
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context) {
+        return this.provider.spreadsheetFormatter(
+            name,
+            values,
+            context
+        );
+    }
+
+    @Override
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.nextTokens.get(
+            selector,
+            this.provider::spreadsheetFormatterNextToken
+        );
+    }
+
+    @Override
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                        final boolean includeSamples,
+                                                                        final SpreadsheetFormatterProviderSamplesContext context) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+
+        return this.samples.get(
+            samplesKey(
+                selector,
+                includeSamples,
+                context
+            ),
+            (k) -> Lists.readOnly(
+                this.provider.spreadsheetFormatterSamples(
+                    selector,
+                    includeSamples,
+                    context
+                )
+            )
+        );
+    }
+
+    /**
+     * Builds a key holding the selector, includeSamples and the context properties that affect the text of samples.
+     */
+    private static List<Object> samplesKey(final SpreadsheetFormatterSelector selector,
+                                           final boolean includeSamples,
+                                           final SpreadsheetFormatterProviderSamplesContext context) {
+        return Lists.of(
+            selector,
+            includeSamples,
+            context.locale(),
+            context.currencySymbol(),
+            context.decimalSeparator(),
+            context.exponentSymbol(),
+            context.groupSeparator(),
+            context.negativeSign(),
+            context.percentageSymbol(),
+            context.positiveSign(),
+            context.ampms(),
+            context.monthNames(),
+            context.monthNameAbbreviations(),
+            context.weekDayNames(),
+            context.weekDayNameAbbreviations(),
+            context.now()
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+        return this.provider.spreadsheetFormatterInfos();
+    }
+
+    private final SpreadsheetFormatterProvider provider;
+
+    // cache............................................................................................................
+
+    /**
+     * The number of formatter lookups answered from the cache.
+     */
+    public long hits() {
+        return this.formatters.hits();
+    }
+
+    /**
+     * The number of formatter lookups that called the wrapped provider.
+     */
+    public long misses() {
+        return this.formatters.misses();
+    }
+
+    private final LruCache<Key, SpreadsheetFormatter> formatters;
+
+    /**
+     * The formatter cache key, a {@link SpreadsheetFormatterSelector} and the identity of the {@link ProviderContext}.
+     */
+    private final static class Key {
+
+        Key(final SpreadsheetFormatterSelector selector,
+            final ProviderContext context) {
+            this.selector = selector;
+            this.context = context;
+        }
+
+        final SpreadsheetFormatterSelector selector;
+
+        final ProviderContext context;
+
+        @Override
+        public int hashCode() {
+            return 31 * this.selector.hashCode() +
+                System.identityHashCode(this.context);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return this == other ||
+                other instanceof Key &&
+                    this.equals0((Key) other);
+        }
+
+        private boolean equals0(final Key other) {
+            return this.selector.equals(other.selector) &&
+                this.context == other.context;
+        }
+
+        @Override
+        public String toString() {
+            return this.selector.toString();
+        }
+    }
+
+    /**
+     * The number of next token lookups answered from the cache.
+     */
+    public long nextTokenHits() {
+        return this.nextTokens.hits();
+    }
+
+    /**
+     * The number of next token lookups that called the wrapped provider.
+     */
+    public long nextTokenMisses() {
+        return this.nextTokens.misses();
+    }
+
+    private final LruCache<SpreadsheetFormatterSelector, Optional<SpreadsheetFormatterSelectorToken>> nextTokens;
+
+    /**
+     * The number of samples lookups answered from the cache.
+     */
+    public long samplesHits() {
+        return this.samples.hits();
+    }
+
+    /**
+     * The number of samples lookups that called the wrapped provider.
+     */
+    public long samplesMisses() {
+        return this.samples.misses();
+    }
+
+    private final LruCache<List<Object>, List<SpreadsheetFormatterSample>> samples;
+
+    /**
+     * The cache used to parse selector text.
+     */
+    public SpreadsheetPluginSelectorCache selectors() {
+        return this.selectors;
+    }
+
+    private final SpreadsheetPluginSelectorCache selectors;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
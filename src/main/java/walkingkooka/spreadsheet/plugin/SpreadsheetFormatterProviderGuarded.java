@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link SpreadsheetFormatterProvider} that runs every call to the wrapped provider through a
+ * {@link SpreadsheetPluginProviderBulkhead}, so a slow or hanging provider is rejected or timed out instead of
+ * stalling its callers.
+ * <br>
+ * Only the calls to the provider are guarded, the returned {@link SpreadsheetFormatter} is not wrapped and runs on the
+ * caller's thread, so a formatter that hangs while formatting a value still stalls its caller.
+ */
+final class SpreadsheetFormatterProviderGuarded implements SpreadsheetFormatterProvider {
+
+    static SpreadsheetFormatterProviderGuarded with(final SpreadsheetFormatterProvider provider,
+                                                    final SpreadsheetPluginProviderBulkhead bulkhead) {
+        return new SpreadsheetFormatterProviderGuarded(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(bulkhead, "bulkhead")
+        );
+    }
+
+    private SpreadsheetFormatterProviderGuarded(final SpreadsheetFormatterProvider provider,
+                                                final SpreadsheetPluginProviderBulkhead bulkhead) {
+        this.provider = provider;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                     final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.bulkhead.call(
+            () -> this.provider.spreadsheetFormatter(
+                selector,
+                context
+            )
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+
+        return this.bulkhead.call(
+            () -> this.provider.spreadsheetFormatter(
+                name,
+                values,
+                context
+            )
+        );
+    }
+
+    @Override
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.bulkhead.call(
+            () -> this.provider.spreadsheetFormatterNextToken(selector)
+        );
+    }
+
+    @Override
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                        final boolean includeSamples,
+                                                                        final SpreadsheetFormatterProviderSamplesContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.bulkhead.call(
+            () -> this.provider.spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            )
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+        return this.bulkhead.call(
+            this.provider::spreadsheetFormatterInfos
+        );
+    }
+
+    private final SpreadsheetFormatterProvider provider;
+
+    private final SpreadsheetPluginProviderBulkhead bulkhead;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
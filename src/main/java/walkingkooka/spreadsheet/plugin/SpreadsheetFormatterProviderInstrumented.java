@@ -0,0 +1,197 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link SpreadsheetFormatterProvider} that records the latency of every call to the wrapped provider in a
+ * {@link SpreadsheetPluginProviderMetrics}, keyed by method and {@link SpreadsheetFormatterName}.
+ * <br>
+ * Only the calls to the provider are timed, the returned {@link SpreadsheetFormatter} is not wrapped, so the time spent
+ * formatting values is not recorded and a formatter that is slow to format does not show in the metrics.
+ */
+final class SpreadsheetFormatterProviderInstrumented implements SpreadsheetFormatterProvider {
+
+    static SpreadsheetFormatterProviderInstrumented with(final SpreadsheetFormatterProvider provider,
+                                                         final SpreadsheetPluginProviderMetrics metrics) {
+        return new SpreadsheetFormatterProviderInstrumented(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(metrics, "metrics")
+        );
+    }
+
+    private SpreadsheetFormatterProviderInstrumented(final SpreadsheetFormatterProvider provider,
+                                                     final SpreadsheetPluginProviderMetrics metrics) {
+        this.provider = provider;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                     final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final SpreadsheetFormatter result = this.provider.spreadsheetFormatter(
+                selector,
+                context
+            );
+            failed = false;
+            return result;
+        } finally {
+            this.record(
+                "spreadsheetFormatter",
+                selector.name(),
+                start,
+                failed
+            );
+        }
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context) {
+        Objects.requireNonNull(name, "name");
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final SpreadsheetFormatter result = this.provider.spreadsheetFormatter(
+                name,
+                values,
+                context
+            );
+            failed = false;
+            return result;
+        } finally {
+            this.record(
+                "spreadsheetFormatter",
+                name,
+                start,
+                failed
+            );
+        }
+    }
+
+    @Override
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+        Objects.requireNonNull(selector, "selector");
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final Optional<SpreadsheetFormatterSelectorToken> result = this.provider.spreadsheetFormatterNextToken(selector);
+            failed = false;
+            return result;
+        } finally {
+            this.record(
+                "spreadsheetFormatterNextToken",
+                selector.name(),
+                start,
+                failed
+            );
+        }
+    }
+
+    @Override
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                        final boolean includeSamples,
+                                                                        final SpreadsheetFormatterProviderSamplesContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final List<SpreadsheetFormatterSample> result = this.provider.spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            );
+            failed = false;
+            return result;
+        } finally {
+            this.record(
+                "spreadsheetFormatterSamples",
+                selector.name(),
+                start,
+                failed
+            );
+        }
+    }
+
+    @Override
+    public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final SpreadsheetFormatterInfoSet result = this.provider.spreadsheetFormatterInfos();
+            failed = false;
+            return result;
+        } finally {
+            this.record(
+                "spreadsheetFormatterInfos",
+                null,
+                start,
+                failed
+            );
+        }
+    }
+
+    private final SpreadsheetFormatterProvider provider;
+
+    /**
+     * Records the latency of a call that started at the given {@link System#nanoTime()}, timing inline so recording a
+     * call does not allocate a lambda.
+     */
+    private void record(final String method,
+                        final Object name,
+                        final long start,
+                        final boolean failed) {
+        this.metrics.record(
+            method,
+            name,
+            System.nanoTime() - start,
+            failed
+        );
+    }
+
+    private final SpreadsheetPluginProviderMetrics metrics;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
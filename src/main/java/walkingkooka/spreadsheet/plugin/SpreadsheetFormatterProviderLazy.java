@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SpreadsheetFormatterProvider} that defers creating the wrapped provider until its first use. The
+ * {@link Supplier} is invoked at most once, even when several threads race on the first call.
+ */
+final class SpreadsheetFormatterProviderLazy implements SpreadsheetFormatterProvider {
+
+    static SpreadsheetFormatterProviderLazy with(final Supplier<SpreadsheetFormatterProvider> supplier) {
+        return new SpreadsheetFormatterProviderLazy(
+            Objects.requireNonNull(supplier, "supplier")
+        );
+    }
+
+    private SpreadsheetFormatterProviderLazy(final Supplier<SpreadsheetFormatterProvider> supplier) {
+        this.supplier = supplier;
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                     final ProviderContext context) {
+        return this.provider()
+            .spreadsheetFormatter(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context) {
+        return this.provider()
+            .spreadsheetFormatter(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+        return this.provider()
+            .spreadsheetFormatterNextToken(selector);
+    }
+
+    @Override
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                        final boolean includeSamples,
+                                                                        final SpreadsheetFormatterProviderSamplesContext context) {
+        return this.provider()
+            .spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+        return this.provider()
+            .spreadsheetFormatterInfos();
+    }
+
+    /**
+     * Returns the wrapped {@link SpreadsheetFormatterProvider}, creating it on the first call.
+     */
+    SpreadsheetFormatterProvider provider() {
+        SpreadsheetFormatterProvider provider = this.provider;
+        if (null == provider) {
+            synchronized (this) {
+                provider = this.provider;
+                if (null == provider) {
+                    provider = Objects.requireNonNull(
+                        this.supplier.get(),
+                        "supplier returned null provider"
+                    );
+                    this.provider = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
+    private final Supplier<SpreadsheetFormatterProvider> supplier;
+
+    private volatile SpreadsheetFormatterProvider provider;
+
+    // Object...........................................................................................................
+
+    /**
+     * Does not create the wrapped provider, returning the {@link Supplier#toString()} until it has been created.
+     */
+    @Override
+    public String toString() {
+        final SpreadsheetFormatterProvider provider = this.provider;
+        return null != provider ?
+            provider.toString() :
+            this.supplier.toString();
+    }
+}
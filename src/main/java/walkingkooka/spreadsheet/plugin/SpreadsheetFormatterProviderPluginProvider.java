@@ -19,12 +19,10 @@ package walkingkooka.spreadsheet.plugin;
 
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.plugin.PluginInfo;
-import walkingkooka.plugin.PluginName;
 import walkingkooka.plugin.PluginProvider;
 import walkingkooka.plugin.PluginProviderName;
 import walkingkooka.plugin.ProviderContext;
 import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
-import walkingkooka.spreadsheet.format.*;
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfo;
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
@@ -33,6 +31,7 @@ import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamp
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
 
 import java.util.List;
 import java.util.Objects;
@@ -60,10 +59,27 @@ final class SpreadsheetFormatterProviderPluginProvider implements SpreadsheetFor
                                                        final PluginProviderName name,
                                                        final AbsoluteUrl url) {
         this.spreadsheetFormatterProvider = spreadsheetFormatterProvider;
+        this.selectors = spreadsheetFormatterProvider instanceof SpreadsheetFormatterProviderCache ?
+            ((SpreadsheetFormatterProviderCache) spreadsheetFormatterProvider).selectors() :
+            SpreadsheetPluginSelectorCache.with(SpreadsheetPluginSelectorCache.MAX_SIZE);
         this.name = name;
         this.url = url;
     }
 
+    /**
+     * Parses the selector text using the {@link SpreadsheetPluginSelectorCache} owned by this wrapper, or by the wrapped
+     * {@link SpreadsheetFormatterProviderCache}, so each distinct selector is parsed once, and returns its formatter.
+     */
+    SpreadsheetFormatter spreadsheetFormatter(final String text,
+                                              final ProviderContext context) {
+        return this.spreadsheetFormatter(
+            this.selectors.spreadsheetFormatterSelector(text),
+            context
+        );
+    }
+
+    private final SpreadsheetPluginSelectorCache selectors;
+
     @Override
     public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
                                                      final ProviderContext context) {
@@ -125,19 +141,73 @@ final class SpreadsheetFormatterProviderPluginProvider implements SpreadsheetFor
 
     @Override
     public Set<PluginInfo> pluginInfos() {
-        return this.spreadsheetFormatterInfos()
-            .stream()
+        return this.pluginInfos.get(
+            this.spreadsheetFormatterInfos()
+        );
+    }
+
+    /**
+     * Caches the {@link PluginInfo} until the {@link SpreadsheetFormatterInfoSet} changes.
+     */
+    private final PluginInfoSetCache<SpreadsheetFormatterInfoSet> pluginInfos = PluginInfoSetCache.with(
+        SpreadsheetFormatterProviderPluginProvider::toPlugins
+    );
+
+    private static Set<PluginInfo> toPlugins(final SpreadsheetFormatterInfoSet infos) {
+        return infos.stream()
             .map(SpreadsheetFormatterProviderPluginProvider::toPlugin)
             .collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the changes to the {@link #pluginInfos()} since the given version.
+     */
+    SpreadsheetPluginInfosDelta pluginInfosSince(final long version) {
+        final PluginInfoChangeFeed changes = this.changes;
+        changes.update(
+            this.pluginInfos()
+        );
+        return changes.since(version);
+    }
+
+    private final PluginInfoChangeFeed changes = PluginInfoChangeFeed.with(PluginInfoChangeFeed.MAX_CHANGES);
+
+    /**
+     * Returns the JSON of the {@link #pluginInfos()}, which is cached until the infos change.
+     */
+    SpreadsheetPluginJsonPayload pluginInfosJson(final JsonNodeMarshallContext context) {
+        return this.pluginInfosJson.get(
+            this.pluginInfos(),
+            context
+        );
+    }
+
+    private final SpreadsheetPluginJsonPayloadCache<Set<PluginInfo>> pluginInfosJson = SpreadsheetPluginJsonPayloadCache.with(
+        (infos, context) -> context.marshallCollection(infos)
+    );
+
+    /**
+     * Returns the JSON of the {@link #spreadsheetFormatterInfos()}, which is cached until the infos change.
+     */
+    SpreadsheetPluginJsonPayload spreadsheetFormatterInfosJson(final JsonNodeMarshallContext context) {
+        return this.spreadsheetFormatterInfosJson.get(
+            this.spreadsheetFormatterInfos(),
+            context
+        );
+    }
+
+    private final SpreadsheetPluginJsonPayloadCache<SpreadsheetFormatterInfoSet> spreadsheetFormatterInfosJson = SpreadsheetPluginJsonPayloadCache.with(
+        (infos, context) -> context.marshall(infos)
+    );
+
+    /**
+     * Returns the canonical {@link PluginInfo}, so identical infos from other wrappers share one instance.
+     */
     private static PluginInfo toPlugin(final SpreadsheetFormatterInfo info) {
-        return PluginInfo.with(
+        return PluginInfoInterner.pluginInfo(
             info.url(),
-            PluginName.with(
-                info.name()
-                    .value()
-            )
+            info.name()
+                .value()
         );
     }
 
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link SpreadsheetFormatterProvider} whose wrapped provider can be replaced while it is in use. The provider and
+ * the caches built over it by the decorator form an immutable generation, which
+ * {@link #reload(SpreadsheetFormatterProvider)} replaces with a single atomic write. Readers never lock and
+ * each call uses a single generation, so a reload never mixes a new provider with caches of the old one.
+ * <br>
+ * Caches built outside the decorator, such as the indices of a {@link SpreadsheetPluginProviderCollection}, are not
+ * part of a generation. Owners should register a listener with {@link #addReloadListener(Runnable)} to rebuild or
+ * clear them after each reload. A {@link SpreadsheetFormatterRenderCache} over this provider clears itself.
+ */
+public final class SpreadsheetFormatterProviderReloadable implements SpreadsheetFormatterProvider {
+
+    static SpreadsheetFormatterProviderReloadable with(final SpreadsheetFormatterProvider provider,
+                                                       final UnaryOperator<SpreadsheetFormatterProvider> decorator) {
+        return new SpreadsheetFormatterProviderReloadable(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(decorator, "decorator")
+        );
+    }
+
+    private SpreadsheetFormatterProviderReloadable(final SpreadsheetFormatterProvider provider,
+                                                   final UnaryOperator<SpreadsheetFormatterProvider> decorator) {
+        this.decorator = decorator;
+        this.generation = new AtomicReference<>(
+            this.generation(provider)
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                     final ProviderContext context) {
+        return this.decorated()
+            .spreadsheetFormatter(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context) {
+        return this.decorated()
+            .spreadsheetFormatter(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+        return this.decorated()
+            .spreadsheetFormatterNextToken(selector);
+    }
+
+    @Override
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                        final boolean includeSamples,
+                                                                        final SpreadsheetFormatterProviderSamplesContext context) {
+        return this.decorated()
+            .spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+        return this.decorated()
+            .spreadsheetFormatterInfos();
+    }
+
+    /**
+     * Replaces the wrapped provider, decorating it with fresh caches, and returns the previous undecorated provider.
+     * Calls already in progress complete with the previous provider. The reload listeners are run before returning.
+     */
+    public SpreadsheetFormatterProvider reload(final SpreadsheetFormatterProvider provider) {
+        Objects.requireNonNull(provider, "provider");
+
+        final SpreadsheetFormatterProvider previous = this.generation.getAndSet(
+            this.generation(provider)
+        ).provider;
+
+        for (final Runnable listener : this.listeners) {
+            listener.run();
+        }
+
+        return previous;
+    }
+
+    /**
+     * Adds a listener that is run after every reload, once the new provider is in use. The returned {@link Runnable}
+     * removes the listener.
+     */
+    public Runnable addReloadListener(final Runnable listener) {
+        Objects.requireNonNull(listener, "listener");
+
+        this.listeners.add(listener);
+        return () -> this.listeners.remove(listener);
+    }
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns the current undecorated provider.
+     */
+    public SpreadsheetFormatterProvider provider() {
+        return this.generation.get()
+            .provider;
+    }
+
+    /**
+     * Returns the decorated provider of the current generation.
+     */
+    private SpreadsheetFormatterProvider decorated() {
+        return this.generation.get()
+            .decorated;
+    }
+
+    private Generation generation(final SpreadsheetFormatterProvider provider) {
+        return new Generation(
+            provider,
+            Objects.requireNonNull(
+                this.decorator.apply(provider),
+                "decorator returned null provider"
+            )
+        );
+    }
+
+    private final UnaryOperator<SpreadsheetFormatterProvider> decorator;
+
+    private final AtomicReference<Generation> generation;
+
+    private final static class Generation {
+
+        Generation(final SpreadsheetFormatterProvider provider,
+                   final SpreadsheetFormatterProvider decorated) {
+            this.provider = provider;
+            this.decorated = decorated;
+        }
+
+        final SpreadsheetFormatterProvider provider;
+
+        final SpreadsheetFormatterProvider decorated;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider()
+            .toString();
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatterContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.tree.expression.ExpressionNumber;
+import walkingkooka.tree.text.TextNode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Memoizes the formatted text of hot values, so repeated renders of identical cells skip resolving and running the
+ * {@link SpreadsheetFormatter}. Only small immutable values are cached: null, booleans, numbers, dates, times and short
+ * strings.
+ * <br>
+ * Entries are keyed by the selector, the value and the following state of the {@link SpreadsheetFormatterContext}:
+ * <ul>
+ * <li>locale, currency, decimal, exponent, group, negative, percentage and positive symbols</li>
+ * <li>am/pm, month names, month name abbreviations, week day names and week day name abbreviations</li>
+ * <li>general format number digit count and cell character width</li>
+ * <li>expression number kind and math context</li>
+ * <li>the converter, which is compared by identity unless it implements equals</li>
+ * </ul>
+ * Color lookups by name or number are not part of the key, contexts sharing a cache must resolve colors the same way,
+ * typically by sharing one cache per spreadsheet.
+ * <br>
+ * The estimated size of all entries, including the key, value, selector and text, never exceeds the memory cap, the
+ * least recently used entries are evicted first. Symbols, names and the converter are usually shared by every key
+ * created from the same context, so only the references to them are counted.
+ * <br>
+ * When the provider is a {@link SpreadsheetFormatterProviderReloadable}, every entry is discarded after it is
+ * reloaded, so text formatted by a replaced provider is never returned.
+ */
+public final class SpreadsheetFormatterRenderCache {
+
+    /**
+     * Longer strings are always formatted.
+     */
+    final static int MAX_STRING_LENGTH = 64;
+
+    /**
+     * A rough estimate of the bytes used by the map node, {@link Entry}, {@link Key}, its parts array header, the
+     * {@link Optional} and {@link TextNode} holding the text, excluding the parts, value, selector and characters.
+     */
+    final static int ENTRY_OVERHEAD = 160;
+
+    /**
+     * The bytes used by each reference held by the parts array of a {@link Key}.
+     */
+    final static int REFERENCE_SIZE = 8;
+
+    /**
+     * A rough estimate of the bytes used by a {@link String}, excluding its characters.
+     */
+    final static int STRING_OVERHEAD = 40;
+
+    /**
+     * A rough estimate of the bytes used by a boxed number, {@link ExpressionNumber} or date time value.
+     */
+    final static int VALUE_SIZE = 48;
+
+    static SpreadsheetFormatterRenderCache with(final SpreadsheetFormatterProvider provider,
+                                                final long maxBytes) {
+        Objects.requireNonNull(provider, "provider");
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Invalid maxBytes " + maxBytes + " <= 0");
+        }
+
+        final SpreadsheetFormatterRenderCache cache = new SpreadsheetFormatterRenderCache(
+            provider,
+            maxBytes
+        );
+        if (provider instanceof SpreadsheetFormatterProviderReloadable) {
+            ((SpreadsheetFormatterProviderReloadable) provider).addReloadListener(cache::reloaded);
+        }
+        return cache;
+    }
+
+    private SpreadsheetFormatterRenderCache(final SpreadsheetFormatterProvider provider,
+                                            final long maxBytes) {
+        this.provider = provider;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached text for the value, otherwise resolves the formatter and formats the value, caching the
+     * result if the value is cacheable.
+     */
+    public Optional<TextNode> format(final SpreadsheetFormatterSelector selector,
+                                     final Object value,
+                                     final ProviderContext providerContext,
+                                     final SpreadsheetFormatterContext formatterContext) {
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(providerContext, "providerContext");
+        Objects.requireNonNull(formatterContext, "formatterContext");
+
+        final Optional<TextNode> text;
+
+        if (isCacheable(value)) {
+            final Key key = new Key(
+                selector,
+                value,
+                formatterContext
+            );
+            final long generation;
+
+            Optional<TextNode> cached = null;
+            synchronized (this.entries) {
+                generation = this.generation;
+
+                final Entry entry = this.entries.get(key);
+                if (null != entry) {
+                    cached = entry.text;
+                    this.hits++;
+                } else {
+                    this.misses++;
+                }
+            }
+
+            if (null != cached) {
+                text = cached;
+            } else {
+                text = this.format0(
+                    selector,
+                    value,
+                    providerContext,
+                    formatterContext
+                );
+                this.put(
+                    key,
+                    text,
+                    generation
+                );
+            }
+        } else {
+            text = this.format0(
+                selector,
+                value,
+                providerContext,
+                formatterContext
+            );
+        }
+
+        return text;
+    }
+
+    private Optional<TextNode> format0(final SpreadsheetFormatterSelector selector,
+                                       final Object value,
+                                       final ProviderContext providerContext,
+                                       final SpreadsheetFormatterContext formatterContext) {
+        return this.provider.spreadsheetFormatter(
+            selector,
+            providerContext
+        ).format(
+            value,
+            formatterContext
+        );
+    }
+
+    private static boolean isCacheable(final Object value) {
+        return null == value ||
+            value instanceof Boolean ||
+            value instanceof ExpressionNumber ||
+            value instanceof Number ||
+            value instanceof LocalDate ||
+            value instanceof LocalDateTime ||
+            value instanceof LocalTime ||
+            value instanceof String && ((String) value).length() <= MAX_STRING_LENGTH;
+    }
+
+    /**
+     * Discards every entry after the {@link SpreadsheetFormatterProviderReloadable} was reloaded, even with the same
+     * provider instance, and advances the generation so text formatted before the reload is never cached.
+     */
+    private void reloaded() {
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.bytes = 0;
+            this.generation++;
+        }
+    }
+
+    /**
+     * Incremented by every reload of the provider, guarded by the lock of {@link #entries}.
+     */
+    private long generation;
+
+    private void put(final Key key,
+                     final Optional<TextNode> text,
+                     final long generation) {
+        final long size = ENTRY_OVERHEAD +
+            REFERENCE_SIZE * key.parts.length +
+            sizeOf(key.parts[0]) +
+            sizeOf(key.parts[1]) +
+            stringSize(
+                text.map(TextNode::text)
+                    .orElse("")
+            );
+
+        if (size <= this.maxBytes) {
+            synchronized (this.entries) {
+                // text formatted by a provider replaced by a reload is never cached
+                if (generation == this.generation && null == this.entries.putIfAbsent(key, new Entry(text, size))) {
+                    this.bytes += size;
+
+                    final Iterator<Entry> eldest = this.entries.values()
+                        .iterator();
+                    while (this.bytes > this.maxBytes) {
+                        this.bytes -= eldest.next().size;
+                        eldest.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the bytes used by the selector or value of a key.
+     */
+    private static long sizeOf(final Object value) {
+        final long size;
+
+        if (null == value || value instanceof Boolean) {
+            size = 0; // null and the two Boolean constants are shared
+        } else if (value instanceof String) {
+            size = stringSize((String) value);
+        } else if (value instanceof SpreadsheetFormatterSelector) {
+            final SpreadsheetFormatterSelector selector = (SpreadsheetFormatterSelector) value;
+            size = STRING_OVERHEAD +
+                stringSize(
+                    selector.name()
+                        .value()
+                ) +
+                stringSize(
+                    selector.text()
+                );
+        } else {
+            size = VALUE_SIZE;
+        }
+
+        return size;
+    }
+
+    private static long stringSize(final String string) {
+        return STRING_OVERHEAD + 2L * string.length();
+    }
+
+    /**
+     * Removes all cached text, leaving the counters unchanged.
+     */
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.bytes = 0;
+        }
+    }
+
+    private final SpreadsheetFormatterProvider provider;
+
+    /**
+     * Entries in access order, so the eldest entry is the least recently used.
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(
+        16,
+        0.75f,
+        true // accessOrder
+    );
+
+    private final static class Entry {
+
+        Entry(final Optional<TextNode> text,
+              final long size) {
+            this.text = text;
+            this.size = size;
+        }
+
+        final Optional<TextNode> text;
+
+        /**
+         * The estimated bytes used by this entry.
+         */
+        final long size;
+    }
+
+    public long maxBytes() {
+        return this.maxBytes;
+    }
+
+    private final long maxBytes;
+
+    /**
+     * The estimated bytes used by all cached entries, which never exceeds {@link #maxBytes()}.
+     */
+    public long bytes() {
+        synchronized (this.entries) {
+            return this.bytes;
+        }
+    }
+
+    private long bytes;
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public long hits() {
+        synchronized (this.entries) {
+            return this.hits;
+        }
+    }
+
+    private long hits;
+
+    public long misses() {
+        synchronized (this.entries) {
+            return this.misses;
+        }
+    }
+
+    private long misses;
+
+    /**
+     * The selector, value and the state of the context listed in the class javadoc. The selector and value are always
+     * the first two parts.
+     */
+    private final static class Key {
+
+        Key(final SpreadsheetFormatterSelector selector,
+            final Object value,
+            final SpreadsheetFormatterContext context) {
+            this.parts = new Object[]{
+                selector,
+                value,
+                context.locale(),
+                context.currencySymbol(),
+                context.decimalSeparator(),
+                context.exponentSymbol(),
+                context.groupSeparator(),
+                context.negativeSign(),
+                context.percentageSymbol(),
+                context.positiveSign(),
+                context.ampms(),
+                context.monthNames(),
+                context.monthNameAbbreviations(),
+                context.weekDayNames(),
+                context.weekDayNameAbbreviations(),
+                context.generalFormatNumberDigitCount(),
+                context.cellCharacterWidth(),
+                context.expressionNumberKind(),
+                context.mathContext(),
+                context.converter()
+            };
+            this.hashCode = Arrays.hashCode(this.parts);
+        }
+
+        final Object[] parts;
+
+        private final int hashCode;
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return this == other ||
+                other instanceof Key &&
+                    Arrays.equals(this.parts, ((Key) other).parts);
+        }
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        synchronized (this.entries) {
+            return "size=" + this.entries.size() +
+                " bytes=" + this.bytes +
+                " maxBytes=" + this.maxBytes +
+                " hits=" + this.hits +
+                " misses=" + this.misses;
+        }
+    }
+}
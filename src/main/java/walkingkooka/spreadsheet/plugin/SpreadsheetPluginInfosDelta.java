@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.collect.set.Sets;
+import walkingkooka.plugin.PluginInfo;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The changes to the {@link PluginInfo} of a provider since a version previously returned to a client. When the
+ * changes are no longer retained, {@link #isResync()} is true and {@link #added()} holds every current info, which
+ * should replace everything the client holds.
+ */
+public final class SpreadsheetPluginInfosDelta {
+
+    static SpreadsheetPluginInfosDelta changes(final long version,
+                                               final Set<PluginInfo> added,
+                                               final Set<PluginInfo> removed) {
+        return new SpreadsheetPluginInfosDelta(
+            version,
+            false,
+            Sets.readOnly(added),
+            Sets.readOnly(removed)
+        );
+    }
+
+    static SpreadsheetPluginInfosDelta resync(final long version,
+                                              final Set<PluginInfo> all) {
+        return new SpreadsheetPluginInfosDelta(
+            version,
+            true,
+            Sets.readOnly(all),
+            Sets.empty()
+        );
+    }
+
+    private SpreadsheetPluginInfosDelta(final long version,
+                                        final boolean resync,
+                                        final Set<PluginInfo> added,
+                                        final Set<PluginInfo> removed) {
+        this.version = version;
+        this.resync = resync;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    /**
+     * The version the client should pass on its next poll.
+     */
+    public long version() {
+        return this.version;
+    }
+
+    private final long version;
+
+    /**
+     * When true the client should discard its infos and replace them with {@link #added()}.
+     */
+    public boolean isResync() {
+        return this.resync;
+    }
+
+    private final boolean resync;
+
+    public Set<PluginInfo> added() {
+        return this.added;
+    }
+
+    private final Set<PluginInfo> added;
+
+    public Set<PluginInfo> removed() {
+        return this.removed;
+    }
+
+    private final Set<PluginInfo> removed;
+
+    /**
+     * Returns true if there are no changes and no resync is required.
+     */
+    public boolean isEmpty() {
+        return false == this.resync &&
+            this.added.isEmpty() &&
+            this.removed.isEmpty();
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            this.version,
+            this.resync,
+            this.added,
+            this.removed
+        );
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other ||
+            other instanceof SpreadsheetPluginInfosDelta &&
+                this.equals0((SpreadsheetPluginInfosDelta) other);
+    }
+
+    private boolean equals0(final SpreadsheetPluginInfosDelta other) {
+        return this.version == other.version &&
+            this.resync == other.resync &&
+            this.added.equals(other.added) &&
+            this.removed.equals(other.removed);
+    }
+
+    @Override
+    public String toString() {
+        return "version=" + this.version +
+            (this.resync ? " resync" : "") +
+            " added=" + this.added +
+            " removed=" + this.removed;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.tree.json.JsonNode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The UTF-8 encoded text of a {@link JsonNode} along with a strong ETag computed from those bytes, ready to be written
+ * as a response body or compared against an If-None-Match request header.
+ */
+public final class SpreadsheetPluginJsonPayload {
+
+    static SpreadsheetPluginJsonPayload with(final JsonNode json) {
+        Objects.requireNonNull(json, "json");
+
+        final byte[] bytes = json.toString()
+            .getBytes(StandardCharsets.UTF_8);
+        return new SpreadsheetPluginJsonPayload(
+            bytes,
+            etag(bytes)
+        );
+    }
+
+    /**
+     * Computes a 64 bit FNV-1a hash of the bytes, formatted as a quoted hex string.
+     */
+    static String etag(final byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : bytes) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+
+        return '"' + Long.toHexString(hash) + '"';
+    }
+
+    private SpreadsheetPluginJsonPayload(final byte[] bytes,
+                                         final String etag) {
+        this.bytes = bytes;
+        this.etag = etag;
+    }
+
+    /**
+     * Returns a read only view of the encoded bytes, without copying them.
+     */
+    public ByteBuffer byteBuffer() {
+        return ByteBuffer.wrap(this.bytes)
+            .asReadOnlyBuffer();
+    }
+
+    /**
+     * The number of encoded bytes, useful for a Content-Length header.
+     */
+    public int length() {
+        return this.bytes.length;
+    }
+
+    private final byte[] bytes;
+
+    public String etag() {
+        return this.etag;
+    }
+
+    private final String etag;
+
+    /**
+     * Tests if the given If-None-Match header value matches this payload, in which case a not modified response may be
+     * returned. A list of ETags, weak ETags and * are supported.
+     */
+    public boolean isNotModified(final String ifNoneMatch) {
+        Objects.requireNonNull(ifNoneMatch, "ifNoneMatch");
+
+        boolean notModified = false;
+
+        for (final String token : ifNoneMatch.split(",")) {
+            String tag = token.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || this.etag.equals(tag)) {
+                notModified = true;
+                break;
+            }
+        }
+
+        return notModified;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return new String(
+            this.bytes,
+            StandardCharsets.UTF_8
+        );
+    }
+}
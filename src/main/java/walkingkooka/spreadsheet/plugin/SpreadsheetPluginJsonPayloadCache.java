@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.tree.json.JsonNode;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * Caches the {@link SpreadsheetPluginJsonPayload} for a source such as an info set, recomputing it only when the source
+ * or the {@link JsonNodeMarshallContext} is a different instance to those of the previous call.
+ * <br>
+ * A {@link JsonNodeMarshallContext} may carry an object post processor or other state that changes the JSON, and has
+ * no equality beyond identity, so it is compared by instance. Callers must pass a single long lived context, for
+ * example one created at startup and shared by all requests, a context created per request never hits the cache.
+ */
+final class SpreadsheetPluginJsonPayloadCache<S> {
+
+    static <S> SpreadsheetPluginJsonPayloadCache<S> with(final BiFunction<S, JsonNodeMarshallContext, JsonNode> marshaller) {
+        return new SpreadsheetPluginJsonPayloadCache<>(
+            Objects.requireNonNull(marshaller, "marshaller")
+        );
+    }
+
+    private SpreadsheetPluginJsonPayloadCache(final BiFunction<S, JsonNodeMarshallContext, JsonNode> marshaller) {
+        this.marshaller = marshaller;
+    }
+
+    SpreadsheetPluginJsonPayload get(final S source,
+                                     final JsonNodeMarshallContext context) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(context, "context");
+
+        Snapshot<S> snapshot = this.snapshot;
+        if (null == snapshot || source != snapshot.source || context != snapshot.context) {
+            snapshot = new Snapshot<>(
+                source,
+                context,
+                SpreadsheetPluginJsonPayload.with(
+                    this.marshaller.apply(
+                        source,
+                        context
+                    )
+                )
+            );
+            this.snapshot = snapshot;
+        }
+
+        return snapshot.payload;
+    }
+
+    private final BiFunction<S, JsonNodeMarshallContext, JsonNode> marshaller;
+
+    private volatile Snapshot<S> snapshot;
+
+    private final static class Snapshot<S> {
+
+        Snapshot(final S source,
+                 final JsonNodeMarshallContext context,
+                 final SpreadsheetPluginJsonPayload payload) {
+            this.source = source;
+            this.context = context;
+            this.payload = payload;
+        }
+
+        final S source;
+
+        final JsonNodeMarshallContext context;
+
+        final SpreadsheetPluginJsonPayload payload;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        final Snapshot<S> snapshot = this.snapshot;
+        return null == snapshot ?
+            "" :
+            snapshot.payload.etag();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non blocking counterparts of the provider methods that may block while a provider loads its definitions. Each
+ * method runs the provider on the given {@link Executor}, so callers on a JDK with virtual threads can pass a virtual
+ * thread per task executor. A provider failure completes the returned future exceptionally.
+ */
+final class SpreadsheetPluginProviderAsync {
+
+    static CompletableFuture<SpreadsheetFormatter> spreadsheetFormatter(final SpreadsheetFormatterProvider provider,
+                                                                        final SpreadsheetFormatterSelector selector,
+                                                                        final ProviderContext context,
+                                                                        final Executor executor) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(executor, "executor");
+
+        return CompletableFuture.supplyAsync(
+            () -> provider.spreadsheetFormatter(
+                selector,
+                context
+            ),
+            executor
+        );
+    }
+
+    static CompletableFuture<List<SpreadsheetFormatterSample>> spreadsheetFormatterSamples(final SpreadsheetFormatterProvider provider,
+                                                                                           final SpreadsheetFormatterSelector selector,
+                                                                                           final boolean includeSamples,
+                                                                                           final SpreadsheetFormatterProviderSamplesContext context,
+                                                                                           final Executor executor) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(executor, "executor");
+
+        return CompletableFuture.supplyAsync(
+            () -> provider.spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            ),
+            executor
+        );
+    }
+
+    static CompletableFuture<SpreadsheetComparator<?>> spreadsheetComparator(final SpreadsheetComparatorProvider provider,
+                                                                             final SpreadsheetComparatorSelector selector,
+                                                                             final ProviderContext context,
+                                                                             final Executor executor) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(executor, "executor");
+
+        return CompletableFuture.supplyAsync(
+            () -> provider.spreadsheetComparator(
+                selector,
+                context
+            ),
+            executor
+        );
+    }
+
+    /**
+     * Stop creation
+     */
+    private SpreadsheetPluginProviderAsync() {
+        throw new UnsupportedOperationException();
+    }
+}
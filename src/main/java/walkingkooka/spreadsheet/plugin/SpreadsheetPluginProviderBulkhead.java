@@ -0,0 +1,199 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.PluginProviderName;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Isolates the calls to a single provider, identified by its {@link PluginProviderName}. At most maxConcurrent calls
+ * run at once and further calls are rejected immediately rather than queued. Each call runs on the {@link Executor}
+ * and the caller gives up once the timeout passes. A timed out call keeps its permit until it actually returns, so a
+ * provider that hangs saturates its own bulkhead and not the callers' threads. The permit is released by the task
+ * itself, which always runs to completion once the executor picks it up, skipping the call if it timed out while
+ * queued, so a cancelled call can never leak its permit.
+ * <br>
+ * A single instance should be shared by all guarded providers with the same {@link PluginProviderName}.
+ */
+public final class SpreadsheetPluginProviderBulkhead {
+
+    static SpreadsheetPluginProviderBulkhead with(final PluginProviderName name,
+                                                  final int maxConcurrent,
+                                                  final Duration timeout,
+                                                  final Executor executor) {
+        Objects.requireNonNull(name, "name");
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Invalid maxConcurrent " + maxConcurrent + " <= 0");
+        }
+        Objects.requireNonNull(timeout, "timeout");
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Invalid timeout " + timeout + " <= 0");
+        }
+        Objects.requireNonNull(executor, "executor");
+
+        return new SpreadsheetPluginProviderBulkhead(
+            name,
+            maxConcurrent,
+            timeout,
+            executor
+        );
+    }
+
+    private SpreadsheetPluginProviderBulkhead(final PluginProviderName name,
+                                              final int maxConcurrent,
+                                              final Duration timeout,
+                                              final Executor executor) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+        this.timeoutNanos = timeout.toNanos();
+        this.executor = executor;
+    }
+
+    /**
+     * Runs the call on the executor, failing with a {@link RejectedExecutionException} when saturated or an
+     * {@link IllegalStateException} when the timeout passes. Exceptions thrown by the call are rethrown unchanged.
+     */
+    <T> T call(final Supplier<T> call) {
+        if (false == this.permits.tryAcquire()) {
+            this.rejections.incrementAndGet();
+            throw new RejectedExecutionException("Provider " + this.name + " saturated with " + this.maxConcurrent + " calls");
+        }
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            this.executor.execute(
+                () -> {
+                    try {
+                        // a call that timed out while queued is skipped, there is no caller waiting for its result
+                        if (false == future.isDone()) {
+                            future.complete(
+                                call.get()
+                            );
+                        }
+                    } catch (final Throwable cause) {
+                        future.completeExceptionally(cause);
+                    } finally {
+                        this.permits.release();
+                    }
+                }
+            );
+        } catch (final RuntimeException cause) {
+            // the executor refused the task, so it will never release the permit
+            this.permits.release();
+            throw cause;
+        }
+
+        try {
+            return future.get(
+                this.timeoutNanos,
+                TimeUnit.NANOSECONDS
+            );
+        } catch (final TimeoutException cause) {
+            this.timeouts.incrementAndGet();
+            future.cancel(true);
+            throw new IllegalStateException("Provider " + this.name + " timed out after " + this.timeout);
+        } catch (final InterruptedException cause) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Provider " + this.name + " interrupted", cause);
+        } catch (final ExecutionException cause) {
+            final Throwable thrown = cause.getCause();
+            if (thrown instanceof RuntimeException) {
+                throw (RuntimeException) thrown;
+            }
+            if (thrown instanceof Error) {
+                throw (Error) thrown;
+            }
+            throw new IllegalStateException(thrown);
+        }
+    }
+
+    public PluginProviderName name() {
+        return this.name;
+    }
+
+    private final PluginProviderName name;
+
+    public int maxConcurrent() {
+        return this.maxConcurrent;
+    }
+
+    private final int maxConcurrent;
+
+    /**
+     * The number of calls currently holding a permit, including timed out calls that have not yet returned.
+     */
+    public int active() {
+        return this.maxConcurrent - this.permits.availablePermits();
+    }
+
+    private final Semaphore permits;
+
+    public Duration timeout() {
+        return this.timeout;
+    }
+
+    private final Duration timeout;
+
+    private final long timeoutNanos;
+
+    private final Executor executor;
+
+    /**
+     * The number of calls rejected because the bulkhead was saturated.
+     */
+    public long rejections() {
+        return this.rejections.get();
+    }
+
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * The number of calls the caller gave up on because the timeout passed.
+     */
+    public long timeouts() {
+        return this.timeouts.get();
+    }
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.name +
+            " active=" + this.active() +
+            " maxConcurrent=" + this.maxConcurrent +
+            " timeout=" + this.timeout +
+            " rejections=" + this.rejections() +
+            " timeouts=" + this.timeouts();
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginName;
+import walkingkooka.plugin.PluginProvider;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfo;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfo;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link PluginProvider} that merges many {@link PluginProvider}, dispatching {@link SpreadsheetFormatterProvider}
+ * and {@link SpreadsheetComparatorProvider} calls to the provider owning the name using indices built from the infos of
+ * the providers. Formatters and comparators are indexed separately, so a formatter and a comparator may share a name,
+ * but a formatter or comparator name provided by more than one provider is reported as an
+ * {@link IllegalArgumentException}. {@link PluginInfo} are indexed by their url and name, the same url and name from
+ * two providers is also reported as a duplicate.
+ * <br>
+ * The indices are rebuilt when a {@link SpreadsheetPluginProviderRefreshable} provider, such as a plugin info snapshot,
+ * reports that its infos changed, so {@link #pluginInfos()}, {@link #spreadsheetFormatterInfos()} and
+ * {@link #spreadsheetComparatorInfos()} always come from the same refresh. A refresh that introduces a duplicate name
+ * fails and keeps the previous indices.
+ * <br>
+ * The indices are not rebuilt if the infos of any other provider change after construction, including after a reload
+ * of a {@link SpreadsheetFormatterProviderReloadable} or {@link SpreadsheetComparatorProviderReloadable}. Calls for
+ * names that were indexed still reach the reloaded provider, but added or removed names are only seen by a new
+ * collection, which owners should build from a reload listener.
+ */
+public final class SpreadsheetPluginProviderCollection implements SpreadsheetFormatterProvider,
+    SpreadsheetComparatorProvider,
+    PluginProvider {
+
+    static SpreadsheetPluginProviderCollection with(final PluginProviderName name,
+                                                    final AbsoluteUrl url,
+                                                    final Set<PluginProvider> providers) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(url, "url");
+        Objects.requireNonNull(providers, "providers");
+
+        final List<PluginProvider> copy = Lists.immutable(
+            new ArrayList<>(providers)
+        );
+        for (final PluginProvider provider : copy) {
+            Objects.requireNonNull(provider, "providers includes null provider");
+        }
+
+        final SpreadsheetPluginProviderCollection collection = new SpreadsheetPluginProviderCollection(
+            name,
+            url,
+            copy,
+            Index.with(copy)
+        );
+
+        for (final PluginProvider provider : copy) {
+            if (provider instanceof SpreadsheetPluginProviderRefreshable) {
+                ((SpreadsheetPluginProviderRefreshable) provider).addRefreshListener(collection::reindex);
+            }
+        }
+
+        return collection;
+    }
+
+    private SpreadsheetPluginProviderCollection(final PluginProviderName name,
+                                                final AbsoluteUrl url,
+                                                final List<PluginProvider> providers,
+                                                final Index index) {
+        this.name = name;
+        this.url = url;
+        this.providers = providers;
+        this.index = index;
+    }
+
+    /**
+     * Rebuilds the indices from the current infos of all providers, replacing them with a single write.
+     */
+    private void reindex() {
+        this.index = Index.with(this.providers);
+    }
+
+    private volatile Index index;
+
+    /**
+     * The indices built from the infos of all providers at one time, which are replaced as a whole by a refresh.
+     */
+    private final static class Index {
+
+        static Index with(final List<PluginProvider> providers) {
+            final Map<SpreadsheetFormatterName, SpreadsheetFormatterProvider> formatterProviders = Maps.hash();
+            final Set<SpreadsheetFormatterInfo> formatterInfos = Sets.hash();
+
+            final Map<SpreadsheetComparatorName, SpreadsheetComparatorProvider> comparatorProviders = Maps.hash();
+            final Set<SpreadsheetComparatorInfo> comparatorInfos = Sets.hash();
+
+            final Map<PluginInfo, PluginProvider> pluginProviders = Maps.hash();
+            final Map<PluginName, Set<PluginProvider>> pluginNameToProviders = Maps.hash();
+
+            for (final PluginProvider provider : providers) {
+                if (provider instanceof SpreadsheetFormatterProvider) {
+                    final SpreadsheetFormatterProvider formatterProvider = (SpreadsheetFormatterProvider) provider;
+
+                    for (final SpreadsheetFormatterInfo info : formatterProvider.spreadsheetFormatterInfos()) {
+                        index(
+                            info.name(),
+                            formatterProvider,
+                            formatterProviders,
+                            "formatter"
+                        );
+                        formatterInfos.add(info);
+                    }
+                }
+
+                if (provider instanceof SpreadsheetComparatorProvider) {
+                    final SpreadsheetComparatorProvider comparatorProvider = (SpreadsheetComparatorProvider) provider;
+
+                    for (final SpreadsheetComparatorInfo info : comparatorProvider.spreadsheetComparatorInfos()) {
+                        index(
+                            info.name(),
+                            comparatorProvider,
+                            comparatorProviders,
+                            "comparator"
+                        );
+                        comparatorInfos.add(info);
+                    }
+                }
+
+                for (final PluginInfo info : provider.pluginInfos()) {
+                    index(
+                        info,
+                        provider,
+                        pluginProviders,
+                        "plugin"
+                    );
+                    pluginNameToProviders.computeIfAbsent(
+                        info.name(),
+                        (n) -> Sets.ordered()
+                    ).add(provider);
+                }
+            }
+
+            return new Index(
+                formatterProviders,
+                SpreadsheetFormatterInfoSet.with(formatterInfos),
+                comparatorProviders,
+                SpreadsheetComparatorInfoSet.with(comparatorInfos),
+                pluginProviders,
+                pluginNameToProviders,
+                Sets.readOnly(
+                    pluginProviders.keySet()
+                )
+            );
+        }
+
+        private static <N, P> void index(final N name,
+                                         final P provider,
+                                         final Map<N, P> nameToProvider,
+                                         final String label) {
+            final P previous = nameToProvider.put(
+                name,
+                provider
+            );
+            if (null != previous && previous != provider) {
+                throw new IllegalArgumentException("Duplicate " + label + " " + name + " in " + previous + " and " + provider);
+            }
+        }
+
+        private Index(final Map<SpreadsheetFormatterName, SpreadsheetFormatterProvider> formatterProviders,
+                      final SpreadsheetFormatterInfoSet formatterInfos,
+                      final Map<SpreadsheetComparatorName, SpreadsheetComparatorProvider> comparatorProviders,
+                      final SpreadsheetComparatorInfoSet comparatorInfos,
+                      final Map<PluginInfo, PluginProvider> pluginProviders,
+                      final Map<PluginName, Set<PluginProvider>> pluginNameToProviders,
+                      final Set<PluginInfo> pluginInfos) {
+            this.formatterProviders = formatterProviders;
+            this.formatterInfos = formatterInfos;
+            this.comparatorProviders = comparatorProviders;
+            this.comparatorInfos = comparatorInfos;
+            this.pluginProviders = pluginProviders;
+            this.pluginNameToProviders = pluginNameToProviders;
+            this.pluginInfos = pluginInfos;
+        }
+
+        final Map<SpreadsheetFormatterName, SpreadsheetFormatterProvider> formatterProviders;
+
+        final SpreadsheetFormatterInfoSet formatterInfos;
+
+        final Map<SpreadsheetComparatorName, SpreadsheetComparatorProvider> comparatorProviders;
+
+        final SpreadsheetComparatorInfoSet comparatorInfos;
+
+        final Map<PluginInfo, PluginProvider> pluginProviders;
+
+        final Map<PluginName, Set<PluginProvider>> pluginNameToProviders;
+
+        final Set<PluginInfo> pluginInfos;
+    }
+
+    // SpreadsheetFormatterProvider.....................................................................................
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                     final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.formatterProvider(selector.name())
+            .spreadsheetFormatter(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context) {
+        return this.formatterProvider(name)
+            .spreadsheetFormatter(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.formatterProvider(selector.name())
+            .spreadsheetFormatterNextToken(selector);
+    }
+
+    @Override
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                        final boolean includeSamples,
+                                                                        final SpreadsheetFormatterProviderSamplesContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.formatterProvider(selector.name())
+            .spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+        return this.index.formatterInfos;
+    }
+
+    private SpreadsheetFormatterProvider formatterProvider(final SpreadsheetFormatterName name) {
+        Objects.requireNonNull(name, "name");
+
+        final SpreadsheetFormatterProvider provider = this.index.formatterProviders.get(name);
+        if (null == provider) {
+            throw new IllegalArgumentException("Unknown formatter " + name);
+        }
+        return provider;
+    }
+
+    // SpreadsheetComparatorProvider....................................................................................
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                          final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.comparatorProvider(selector.name())
+            .spreadsheetComparator(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                          final List<?> values,
+                                                          final ProviderContext context) {
+        return this.comparatorProvider(name)
+            .spreadsheetComparator(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+        return this.index.comparatorInfos;
+    }
+
+    private SpreadsheetComparatorProvider comparatorProvider(final SpreadsheetComparatorName name) {
+        Objects.requireNonNull(name, "name");
+
+        final SpreadsheetComparatorProvider provider = this.index.comparatorProviders.get(name);
+        if (null == provider) {
+            throw new IllegalArgumentException("Unknown comparator " + name);
+        }
+        return provider;
+    }
+
+    // PluginProvider...................................................................................................
+
+    @Override
+    public PluginProviderName name() {
+        return this.name;
+    }
+
+    private final PluginProviderName name;
+
+    @Override
+    public AbsoluteUrl url() {
+        return this.url;
+    }
+
+    private final AbsoluteUrl url;
+
+    @Override
+    public Set<PluginInfo> pluginInfos() {
+        return this.index.pluginInfos;
+    }
+
+    /**
+     * Returns the {@link PluginProvider} that provides the given {@link PluginName}. A name that is provided by more than
+     * one provider, such as a formatter and a comparator with the same name, is reported as an
+     * {@link IllegalArgumentException}, use {@link #pluginProvider(PluginInfo)} to select one of them.
+     */
+    public Optional<PluginProvider> pluginProvider(final PluginName name) {
+        Objects.requireNonNull(name, "name");
+
+        final Set<PluginProvider> providers = this.index.pluginNameToProviders.get(name);
+
+        final Optional<PluginProvider> provider;
+        if (null == providers) {
+            provider = Optional.empty();
+        } else {
+            if (providers.size() > 1) {
+                throw new IllegalArgumentException("Ambiguous plugin " + name + " in " + providers);
+            }
+            provider = Optional.of(
+                providers.iterator()
+                    .next()
+            );
+        }
+        return provider;
+    }
+
+    /**
+     * Returns the {@link PluginProvider} that provides the given {@link PluginInfo}, matching both its url and name.
+     */
+    public Optional<PluginProvider> pluginProvider(final PluginInfo info) {
+        Objects.requireNonNull(info, "info");
+
+        return Optional.ofNullable(
+            this.index.pluginProviders.get(info)
+        );
+    }
+
+    private final List<PluginProvider> providers;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.providers.toString();
+    }
+}
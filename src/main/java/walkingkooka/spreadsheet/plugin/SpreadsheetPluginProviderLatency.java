@@ -0,0 +1,184 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of the calls recorded by {@link SpreadsheetPluginProviderMetrics} for a single method and name.
+ * Latencies are held in power of two buckets, so percentiles are accurate to within a factor of two, the recorded
+ * maximum is exact.
+ */
+public final class SpreadsheetPluginProviderLatency {
+
+    /**
+     * The number of buckets, one for zero and one for each possible bit length of a positive long.
+     */
+    final static int BUCKET_COUNT = 64;
+
+    static SpreadsheetPluginProviderLatency with(final long count,
+                                                 final long errors,
+                                                 final long totalNanos,
+                                                 final long maxNanos,
+                                                 final long[] buckets) {
+        return new SpreadsheetPluginProviderLatency(
+            count,
+            errors,
+            totalNanos,
+            maxNanos,
+            buckets.clone()
+        );
+    }
+
+    /**
+     * Returns the bucket that a latency is counted in, zero for zero and otherwise the bit length of the latency.
+     */
+    static int bucket(final long nanos) {
+        return nanos <= 0 ?
+            0 :
+            Math.min(
+                BUCKET_COUNT - 1,
+                Long.SIZE - Long.numberOfLeadingZeros(nanos)
+            );
+    }
+
+    private SpreadsheetPluginProviderLatency(final long count,
+                                             final long errors,
+                                             final long totalNanos,
+                                             final long maxNanos,
+                                             final long[] buckets) {
+        this.count = count;
+        this.errors = errors;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.buckets = buckets;
+    }
+
+    /**
+     * The number of calls, including those that failed.
+     */
+    public long count() {
+        return this.count;
+    }
+
+    private final long count;
+
+    /**
+     * The number of calls that threw an exception.
+     */
+    public long errors() {
+        return this.errors;
+    }
+
+    private final long errors;
+
+    public long totalNanos() {
+        return this.totalNanos;
+    }
+
+    private final long totalNanos;
+
+    public long maxNanos() {
+        return this.maxNanos;
+    }
+
+    private final long maxNanos;
+
+    public long meanNanos() {
+        final long count = this.count;
+        return 0 == count ?
+            0 :
+            this.totalNanos / count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, which must be between 0 and 100.
+     */
+    public long percentileNanos(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile " + percentile + " not between 0 and 100");
+        }
+
+        final long count = this.count;
+        long nanos = 0;
+
+        if (count > 0) {
+            final long rank = Math.max(
+                1,
+                (long) Math.ceil(percentile * count / 100)
+            );
+            final long[] buckets = this.buckets;
+
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                total += buckets[i];
+                if (total >= rank) {
+                    nanos = Math.min(
+                        0 == i ?
+                            0 :
+                            (1L << i) - 1,
+                        this.maxNanos
+                    );
+                    break;
+                }
+            }
+        }
+
+        return nanos;
+    }
+
+    private final long[] buckets;
+
+    // Object...........................................................................................................
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            this.count,
+            this.errors,
+            this.totalNanos,
+            this.maxNanos
+        );
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other ||
+            other instanceof SpreadsheetPluginProviderLatency &&
+                this.equals0((SpreadsheetPluginProviderLatency) other);
+    }
+
+    private boolean equals0(final SpreadsheetPluginProviderLatency other) {
+        return this.count == other.count &&
+            this.errors == other.errors &&
+            this.totalNanos == other.totalNanos &&
+            this.maxNanos == other.maxNanos &&
+            Arrays.equals(this.buckets, other.buckets);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + this.count +
+            " errors=" + this.errors +
+            " mean=" + this.meanNanos() + "ns" +
+            " p50=" + this.percentileNanos(50) + "ns" +
+            " p99=" + this.percentileNanos(99) + "ns" +
+            " max=" + this.maxNanos + "ns";
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.collect.map.Maps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records call counts, error counts and latencies for instrumented formatter and comparator providers, keyed by
+ * method and selector name. Recording never locks or builds strings, the first call for a new method or name allocates
+ * its counters. The number of names recorded for each method is capped, calls for further names such as typos or
+ * unknown selectors are recorded under {@link #OTHER}, so they cannot grow the metrics without bound.
+ */
+public final class SpreadsheetPluginProviderMetrics {
+
+    /**
+     * The default maximum number of names recorded for each method.
+     */
+    public final static int MAX_NAMES = 256;
+
+    /**
+     * The name that calls are recorded under once a method has recorded the maximum number of names.
+     */
+    public final static String OTHER = "*";
+
+    static SpreadsheetPluginProviderMetrics empty() {
+        return with(MAX_NAMES);
+    }
+
+    static SpreadsheetPluginProviderMetrics with(final int maxNames) {
+        if (maxNames < 0) {
+            throw new IllegalArgumentException("Invalid maxNames " + maxNames + " < 0");
+        }
+        return new SpreadsheetPluginProviderMetrics(maxNames);
+    }
+
+    private SpreadsheetPluginProviderMetrics(final int maxNames) {
+        super();
+        this.maxNames = maxNames;
+    }
+
+    /**
+     * Records a single call, the name is optional and is absent for methods without a selector or name.
+     */
+    void record(final String method,
+                final Object name,
+                final long nanos,
+                final boolean failed) {
+        MethodRecorders recorders = this.methods.get(method);
+        if (null == recorders) {
+            recorders = this.methods.computeIfAbsent(
+                method,
+                (m) -> new MethodRecorders(this.maxNames)
+            );
+        }
+        recorders.recorder(name)
+            .record(
+                nanos,
+                failed
+            );
+    }
+
+    /**
+     * Returns a snapshot of all recorded latencies sorted by key, where each key is the method followed by the
+     * selector name if one was present. Counters are read individually, so a snapshot taken while calls are being
+     * recorded may be off by the calls in flight.
+     */
+    public Map<String, SpreadsheetPluginProviderLatency> snapshot() {
+        final Map<String, SpreadsheetPluginProviderLatency> snapshot = Maps.sorted();
+
+        for (final Map.Entry<String, MethodRecorders> methodAndRecorders : this.methods.entrySet()) {
+            methodAndRecorders.getValue()
+                .snapshot(
+                    methodAndRecorders.getKey(),
+                    snapshot
+                );
+        }
+
+        return Maps.readOnly(snapshot);
+    }
+
+    private final int maxNames;
+
+    private final ConcurrentHashMap<String, MethodRecorders> methods = new ConcurrentHashMap<>();
+
+    /**
+     * The recorders for a single method, one for calls without a name, one per name up to the maximum and one for all
+     * other names. The maximum is checked without locking, so racing calls may add a few names beyond it.
+     */
+    private final static class MethodRecorders {
+
+        MethodRecorders(final int maxNames) {
+            this.maxNames = maxNames;
+        }
+
+        Recorder recorder(final Object name) {
+            Recorder recorder;
+
+            if (null == name) {
+                recorder = this.unnamed;
+            } else {
+                recorder = this.names.get(name);
+                if (null == recorder) {
+                    recorder = this.names.size() < this.maxNames ?
+                        this.names.computeIfAbsent(
+                            name,
+                            (n) -> new Recorder()
+                        ) :
+                        this.other;
+                }
+            }
+
+            return recorder;
+        }
+
+        void snapshot(final String method,
+                      final Map<String, SpreadsheetPluginProviderLatency> snapshot) {
+            put(
+                method,
+                this.unnamed,
+                snapshot
+            );
+
+            for (final Map.Entry<Object, Recorder> nameAndRecorder : this.names.entrySet()) {
+                put(
+                    method + " " + nameAndRecorder.getKey(),
+                    nameAndRecorder.getValue(),
+                    snapshot
+                );
+            }
+
+            put(
+                method + " " + OTHER,
+                this.other,
+                snapshot
+            );
+        }
+
+        /**
+         * Adds the latency of the recorder unless it has not recorded any calls.
+         */
+        private static void put(final String key,
+                                final Recorder recorder,
+                                final Map<String, SpreadsheetPluginProviderLatency> snapshot) {
+            final SpreadsheetPluginProviderLatency latency = recorder.snapshot();
+            if (latency.count() > 0) {
+                snapshot.put(
+                    key,
+                    latency
+                );
+            }
+        }
+
+        private final int maxNames;
+
+        private final Recorder unnamed = new Recorder();
+
+        private final ConcurrentHashMap<Object, Recorder> names = new ConcurrentHashMap<>();
+
+        private final Recorder other = new Recorder();
+    }
+
+    /**
+     * Lock free counters for a single key.
+     */
+    private final static class Recorder {
+
+        Recorder() {
+            final AtomicLong[] buckets = new AtomicLong[SpreadsheetPluginProviderLatency.BUCKET_COUNT];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new AtomicLong();
+            }
+            this.buckets = buckets;
+        }
+
+        void record(final long nanos,
+                    final boolean failed) {
+            this.count.incrementAndGet();
+            if (failed) {
+                this.errors.incrementAndGet();
+            }
+            this.totalNanos.addAndGet(nanos);
+            this.maxNanos.accumulateAndGet(
+                nanos,
+                Math::max
+            );
+            this.buckets[SpreadsheetPluginProviderLatency.bucket(nanos)].incrementAndGet();
+        }
+
+        SpreadsheetPluginProviderLatency snapshot() {
+            final AtomicLong[] buckets = this.buckets;
+            final long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].get();
+            }
+
+            return SpreadsheetPluginProviderLatency.with(
+                this.count.get(),
+                this.errors.get(),
+                this.totalNanos.get(),
+                this.maxNanos.get(),
+                counts
+            );
+        }
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong[] buckets;
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.snapshot()
+            .toString();
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.PluginProvider;
+
+/**
+ * A {@link PluginProvider} whose infos may change after they were first read, which runs its listeners once the new
+ * infos are visible. {@link SpreadsheetPluginProviderCollection} registers a listener with each refreshable provider
+ * it merges and rebuilds its indices when they run.
+ */
+interface SpreadsheetPluginProviderRefreshable extends PluginProvider {
+
+    /**
+     * Adds a listener that is run after every refresh that changed the infos. The returned {@link Runnable} removes
+     * the listener.
+     */
+    Runnable addRefreshListener(final Runnable listener);
+}
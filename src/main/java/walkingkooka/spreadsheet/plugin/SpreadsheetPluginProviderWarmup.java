@@ -0,0 +1,222 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfo;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfo;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.tree.expression.ExpressionNumberKind;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Warms up every formatter or comparator of a provider on an {@link Executor}, so classes are loaded and the JIT has
+ * compiled the common paths before the first real request. Formatters compute the samples for their name, which
+ * formats sample values, and then create a formatter for each selector of those samples, so pattern formatters are
+ * created from real patterns rather than empty text. Comparators are created and compare sample values of their type.
+ * Progress is reported after each entry and the returned future completes with the failures keyed by name. Failures
+ * include {@link LinkageError} such as {@link ExceptionInInitializerError}, the likely failure while loading classes,
+ * so one broken entry never stops the remaining entries from being warmed.
+ */
+final class SpreadsheetPluginProviderWarmup {
+
+    /**
+     * Pairs of sample values, a comparator is exercised with the first pair whose values are of its type.
+     */
+    private final static List<List<Object>> COMPARATOR_SAMPLES = Lists.of(
+        Lists.of(
+            LocalDate.of(1999, 12, 31),
+            LocalDate.of(2000, 1, 1)
+        ),
+        Lists.of(
+            LocalDateTime.of(1999, 12, 31, 12, 58, 59),
+            LocalDateTime.of(2000, 1, 1, 0, 0, 0)
+        ),
+        Lists.of(
+            LocalTime.of(12, 58, 59),
+            LocalTime.of(0, 0, 0)
+        ),
+        Lists.of(
+            ExpressionNumberKind.BIG_DECIMAL.create(1),
+            ExpressionNumberKind.BIG_DECIMAL.create(2)
+        ),
+        Lists.of(
+            ExpressionNumberKind.DOUBLE.create(1),
+            ExpressionNumberKind.DOUBLE.create(2)
+        ),
+        Lists.of(
+            "abc",
+            "XYZ"
+        ),
+        Lists.of(
+            false,
+            true
+        )
+    );
+
+    static CompletableFuture<Map<String, Throwable>> spreadsheetFormatterProvider(final SpreadsheetFormatterProvider provider,
+                                                                                  final SpreadsheetFormatterProviderSamplesContext context,
+                                                                                  final Executor executor,
+                                                                                  final BiConsumer<String, Optional<Throwable>> progress) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(executor, "executor");
+        Objects.requireNonNull(progress, "progress");
+
+        return CompletableFuture.supplyAsync(
+            () -> {
+                final Map<String, Throwable> failures = Maps.sorted();
+
+                for (final SpreadsheetFormatterInfo info : provider.spreadsheetFormatterInfos()) {
+                    final String name = info.name()
+                        .value();
+                    Throwable failure = null;
+
+                    try {
+                        final Set<SpreadsheetFormatterSelector> selectors = Sets.ordered();
+
+                        for (final SpreadsheetFormatterSample sample : provider.spreadsheetFormatterSamples(
+                            SpreadsheetFormatterSelector.with(
+                                info.name(),
+                                ""
+                            ),
+                            true, // includeSamples
+                            context
+                        )) {
+                            selectors.add(
+                                sample.selector()
+                            );
+                        }
+
+                        for (final SpreadsheetFormatterSelector selector : selectors) {
+                            provider.spreadsheetFormatter(
+                                selector,
+                                context
+                            );
+                        }
+                    } catch (final Exception | LinkageError cause) {
+                        failure = cause;
+                        failures.put(
+                            name,
+                            cause
+                        );
+                    }
+
+                    progress.accept(
+                        name,
+                        Optional.ofNullable(failure)
+                    );
+                }
+
+                return Maps.readOnly(failures);
+            },
+            executor
+        );
+    }
+
+    static CompletableFuture<Map<String, Throwable>> spreadsheetComparatorProvider(final SpreadsheetComparatorProvider provider,
+                                                                                   final ProviderContext context,
+                                                                                   final Executor executor,
+                                                                                   final BiConsumer<String, Optional<Throwable>> progress) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(executor, "executor");
+        Objects.requireNonNull(progress, "progress");
+
+        return CompletableFuture.supplyAsync(
+            () -> {
+                final Map<String, Throwable> failures = Maps.sorted();
+
+                for (final SpreadsheetComparatorInfo info : provider.spreadsheetComparatorInfos()) {
+                    final String name = info.name()
+                        .value();
+                    Throwable failure = null;
+
+                    try {
+                        compareSamples(
+                            provider.spreadsheetComparator(
+                                info.name(),
+                                Lists.empty(),
+                                context
+                            )
+                        );
+                    } catch (final Exception | LinkageError cause) {
+                        failure = cause;
+                        failures.put(
+                            name,
+                            cause
+                        );
+                    }
+
+                    progress.accept(
+                        name,
+                        Optional.ofNullable(failure)
+                    );
+                }
+
+                return Maps.readOnly(failures);
+            },
+            executor
+        );
+    }
+
+    private static void compareSamples(final SpreadsheetComparator<?> comparator) {
+        final Class<?> type = comparator.type();
+
+        for (final List<Object> samples : COMPARATOR_SAMPLES) {
+            final Object left = samples.get(0);
+            final Object right = samples.get(1);
+
+            if (type.isInstance(left) && type.isInstance(right)) {
+                final Comparator<Object> objectComparator = Cast.to(comparator);
+                objectComparator.compare(left, right);
+                objectComparator.compare(right, left);
+                objectComparator.compare(left, left);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Stop creation
+     */
+    private SpreadsheetPluginProviderWarmup() {
+        throw new UnsupportedOperationException();
+    }
+}
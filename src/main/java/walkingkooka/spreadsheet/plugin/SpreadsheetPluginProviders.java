@@ -20,15 +20,242 @@ package walkingkooka.spreadsheet.plugin;
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.plugin.PluginProvider;
 import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.plugin.ProviderContext;
 import walkingkooka.reflect.PublicStaticHelper;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
 import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatterContext;
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.text.TextNode;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Factory methods to create a {@link PluginProvider} for some spreadsheet providers.
  */
 public final class SpreadsheetPluginProviders implements PublicStaticHelper {
 
+    // PluginProvider...................................................................................................
+
+    /**
+     * {@see SpreadsheetPluginProviderCollection}
+     */
+    public static SpreadsheetPluginProviderCollection collection(final PluginProviderName name,
+                                                                 final AbsoluteUrl url,
+                                                                 final Set<PluginProvider> providers) {
+        return SpreadsheetPluginProviderCollection.with(
+            name,
+            url,
+            providers
+        );
+    }
+
+    /**
+     * Returns the JSON of the {@link PluginProvider#pluginInfos()}, which is cached by the wrappers created by this
+     * class and computed on each call for all other {@link PluginProvider}. The cache is only reused for the same
+     * {@link JsonNodeMarshallContext} instance, so a single long lived context should be shared by all requests.
+     */
+    public static SpreadsheetPluginJsonPayload pluginInfosJson(final PluginProvider provider,
+                                                               final JsonNodeMarshallContext context) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(context, "context");
+
+        final SpreadsheetPluginJsonPayload payload;
+
+        if (provider instanceof SpreadsheetComparatorProviderPluginProvider) {
+            payload = ((SpreadsheetComparatorProviderPluginProvider) provider).pluginInfosJson(context);
+        } else if (provider instanceof SpreadsheetFormatterProviderPluginProvider) {
+            payload = ((SpreadsheetFormatterProviderPluginProvider) provider).pluginInfosJson(context);
+        } else {
+            payload = SpreadsheetPluginJsonPayload.with(
+                context.marshallCollection(
+                    provider.pluginInfos()
+                )
+            );
+        }
+
+        return payload;
+    }
+
+    /**
+     * Returns the changes to the {@link PluginProvider#pluginInfos()} since the given version, which are tracked by the
+     * wrappers created by this class. All other {@link PluginProvider} always return a resync.
+     */
+    public static SpreadsheetPluginInfosDelta pluginInfosSince(final PluginProvider provider,
+                                                               final long version) {
+        Objects.requireNonNull(provider, "provider");
+
+        final SpreadsheetPluginInfosDelta delta;
+
+        if (provider instanceof SpreadsheetComparatorProviderPluginProvider) {
+            delta = ((SpreadsheetComparatorProviderPluginProvider) provider).pluginInfosSince(version);
+        } else if (provider instanceof SpreadsheetFormatterProviderPluginProvider) {
+            delta = ((SpreadsheetFormatterProviderPluginProvider) provider).pluginInfosSince(version);
+        } else {
+            delta = SpreadsheetPluginInfosDelta.resync(
+                0,
+                provider.pluginInfos()
+            );
+        }
+
+        return delta;
+    }
+
+    /**
+     * {@see SpreadsheetPluginProviderBulkhead}
+     */
+    public static SpreadsheetPluginProviderBulkhead spreadsheetPluginProviderBulkhead(final PluginProviderName name,
+                                                                                      final int maxConcurrent,
+                                                                                      final Duration timeout,
+                                                                                      final Executor executor) {
+        return SpreadsheetPluginProviderBulkhead.with(
+            name,
+            maxConcurrent,
+            timeout,
+            executor
+        );
+    }
+
+    /**
+     * {@see SpreadsheetPluginProviderMetrics}
+     */
+    public static SpreadsheetPluginProviderMetrics spreadsheetPluginProviderMetrics() {
+        return SpreadsheetPluginProviderMetrics.empty();
+    }
+
+    /**
+     * {@see SpreadsheetPluginProviderMetrics}
+     */
+    public static SpreadsheetPluginProviderMetrics spreadsheetPluginProviderMetrics(final int maxNames) {
+        return SpreadsheetPluginProviderMetrics.with(maxNames);
+    }
+
+    /**
+     * {@see SpreadsheetPluginSelectorCache}
+     */
+    public static SpreadsheetPluginSelectorCache spreadsheetPluginSelectorCache(final int maxSize) {
+        return SpreadsheetPluginSelectorCache.with(maxSize);
+    }
+
+    // SpreadsheetComparatorProvider....................................................................................
+
+    /**
+     * {@see SpreadsheetComparatorKeySort}
+     */
+    public static int[] keySort(final List<?> values,
+                                final SpreadsheetComparator<?> comparator) {
+        return SpreadsheetComparatorKeySort.sort(
+            values,
+            comparator
+        );
+    }
+
+    /**
+     * {@see SpreadsheetComparatorKeySort}
+     */
+    public static int[] keySortRows(final List<? extends List<?>> rows,
+                                    final List<SpreadsheetComparator<?>> comparators) {
+        return SpreadsheetComparatorKeySort.sortRows(
+            rows,
+            comparators
+        );
+    }
+
+    /**
+     * {@see SpreadsheetComparatorParallelSort}
+     */
+    public static <T> List<T> parallelSort(final List<T> rows,
+                                           final Comparator<? super T> comparator) {
+        return SpreadsheetComparatorParallelSort.sort(
+            rows,
+            comparator
+        );
+    }
+
+    /**
+     * Parses the selector text and returns its {@link SpreadsheetComparator}. Wrappers created by
+     * {@link #spreadsheetComparatorProvider(SpreadsheetComparatorProvider, PluginProviderName, AbsoluteUrl)} and
+     * {@link SpreadsheetComparatorProviderCache} parse each distinct text once, all other providers parse on each call.
+     */
+    public static SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorProvider provider,
+                                                                 final String text,
+                                                                 final ProviderContext context) {
+        Objects.requireNonNull(provider, "provider");
+
+        final SpreadsheetComparator<?> comparator;
+
+        if (provider instanceof SpreadsheetComparatorProviderPluginProvider) {
+            comparator = ((SpreadsheetComparatorProviderPluginProvider) provider).spreadsheetComparator(
+                text,
+                context
+            );
+        } else if (provider instanceof SpreadsheetComparatorProviderCache) {
+            comparator = ((SpreadsheetComparatorProviderCache) provider).spreadsheetComparator(
+                text,
+                context
+            );
+        } else {
+            comparator = provider.spreadsheetComparator(
+                SpreadsheetComparatorSelector.parse(text),
+                context
+            );
+        }
+
+        return comparator;
+    }
+
+    /**
+     * {@see SpreadsheetPluginProviderAsync}
+     */
+    public static CompletableFuture<SpreadsheetComparator<?>> spreadsheetComparatorAsync(final SpreadsheetComparatorProvider spreadsheetComparatorProvider,
+                                                                                         final SpreadsheetComparatorSelector selector,
+                                                                                         final ProviderContext context,
+                                                                                         final Executor executor) {
+        return SpreadsheetPluginProviderAsync.spreadsheetComparator(
+            spreadsheetComparatorProvider,
+            selector,
+            context,
+            executor
+        );
+    }
+
+    /**
+     * Returns the JSON of the {@link SpreadsheetComparatorProvider#spreadsheetComparatorInfos()}, which is cached by
+     * the {@link PluginProvider} created by {@link #spreadsheetComparatorProvider(SpreadsheetComparatorProvider, PluginProviderName, AbsoluteUrl)}
+     * for the same {@link JsonNodeMarshallContext} instance.
+     */
+    public static SpreadsheetPluginJsonPayload spreadsheetComparatorInfosJson(final SpreadsheetComparatorProvider provider,
+                                                                              final JsonNodeMarshallContext context) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(context, "context");
+
+        return provider instanceof SpreadsheetComparatorProviderPluginProvider ?
+            ((SpreadsheetComparatorProviderPluginProvider) provider).spreadsheetComparatorInfosJson(context) :
+            SpreadsheetPluginJsonPayload.with(
+                context.marshall(
+                    provider.spreadsheetComparatorInfos()
+                )
+            );
+    }
+
     /**
      * {@see SpreadsheetComparatorProviderPluginProvider}
      */
@@ -42,6 +269,198 @@ public final class SpreadsheetPluginProviders implements PublicStaticHelper {
         );
     }
 
+    /**
+     * {@see SpreadsheetComparatorProviderCache}
+     */
+    public static SpreadsheetComparatorProviderCache spreadsheetComparatorProviderCache(final SpreadsheetComparatorProvider spreadsheetComparatorProvider,
+                                                                                        final int maxSize) {
+        return SpreadsheetComparatorProviderCache.with(
+            spreadsheetComparatorProvider,
+            maxSize
+        );
+    }
+
+    /**
+     * {@see SpreadsheetComparatorProviderCache}
+     */
+    public static SpreadsheetComparatorProviderCache spreadsheetComparatorProviderCache(final SpreadsheetComparatorProvider spreadsheetComparatorProvider,
+                                                                                        final int maxSize,
+                                                                                        final SpreadsheetPluginSelectorCache selectors) {
+        return SpreadsheetComparatorProviderCache.with(
+            spreadsheetComparatorProvider,
+            maxSize,
+            selectors
+        );
+    }
+
+    /**
+     * {@see SpreadsheetComparatorProviderGuarded}
+     */
+    public static SpreadsheetComparatorProvider spreadsheetComparatorProviderGuarded(final SpreadsheetComparatorProvider spreadsheetComparatorProvider,
+                                                                                     final SpreadsheetPluginProviderBulkhead bulkhead) {
+        return SpreadsheetComparatorProviderGuarded.with(
+            spreadsheetComparatorProvider,
+            bulkhead
+        );
+    }
+
+    /**
+     * {@see SpreadsheetComparatorProviderInstrumented}
+     */
+    public static SpreadsheetComparatorProvider spreadsheetComparatorProviderInstrumented(final SpreadsheetComparatorProvider spreadsheetComparatorProvider,
+                                                                                          final SpreadsheetPluginProviderMetrics metrics) {
+        return SpreadsheetComparatorProviderInstrumented.with(
+            spreadsheetComparatorProvider,
+            metrics
+        );
+    }
+
+    /**
+     * {@see SpreadsheetComparatorProviderLazy}
+     */
+    public static SpreadsheetComparatorProvider spreadsheetComparatorProviderLazy(final Supplier<SpreadsheetComparatorProvider> supplier) {
+        return SpreadsheetComparatorProviderLazy.with(supplier);
+    }
+
+    /**
+     * {@see SpreadsheetComparatorProviderReloadable}
+     */
+    public static SpreadsheetComparatorProviderReloadable spreadsheetComparatorProviderReloadable(final SpreadsheetComparatorProvider spreadsheetComparatorProvider,
+                                                                                                  final UnaryOperator<SpreadsheetComparatorProvider> decorator) {
+        return SpreadsheetComparatorProviderReloadable.with(
+            spreadsheetComparatorProvider,
+            decorator
+        );
+    }
+
+    /**
+     * {@see SpreadsheetPluginProviderWarmup}
+     */
+    public static CompletableFuture<Map<String, Throwable>> spreadsheetComparatorProviderWarmup(final SpreadsheetComparatorProvider spreadsheetComparatorProvider,
+                                                                                              final ProviderContext context,
+                                                                                              final Executor executor,
+                                                                                              final BiConsumer<String, Optional<Throwable>> progress) {
+        return SpreadsheetPluginProviderWarmup.spreadsheetComparatorProvider(
+            spreadsheetComparatorProvider,
+            context,
+            executor,
+            progress
+        );
+    }
+
+    /**
+     * Resolves all the selectors of a multi column sort, returning a single {@link Comparator} that compares rows where
+     * each row holds one value for each selector. Selectors that appear more than once are only resolved once.
+     */
+    public static Comparator<List<?>> spreadsheetComparators(final SpreadsheetComparatorProvider spreadsheetComparatorProvider,
+                                                             final List<SpreadsheetComparatorSelector> selectors,
+                                                             final ProviderContext context) {
+        return SpreadsheetComparatorRowComparator.resolve(
+            spreadsheetComparatorProvider,
+            selectors,
+            context
+        );
+    }
+
+    // SpreadsheetFormatterProvider.....................................................................................
+
+    /**
+     * Resolves the {@link SpreadsheetFormatter} for the selector once and then formats all the values in parallel
+     * chunks using the given {@link ForkJoinPool}, returning the results in the same order as the values.
+     * {@link SpreadsheetFormatterContext} are not required to be thread safe, the supplier is called by each worker
+     * thread for the context used to format its chunk, and must not return a context used by another thread unless
+     * that context is thread safe.
+     */
+    public static List<Optional<TextNode>> format(final SpreadsheetFormatterProvider provider,
+                                                  final SpreadsheetFormatterSelector selector,
+                                                  final List<?> values,
+                                                  final ProviderContext providerContext,
+                                                  final Supplier<? extends SpreadsheetFormatterContext> formatterContext,
+                                                  final ForkJoinPool pool) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(selector, "selector");
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(providerContext, "providerContext");
+        Objects.requireNonNull(formatterContext, "formatterContext");
+        Objects.requireNonNull(pool, "pool");
+
+        return SpreadsheetFormatterFormatAction.format(
+            provider.spreadsheetFormatter(
+                selector,
+                providerContext
+            ),
+            values,
+            formatterContext,
+            pool
+        );
+    }
+
+    /**
+     * Parses the selector text and returns its {@link SpreadsheetFormatter}. Wrappers created by
+     * {@link #spreadsheetFormatterProvider(SpreadsheetFormatterProvider, PluginProviderName, AbsoluteUrl)} and
+     * {@link SpreadsheetFormatterProviderCache} parse each distinct text once, all other providers parse on each call.
+     */
+    public static SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterProvider provider,
+                                                            final String text,
+                                                            final ProviderContext context) {
+        Objects.requireNonNull(provider, "provider");
+
+        final SpreadsheetFormatter formatter;
+
+        if (provider instanceof SpreadsheetFormatterProviderPluginProvider) {
+            formatter = ((SpreadsheetFormatterProviderPluginProvider) provider).spreadsheetFormatter(
+                text,
+                context
+            );
+        } else if (provider instanceof SpreadsheetFormatterProviderCache) {
+            formatter = ((SpreadsheetFormatterProviderCache) provider).spreadsheetFormatter(
+                text,
+                context
+            );
+        } else {
+            formatter = provider.spreadsheetFormatter(
+                SpreadsheetFormatterSelector.parse(text),
+                context
+            );
+        }
+
+        return formatter;
+    }
+
+    /**
+     * {@see SpreadsheetPluginProviderAsync}
+     */
+    public static CompletableFuture<SpreadsheetFormatter> spreadsheetFormatterAsync(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                    final SpreadsheetFormatterSelector selector,
+                                                                                    final ProviderContext context,
+                                                                                    final Executor executor) {
+        return SpreadsheetPluginProviderAsync.spreadsheetFormatter(
+            spreadsheetFormatterProvider,
+            selector,
+            context,
+            executor
+        );
+    }
+
+    /**
+     * Returns the JSON of the {@link SpreadsheetFormatterProvider#spreadsheetFormatterInfos()}, which is cached by
+     * the {@link PluginProvider} created by {@link #spreadsheetFormatterProvider(SpreadsheetFormatterProvider, PluginProviderName, AbsoluteUrl)}
+     * for the same {@link JsonNodeMarshallContext} instance.
+     */
+    public static SpreadsheetPluginJsonPayload spreadsheetFormatterInfosJson(final SpreadsheetFormatterProvider provider,
+                                                                             final JsonNodeMarshallContext context) {
+        Objects.requireNonNull(provider, "provider");
+        Objects.requireNonNull(context, "context");
+
+        return provider instanceof SpreadsheetFormatterProviderPluginProvider ?
+            ((SpreadsheetFormatterProviderPluginProvider) provider).spreadsheetFormatterInfosJson(context) :
+            SpreadsheetPluginJsonPayload.with(
+                context.marshall(
+                    provider.spreadsheetFormatterInfos()
+                )
+            );
+    }
+
     /**
      * {@see SpreadsheetFormatterProviderPluginProvider}
      */
@@ -55,6 +474,113 @@ public final class SpreadsheetPluginProviders implements PublicStaticHelper {
         );
     }
 
+    /**
+     * {@see SpreadsheetFormatterProviderCache}
+     */
+    public static SpreadsheetFormatterProviderCache spreadsheetFormatterProviderCache(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                      final int maxSize) {
+        return SpreadsheetFormatterProviderCache.with(
+            spreadsheetFormatterProvider,
+            maxSize
+        );
+    }
+
+    /**
+     * {@see SpreadsheetFormatterProviderCache}
+     */
+    public static SpreadsheetFormatterProviderCache spreadsheetFormatterProviderCache(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                      final int maxSize,
+                                                                                      final SpreadsheetPluginSelectorCache selectors) {
+        return SpreadsheetFormatterProviderCache.with(
+            spreadsheetFormatterProvider,
+            maxSize,
+            selectors
+        );
+    }
+
+    /**
+     * {@see SpreadsheetFormatterProviderGuarded}
+     */
+    public static SpreadsheetFormatterProvider spreadsheetFormatterProviderGuarded(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                   final SpreadsheetPluginProviderBulkhead bulkhead) {
+        return SpreadsheetFormatterProviderGuarded.with(
+            spreadsheetFormatterProvider,
+            bulkhead
+        );
+    }
+
+    /**
+     * {@see SpreadsheetFormatterProviderInstrumented}
+     */
+    public static SpreadsheetFormatterProvider spreadsheetFormatterProviderInstrumented(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                        final SpreadsheetPluginProviderMetrics metrics) {
+        return SpreadsheetFormatterProviderInstrumented.with(
+            spreadsheetFormatterProvider,
+            metrics
+        );
+    }
+
+    /**
+     * {@see SpreadsheetFormatterProviderLazy}
+     */
+    public static SpreadsheetFormatterProvider spreadsheetFormatterProviderLazy(final Supplier<SpreadsheetFormatterProvider> supplier) {
+        return SpreadsheetFormatterProviderLazy.with(supplier);
+    }
+
+    /**
+     * {@see SpreadsheetFormatterProviderReloadable}
+     */
+    public static SpreadsheetFormatterProviderReloadable spreadsheetFormatterProviderReloadable(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                                final UnaryOperator<SpreadsheetFormatterProvider> decorator) {
+        return SpreadsheetFormatterProviderReloadable.with(
+            spreadsheetFormatterProvider,
+            decorator
+        );
+    }
+
+    /**
+     * {@see SpreadsheetPluginProviderWarmup}
+     */
+    public static CompletableFuture<Map<String, Throwable>> spreadsheetFormatterProviderWarmup(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                             final SpreadsheetFormatterProviderSamplesContext context,
+                                                                                             final Executor executor,
+                                                                                             final BiConsumer<String, Optional<Throwable>> progress) {
+        return SpreadsheetPluginProviderWarmup.spreadsheetFormatterProvider(
+            spreadsheetFormatterProvider,
+            context,
+            executor,
+            progress
+        );
+    }
+
+    /**
+     * {@see SpreadsheetFormatterRenderCache}
+     */
+    public static SpreadsheetFormatterRenderCache spreadsheetFormatterRenderCache(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                  final long maxBytes) {
+        return SpreadsheetFormatterRenderCache.with(
+            spreadsheetFormatterProvider,
+            maxBytes
+        );
+    }
+
+    /**
+     * {@see SpreadsheetPluginProviderAsync}
+     */
+    public static CompletableFuture<List<SpreadsheetFormatterSample>> spreadsheetFormatterSamplesAsync(final SpreadsheetFormatterProvider spreadsheetFormatterProvider,
+                                                                                                       final SpreadsheetFormatterSelector selector,
+                                                                                                       final boolean includeSamples,
+                                                                                                       final SpreadsheetFormatterProviderSamplesContext context,
+                                                                                                       final Executor executor) {
+        return SpreadsheetPluginProviderAsync.spreadsheetFormatterSamples(
+            spreadsheetFormatterProvider,
+            selector,
+            includeSamples,
+            context,
+            executor
+        );
+    }
+
     /**
      * Stop creation
      */
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+
+import java.util.Objects;
+
+/**
+ * Caches from selector text to the parsed {@link SpreadsheetFormatterSelector} or {@link SpreadsheetComparatorSelector},
+ * so each distinct pattern is parsed once rather than once per cell. Text that fails to parse is not cached and fails
+ * again on the next call.
+ * <br>
+ * Each instance holds its own pair of caches, each bounded by the given maxSize with its own lock, so a tenant or a
+ * {@link SpreadsheetFormatterProviderCache} or {@link SpreadsheetComparatorProviderCache} may own one sized for its
+ * workload and {@link #clear()} it without affecting other owners.
+ */
+public final class SpreadsheetPluginSelectorCache {
+
+    /**
+     * The default number of distinct selectors retained by each cache.
+     */
+    public final static int MAX_SIZE = 1024;
+
+    static SpreadsheetPluginSelectorCache with(final int maxSize) {
+        return new SpreadsheetPluginSelectorCache(
+            LruCache.with(maxSize),
+            LruCache.with(maxSize)
+        );
+    }
+
+    private SpreadsheetPluginSelectorCache(final LruCache<String, SpreadsheetFormatterSelector> formatters,
+                                           final LruCache<String, SpreadsheetComparatorSelector> comparators) {
+        this.formatters = formatters;
+        this.comparators = comparators;
+    }
+
+    public SpreadsheetFormatterSelector spreadsheetFormatterSelector(final String text) {
+        Objects.requireNonNull(text, "text");
+
+        return this.formatters.get(
+            text,
+            SpreadsheetFormatterSelector::parse
+        );
+    }
+
+    public SpreadsheetComparatorSelector spreadsheetComparatorSelector(final String text) {
+        Objects.requireNonNull(text, "text");
+
+        return this.comparators.get(
+            text,
+            SpreadsheetComparatorSelector::parse
+        );
+    }
+
+    /**
+     * Removes all cached selectors, leaving the hit and miss counters unchanged.
+     */
+    public void clear() {
+        this.formatters.clear();
+        this.comparators.clear();
+    }
+
+    /**
+     * The number of selectors currently cached, formatters and comparators combined.
+     */
+    public int size() {
+        return this.formatters.size() +
+            this.comparators.size();
+    }
+
+    public int maxSize() {
+        return this.formatters.maxSize();
+    }
+
+    /**
+     * The number of calls that returned a cached selector, formatters and comparators combined.
+     */
+    public long hits() {
+        return this.formatters.hits() +
+            this.comparators.hits();
+    }
+
+    /**
+     * The number of calls that parsed their text, formatters and comparators combined.
+     */
+    public long misses() {
+        return this.formatters.misses() +
+            this.comparators.misses();
+    }
+
+    private final LruCache<String, SpreadsheetFormatterSelector> formatters;
+
+    private final LruCache<String, SpreadsheetComparatorSelector> comparators;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "formatters " + this.formatters + ", comparators " + this.comparators;
+    }
+}
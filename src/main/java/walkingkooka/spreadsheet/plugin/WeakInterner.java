@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * An intern pool that returns one canonical instance for equal values. Both keys and values are weakly held, so a
+ * canonical instance is collected once nothing else references it.
+ */
+final class WeakInterner<T> {
+
+    static <T> WeakInterner<T> empty() {
+        return new WeakInterner<>();
+    }
+
+    private WeakInterner() {
+        super();
+    }
+
+    /**
+     * Returns the canonical instance equal to the given value, which becomes the canonical instance when none exists.
+     */
+    T intern(final T value) {
+        Objects.requireNonNull(value, "value");
+
+        synchronized (this.values) {
+            final WeakReference<T> reference = this.values.get(value);
+            T canonical = null != reference ?
+                reference.get() :
+                null;
+            if (null == canonical) {
+                canonical = value;
+                this.values.put(
+                    value,
+                    new WeakReference<>(value)
+                );
+            }
+            return canonical;
+        }
+    }
+
+    int size() {
+        synchronized (this.values) {
+            return this.values.size();
+        }
+    }
+
+    /**
+     * The value must be held weakly too, otherwise it would keep its own key reachable.
+     */
+    private final Map<T, WeakReference<T>> values = new WeakHashMap<>();
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "size=" + this.size();
+    }
+}
@@ -0,0 +1,604 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginProvider;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfo;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfo;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A {@link PluginProvider} that loads the {@link PluginInfo}, {@link SpreadsheetFormatterInfoSet} and
+ * {@link SpreadsheetComparatorInfoSet} of the wrapped provider from a binary snapshot file. A snapshot written for the
+ * same {@link PluginProviderName} and {@link AbsoluteUrl} is valid and the wrapped provider is never enumerated, any
+ * other file is ignored, the wrapped provider is enumerated and a new snapshot is written for the next start.
+ * <br>
+ * A valid snapshot may still be stale, for example after a plugin jar was upgraded without changing the name or url of
+ * its provider. Owners that know the plugins changed call {@link #refresh()}, which enumerates the wrapped provider on
+ * the given {@link Executor}. If the infos changed they replace the loaded infos, the snapshot is rewritten and the
+ * refresh listeners are run, a {@link SpreadsheetPluginProviderCollection} holding this snapshot then rebuilds its
+ * indices.
+ * <br>
+ * Formatters and comparators are created by the wrapped provider, its formatter and comparator infos are empty unless
+ * it is a {@link SpreadsheetFormatterProvider} or {@link SpreadsheetComparatorProvider}.
+ * <br>
+ * The file is read through a memory mapped {@link FileChannel}, so this class is part of the JVM only sources which are
+ * not shipped to J2CL. The file has the following layout, all strings being a length prefixed UTF-8 byte sequence.
+ * <pre>
+ * int magic
+ * int version
+ * string provider name
+ * string provider url
+ * int plugin count
+ * (string url, string name) * plugin count
+ * int formatter count
+ * (string url, string name) * formatter count
+ * int comparator count
+ * (string url, string name) * comparator count
+ * </pre>
+ */
+public final class SpreadsheetPluginProviderSnapshot implements SpreadsheetFormatterProvider,
+    SpreadsheetComparatorProvider,
+    SpreadsheetPluginProviderRefreshable {
+
+    /**
+     * "SPPS" as ASCII.
+     */
+    final static int MAGIC = 0x53505053;
+
+    final static int VERSION = 2;
+
+    static SpreadsheetPluginProviderSnapshot with(final PluginProvider provider,
+                                                  final Path file,
+                                                  final Executor executor) {
+        return new SpreadsheetPluginProviderSnapshot(
+            Objects.requireNonNull(provider, "provider"),
+            Objects.requireNonNull(file, "file"),
+            Objects.requireNonNull(executor, "executor")
+        );
+    }
+
+    private SpreadsheetPluginProviderSnapshot(final PluginProvider provider,
+                                              final Path file,
+                                              final Executor executor) {
+        this.provider = provider;
+        this.file = file;
+        this.executor = executor;
+    }
+
+    // SpreadsheetFormatterProvider.....................................................................................
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                     final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.formatterProvider(selector.name())
+            .spreadsheetFormatter(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                     final List<?> values,
+                                                     final ProviderContext context) {
+        return this.formatterProvider(name)
+            .spreadsheetFormatter(
+                name,
+                values,
+                context
+            );
+    }
+
+    @Override
+    public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.formatterProvider(selector.name())
+            .spreadsheetFormatterNextToken(selector);
+    }
+
+    @Override
+    public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                        final boolean includeSamples,
+                                                                        final SpreadsheetFormatterProviderSamplesContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.formatterProvider(selector.name())
+            .spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            );
+    }
+
+    /**
+     * Returns the formatter infos from the snapshot file, falling back to the wrapped provider.
+     */
+    @Override
+    public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+        return this.infos().formatterInfos;
+    }
+
+    private SpreadsheetFormatterProvider formatterProvider(final SpreadsheetFormatterName name) {
+        Objects.requireNonNull(name, "name");
+
+        final PluginProvider provider = this.provider;
+        if (false == provider instanceof SpreadsheetFormatterProvider) {
+            throw new IllegalArgumentException("Unknown formatter " + name);
+        }
+        return (SpreadsheetFormatterProvider) provider;
+    }
+
+    // SpreadsheetComparatorProvider....................................................................................
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                          final ProviderContext context) {
+        Objects.requireNonNull(selector, "selector");
+
+        return this.comparatorProvider(selector.name())
+            .spreadsheetComparator(
+                selector,
+                context
+            );
+    }
+
+    @Override
+    public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                          final List<?> values,
+                                                          final ProviderContext context) {
+        return this.comparatorProvider(name)
+            .spreadsheetComparator(
+                name,
+                values,
+                context
+            );
+    }
+
+    /**
+     * Returns the comparator infos from the snapshot file, falling back to the wrapped provider.
+     */
+    @Override
+    public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+        return this.infos().comparatorInfos;
+    }
+
+    private SpreadsheetComparatorProvider comparatorProvider(final SpreadsheetComparatorName name) {
+        Objects.requireNonNull(name, "name");
+
+        final PluginProvider provider = this.provider;
+        if (false == provider instanceof SpreadsheetComparatorProvider) {
+            throw new IllegalArgumentException("Unknown comparator " + name);
+        }
+        return (SpreadsheetComparatorProvider) provider;
+    }
+
+    // PluginProvider...................................................................................................
+
+    @Override
+    public PluginProviderName name() {
+        return this.provider.name();
+    }
+
+    @Override
+    public AbsoluteUrl url() {
+        return this.provider.url();
+    }
+
+    /**
+     * Returns the plugin infos from the snapshot file, falling back to the wrapped provider.
+     */
+    @Override
+    public Set<PluginInfo> pluginInfos() {
+        return this.infos().pluginInfos;
+    }
+
+    private final PluginProvider provider;
+
+    // snapshot.........................................................................................................
+
+    /**
+     * Returns the infos loaded from the snapshot file, enumerating the wrapped provider and writing a new snapshot if
+     * the file is missing, unreadable or written for another provider.
+     */
+    private Infos infos() {
+        Infos infos = this.infos;
+        if (null == infos) {
+            synchronized (this) {
+                infos = this.infos;
+                if (null == infos) {
+                    infos = this.load()
+                        .orElse(null);
+                    if (null == infos) {
+                        infos = this.enumerate();
+                        this.write(infos);
+                    }
+                    this.infos = infos;
+                }
+            }
+        }
+        return infos;
+    }
+
+    private Optional<Infos> load() {
+        Optional<Infos> loaded;
+        try {
+            loaded = read(
+                this.file,
+                this.name(),
+                this.url()
+            );
+        } catch (final IOException ignore) {
+            loaded = Optional.empty();
+        }
+        return loaded;
+    }
+
+    /**
+     * Enumerates all the infos of the wrapped provider.
+     */
+    private Infos enumerate() {
+        final PluginProvider provider = this.provider;
+
+        return new Infos(
+            Sets.readOnly(
+                provider.pluginInfos()
+            ),
+            provider instanceof SpreadsheetFormatterProvider ?
+                ((SpreadsheetFormatterProvider) provider).spreadsheetFormatterInfos() :
+                SpreadsheetFormatterInfoSet.EMPTY,
+            provider instanceof SpreadsheetComparatorProvider ?
+                ((SpreadsheetComparatorProvider) provider).spreadsheetComparatorInfos() :
+                SpreadsheetComparatorInfoSet.EMPTY
+        );
+    }
+
+    private void write(final Infos infos) {
+        try {
+            write(
+                this.file,
+                this.name(),
+                this.url(),
+                infos
+            );
+        } catch (final IOException ignore) {
+            // a snapshot that cannot be written only costs the next start an enumeration
+        }
+    }
+
+    /**
+     * Enumerates the wrapped provider again on the {@link Executor}, replacing the infos, rewriting the snapshot and
+     * running the refresh listeners if the infos changed. Returns false if the executor rejected the refresh, the
+     * current infos are then kept.
+     */
+    public boolean refresh() {
+        boolean queued;
+        try {
+            this.executor.execute(this::refreshNow);
+            queued = true;
+        } catch (final RejectedExecutionException rejected) {
+            queued = false;
+        }
+        return queued;
+    }
+
+    private void refreshNow() {
+        final Infos infos = this.enumerate();
+        final boolean changed;
+
+        synchronized (this) {
+            changed = false == infos.equals(this.infos);
+            if (changed) {
+                this.infos = infos;
+                this.write(infos);
+            }
+        }
+
+        if (changed) {
+            for (final Runnable listener : this.listeners) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Adds a listener that is run after every {@link #refresh()} that changed the infos, once the new infos are
+     * visible. The returned {@link Runnable} removes the listener.
+     */
+    @Override
+    public Runnable addRefreshListener(final Runnable listener) {
+        Objects.requireNonNull(listener, "listener");
+
+        this.listeners.add(listener);
+        return () -> this.listeners.remove(listener);
+    }
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private final Path file;
+
+    private final Executor executor;
+
+    private volatile Infos infos;
+
+    /**
+     * The plugin, formatter and comparator infos read from a snapshot or the wrapped provider at one time.
+     */
+    final static class Infos {
+
+        Infos(final Set<PluginInfo> pluginInfos,
+              final SpreadsheetFormatterInfoSet formatterInfos,
+              final SpreadsheetComparatorInfoSet comparatorInfos) {
+            this.pluginInfos = pluginInfos;
+            this.formatterInfos = formatterInfos;
+            this.comparatorInfos = comparatorInfos;
+        }
+
+        final Set<PluginInfo> pluginInfos;
+
+        final SpreadsheetFormatterInfoSet formatterInfos;
+
+        final SpreadsheetComparatorInfoSet comparatorInfos;
+
+        // Object.......................................................................................................
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                this.pluginInfos,
+                this.formatterInfos,
+                this.comparatorInfos
+            );
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return this == other ||
+                other instanceof Infos &&
+                    this.equals0((Infos) other);
+        }
+
+        private boolean equals0(final Infos other) {
+            return this.pluginInfos.equals(other.pluginInfos) &&
+                this.formatterInfos.equals(other.formatterInfos) &&
+                this.comparatorInfos.equals(other.comparatorInfos);
+        }
+
+        @Override
+        public String toString() {
+            return this.pluginInfos + " " + this.formatterInfos + " " + this.comparatorInfos;
+        }
+    }
+
+    // file.............................................................................................................
+
+    /**
+     * Reads a snapshot, returning nothing if the file is missing, corrupt or written for another provider.
+     */
+    static Optional<Infos> read(final Path file,
+                                final PluginProviderName name,
+                                final AbsoluteUrl url) throws IOException {
+        Optional<Infos> infos = Optional.empty();
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                0,
+                channel.size()
+            );
+
+            if (MAGIC == buffer.getInt() &&
+                VERSION == buffer.getInt() &&
+                name.value().equals(readString(buffer)) &&
+                url.value().equals(readString(buffer))) {
+                final Set<PluginInfo> pluginInfos = readInfos(
+                    buffer,
+                    PluginInfoInterner::pluginInfo
+                );
+                final Set<SpreadsheetFormatterInfo> formatterInfos = readInfos(
+                    buffer,
+                    (u, n) -> SpreadsheetFormatterInfo.with(
+                        u,
+                        SpreadsheetFormatterName.with(n)
+                    )
+                );
+                final Set<SpreadsheetComparatorInfo> comparatorInfos = readInfos(
+                    buffer,
+                    (u, n) -> SpreadsheetComparatorInfo.with(
+                        u,
+                        SpreadsheetComparatorName.with(n)
+                    )
+                );
+
+                if (false == buffer.hasRemaining()) {
+                    infos = Optional.of(
+                        new Infos(
+                            Sets.readOnly(pluginInfos),
+                            SpreadsheetFormatterInfoSet.with(formatterInfos),
+                            SpreadsheetComparatorInfoSet.with(comparatorInfos)
+                        )
+                    );
+                }
+            }
+        } catch (final NoSuchFileException | BufferUnderflowException | IllegalArgumentException corrupt) {
+            // missing, truncated or invalid snapshots are ignored
+        }
+
+        return infos;
+    }
+
+    private static <T> Set<T> readInfos(final ByteBuffer buffer,
+                                        final BiFunction<AbsoluteUrl, String, T> factory) {
+        final int count = buffer.getInt();
+        if (count < 0) {
+            throw new BufferUnderflowException();
+        }
+
+        final Set<T> infos = Sets.hash();
+        for (int i = 0; i < count; i++) {
+            infos.add(
+                factory.apply(
+                    Url.parseAbsolute(
+                        readString(buffer)
+                    ),
+                    readString(buffer)
+                )
+            );
+        }
+        return infos;
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(
+            bytes,
+            StandardCharsets.UTF_8
+        );
+    }
+
+    /**
+     * Writes a snapshot to a temporary file which is then moved over the given file, so readers never see a partially
+     * written snapshot.
+     */
+    static void write(final Path file,
+                      final PluginProviderName name,
+                      final AbsoluteUrl url,
+                      final Infos infos) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream data = new DataOutputStream(bytes)) {
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            writeString(name.value(), data);
+            writeString(url.value(), data);
+            writeInfos(
+                infos.pluginInfos,
+                PluginInfo::url,
+                (i) -> i.name().value(),
+                data
+            );
+            writeInfos(
+                infos.formatterInfos,
+                SpreadsheetFormatterInfo::url,
+                (i) -> i.name().value(),
+                data
+            );
+            writeInfos(
+                infos.comparatorInfos,
+                SpreadsheetComparatorInfo::url,
+                (i) -> i.name().value(),
+                data
+            );
+        }
+
+        final Path parent = file.toAbsolutePath()
+            .getParent();
+        final Path temp = Files.createTempFile(
+            parent,
+            file.getFileName().toString(),
+            ".tmp"
+        );
+        try {
+            try (final OutputStream output = Files.newOutputStream(temp)) {
+                bytes.writeTo(output);
+            }
+            Files.move(
+                temp,
+                file,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static <T> void writeInfos(final Set<T> infos,
+                                       final Function<T, AbsoluteUrl> url,
+                                       final Function<T, String> name,
+                                       final DataOutputStream data) throws IOException {
+        data.writeInt(infos.size());
+
+        for (final T info : infos) {
+            writeString(url.apply(info).value(), data);
+            writeString(name.apply(info), data);
+        }
+    }
+
+    private static void writeString(final String string,
+                                    final DataOutputStream data) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.provider.toString();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import walkingkooka.plugin.PluginProvider;
+import walkingkooka.reflect.PublicStaticHelper;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Factory methods for the JVM only plugin providers, which are not part of the sources shipped to J2CL.
+ */
+public final class SpreadsheetPluginProviderSnapshots implements PublicStaticHelper {
+
+    /**
+     * {@see SpreadsheetPluginProviderSnapshot}
+     */
+    public static SpreadsheetPluginProviderSnapshot snapshot(final PluginProvider provider,
+                                                             final Path file,
+                                                             final Executor executor) {
+        return SpreadsheetPluginProviderSnapshot.with(
+            provider,
+            file,
+            executor
+        );
+    }
+
+    /**
+     * Stop creation
+     */
+    private SpreadsheetPluginProviderSnapshots() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class LruCacheTest implements ClassTesting2<LruCache<?, ?>>,
+    ToStringTesting<LruCache<?, ?>> {
+
+    @Test
+    public void testWithZeroMaxSizeFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LruCache.with(0)
+        );
+    }
+
+    @Test
+    public void testWithNegativeMaxSizeFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LruCache.with(-1)
+        );
+    }
+
+    @Test
+    public void testGetNullKeyFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> LruCache.<String, String>with(1)
+                .get(null, (k) -> k)
+        );
+    }
+
+    @Test
+    public void testGetNullFactoryFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> LruCache.<String, String>with(1)
+                .get("key", null)
+        );
+    }
+
+    @Test
+    public void testGetMissThenHit() {
+        final AtomicInteger counter = new AtomicInteger();
+        final LruCache<String, String> cache = LruCache.with(2);
+
+        this.checkEquals(
+            "KEY",
+            cache.get("key", (k) -> {
+                counter.incrementAndGet();
+                return k.toUpperCase();
+            })
+        );
+        this.checkEquals(
+            "KEY",
+            cache.get("key", (k) -> {
+                counter.incrementAndGet();
+                return k.toUpperCase();
+            })
+        );
+
+        this.checkEquals(1, counter.get(), "factory invocations");
+        this.checkEquals(1L, cache.hits(), "hits");
+        this.checkEquals(1L, cache.misses(), "misses");
+    }
+
+    @Test
+    public void testGetEvictsLeastRecentlyUsed() {
+        final LruCache<String, String> cache = LruCache.with(2);
+
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("a", String::toUpperCase); // a is now most recently used
+        cache.get("c", String::toUpperCase); // evicts b
+
+        this.checkEquals(2, cache.size(), "size");
+
+        final AtomicInteger counter = new AtomicInteger();
+        cache.get("a", (k) -> {
+            counter.incrementAndGet();
+            return k;
+        });
+        this.checkEquals(0, counter.get(), "a should still be cached");
+
+        cache.get("b", (k) -> {
+            counter.incrementAndGet();
+            return k;
+        });
+        this.checkEquals(1, counter.get(), "b should have been evicted");
+    }
+
+    @Test
+    public void testGetNullValueNotCached() {
+        final LruCache<String, String> cache = LruCache.with(2);
+
+        this.checkEquals(
+            null,
+            cache.get("key", (k) -> null)
+        );
+        this.checkEquals(0, cache.size(), "size");
+    }
+
+    @Test
+    public void testClear() {
+        final LruCache<String, String> cache = LruCache.with(2);
+        cache.get("a", String::toUpperCase);
+        cache.clear();
+
+        this.checkEquals(0, cache.size(), "size");
+    }
+
+    @Test
+    public void testToString() {
+        final LruCache<String, String> cache = LruCache.with(2);
+        cache.get("a", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+
+        this.toStringAndCheck(
+            cache,
+            "size=1 maxSize=2 hits=1 misses=1"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<LruCache<?, ?>> type() {
+        return Cast.to(LruCache.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
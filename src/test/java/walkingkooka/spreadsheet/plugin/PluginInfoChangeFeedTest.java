@@ -0,0 +1,309 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginName;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class PluginInfoChangeFeedTest implements ClassTesting2<PluginInfoChangeFeed>,
+    ToStringTesting<PluginInfoChangeFeed> {
+
+    private final static PluginInfo INFO1 = info("plugin1");
+
+    private final static PluginInfo INFO2 = info("plugin2");
+
+    private final static PluginInfo INFO3 = info("plugin3");
+
+    private final static long EPOCH = PluginInfoChangeFeed.epoch(1);
+
+    @Test
+    public void testWithZeroMaxChangesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> PluginInfoChangeFeed.with(0)
+        );
+    }
+
+    @Test
+    public void testEpochZeroFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> PluginInfoChangeFeed.epoch(0)
+        );
+    }
+
+    @Test
+    public void testEpoch() {
+        this.checkEquals(
+            1L << 32,
+            PluginInfoChangeFeed.epoch(1)
+        );
+    }
+
+    @Test
+    public void testWithRandomEpoch() {
+        final long version = PluginInfoChangeFeed.with(1)
+            .version();
+
+        this.checkEquals(
+            0L,
+            version & 0xFFFFFFFFL,
+            "counter"
+        );
+        this.checkEquals(
+            true,
+            version > 0,
+            () -> "epoch " + version
+        );
+    }
+
+    @Test
+    public void testUpdateNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> PluginInfoChangeFeed.with(1, EPOCH)
+                .update(null)
+        );
+    }
+
+    @Test
+    public void testSinceEmpty() {
+        this.sinceAndCheck(
+            PluginInfoChangeFeed.with(1, EPOCH),
+            EPOCH,
+            SpreadsheetPluginInfosDelta.changes(
+                EPOCH,
+                Sets.empty(),
+                Sets.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testUpdateSameInstanceNoNewVersion() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(4, EPOCH);
+        final Set<PluginInfo> infos = Sets.of(INFO1);
+
+        feed.update(infos);
+        feed.update(infos);
+
+        this.checkEquals(
+            EPOCH + 1,
+            feed.version()
+        );
+    }
+
+    @Test
+    public void testUpdateEqualInfosNoNewVersion() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(4, EPOCH);
+
+        feed.update(Sets.of(INFO1));
+        feed.update(Sets.of(INFO1));
+
+        this.checkEquals(
+            EPOCH + 1,
+            feed.version()
+        );
+    }
+
+    @Test
+    public void testSinceAddedAndRemoved() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(4, EPOCH);
+
+        feed.update(Sets.of(INFO1, INFO2));
+        feed.update(Sets.of(INFO2, INFO3));
+
+        this.sinceAndCheck(
+            feed,
+            EPOCH + 1,
+            SpreadsheetPluginInfosDelta.changes(
+                EPOCH + 2,
+                Sets.of(INFO3),
+                Sets.of(INFO1)
+            )
+        );
+    }
+
+    @Test
+    public void testSinceMergesSeveralVersions() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(4, EPOCH);
+
+        feed.update(Sets.of(INFO1));
+        feed.update(Sets.of(INFO1, INFO2));
+        feed.update(Sets.of(INFO2));
+        feed.update(Sets.of(INFO2, INFO3));
+
+        this.sinceAndCheck(
+            feed,
+            EPOCH + 1,
+            SpreadsheetPluginInfosDelta.changes(
+                EPOCH + 4,
+                Sets.of(INFO2, INFO3),
+                Sets.of(INFO1)
+            )
+        );
+    }
+
+    @Test
+    public void testSinceAddedThenRemovedCancels() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(4, EPOCH);
+
+        feed.update(Sets.of(INFO1));
+        feed.update(Sets.of(INFO1, INFO2));
+        feed.update(Sets.of(INFO1));
+
+        this.sinceAndCheck(
+            feed,
+            EPOCH + 1,
+            SpreadsheetPluginInfosDelta.changes(
+                EPOCH + 3,
+                Sets.empty(),
+                Sets.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testSinceEvictedVersionResync() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(2, EPOCH);
+
+        feed.update(Sets.of(INFO1));
+        feed.update(Sets.of(INFO2));
+        feed.update(Sets.of(INFO3));
+
+        this.sinceAndCheck(
+            feed,
+            EPOCH,
+            SpreadsheetPluginInfosDelta.resync(
+                EPOCH + 3,
+                Sets.of(INFO3)
+            )
+        );
+        this.sinceAndCheck(
+            feed,
+            EPOCH + 1,
+            SpreadsheetPluginInfosDelta.changes(
+                EPOCH + 3,
+                Sets.of(INFO3),
+                Sets.of(INFO1)
+            )
+        );
+    }
+
+    @Test
+    public void testSinceFutureVersionResync() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(2, EPOCH);
+        feed.update(Sets.of(INFO1));
+
+        this.sinceAndCheck(
+            feed,
+            EPOCH + 2,
+            SpreadsheetPluginInfosDelta.resync(
+                EPOCH + 1,
+                Sets.of(INFO1)
+            )
+        );
+    }
+
+    @Test
+    public void testSinceOtherEpochResync() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(4, EPOCH);
+        feed.update(Sets.of(INFO1));
+        feed.update(Sets.of(INFO1, INFO2));
+
+        final PluginInfoChangeFeed other = PluginInfoChangeFeed.with(
+            4,
+            PluginInfoChangeFeed.epoch(2)
+        );
+        other.update(Sets.of(INFO3));
+
+        this.sinceAndCheck(
+            feed,
+            other.version(),
+            SpreadsheetPluginInfosDelta.resync(
+                EPOCH + 2,
+                Sets.of(INFO1, INFO2)
+            )
+        );
+    }
+
+    @Test
+    public void testSinceZeroResync() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(4, EPOCH);
+        feed.update(Sets.of(INFO1));
+
+        this.sinceAndCheck(
+            feed,
+            0,
+            SpreadsheetPluginInfosDelta.resync(
+                EPOCH + 1,
+                Sets.of(INFO1)
+            )
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final PluginInfoChangeFeed feed = PluginInfoChangeFeed.with(2, EPOCH);
+        feed.update(Sets.of(INFO1));
+
+        this.toStringAndCheck(
+            feed,
+            "version=" + (EPOCH + 1) + " changes=1"
+        );
+    }
+
+    private void sinceAndCheck(final PluginInfoChangeFeed feed,
+                               final long version,
+                               final SpreadsheetPluginInfosDelta expected) {
+        this.checkEquals(
+            expected,
+            feed.since(version),
+            () -> feed + " since " + version
+        );
+    }
+
+    private static PluginInfo info(final String name) {
+        return PluginInfo.with(
+            Url.parseAbsolute("https://example.com/" + name),
+            PluginName.with(name)
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<PluginInfoChangeFeed> type() {
+        return PluginInfoChangeFeed.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
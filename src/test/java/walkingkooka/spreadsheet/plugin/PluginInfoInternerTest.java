@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginName;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class PluginInfoInternerTest implements ClassTesting2<PluginInfoInterner> {
+
+    private final static String URL = "https://example.com/interned123";
+
+    private final static String NAME = "interned123";
+
+    @Test
+    public void testPluginInfoNullUrlFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> PluginInfoInterner.pluginInfo(
+                null,
+                NAME
+            )
+        );
+    }
+
+    @Test
+    public void testPluginInfoNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> PluginInfoInterner.pluginInfo(
+                Url.parseAbsolute(URL),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testPluginInfo() {
+        final AbsoluteUrl url = Url.parseAbsolute(URL);
+
+        this.checkEquals(
+            PluginInfo.with(
+                url,
+                PluginName.with(NAME)
+            ),
+            PluginInfoInterner.pluginInfo(
+                url,
+                NAME
+            )
+        );
+    }
+
+    @Test
+    public void testPluginInfoSameInstance() {
+        final PluginInfo info = PluginInfoInterner.pluginInfo(
+            Url.parseAbsolute(URL),
+            NAME
+        );
+
+        assertSame(
+            info,
+            PluginInfoInterner.pluginInfo(
+                Url.parseAbsolute(URL),
+                NAME
+            )
+        );
+    }
+
+    @Test
+    public void testPluginInfoSharesNameAndUrl() {
+        final PluginInfo info = PluginInfoInterner.pluginInfo(
+            Url.parseAbsolute(URL),
+            NAME
+        );
+        final PluginInfo other = PluginInfoInterner.pluginInfo(
+            Url.parseAbsolute(URL + "/other"),
+            NAME
+        );
+
+        assertSame(
+            info.name(),
+            other.name()
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<PluginInfoInterner> type() {
+        return PluginInfoInterner.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
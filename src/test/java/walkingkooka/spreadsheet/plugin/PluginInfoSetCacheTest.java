@@ -0,0 +1,142 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginName;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class PluginInfoSetCacheTest implements ClassTesting2<PluginInfoSetCache<?>> {
+
+    @Test
+    public void testWithNullMapperFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> PluginInfoSetCache.with(null)
+        );
+    }
+
+    @Test
+    public void testGetNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> PluginInfoSetCache.<String>with(PluginInfoSetCacheTest::toPlugins)
+                .get(null)
+        );
+    }
+
+    @Test
+    public void testGet() {
+        final PluginInfoSetCache<String> cache = PluginInfoSetCache.with(PluginInfoSetCacheTest::toPlugins);
+
+        this.checkEquals(
+            toPlugins("abc"),
+            cache.get("abc")
+        );
+    }
+
+    @Test
+    public void testGetSameInfosReturnsCached() {
+        final AtomicInteger counter = new AtomicInteger();
+        final PluginInfoSetCache<String> cache = PluginInfoSetCache.with(
+            (s) -> {
+                counter.incrementAndGet();
+                return toPlugins(s);
+            }
+        );
+
+        final String infos = "abc";
+        final Set<PluginInfo> pluginInfos = cache.get(infos);
+
+        assertSame(
+            pluginInfos,
+            cache.get(infos)
+        );
+        this.checkEquals(
+            1,
+            counter.get(),
+            "mapper invocations"
+        );
+    }
+
+    @Test
+    public void testGetDifferentInfosRecomputes() {
+        final AtomicInteger counter = new AtomicInteger();
+        final PluginInfoSetCache<String> cache = PluginInfoSetCache.with(
+            (s) -> {
+                counter.incrementAndGet();
+                return toPlugins(s);
+            }
+        );
+
+        cache.get("abc");
+
+        this.checkEquals(
+            toPlugins("def"),
+            cache.get("def")
+        );
+        this.checkEquals(
+            2,
+            counter.get(),
+            "mapper invocations"
+        );
+    }
+
+    @Test
+    public void testGetReadOnly() {
+        final PluginInfoSetCache<String> cache = PluginInfoSetCache.with(PluginInfoSetCacheTest::toPlugins);
+
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> cache.get("abc")
+                .clear()
+        );
+    }
+
+    private static Set<PluginInfo> toPlugins(final String name) {
+        return Sets.of(
+            PluginInfo.with(
+                Url.parseAbsolute("https://example.com/" + name),
+                PluginName.with(name)
+            )
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<PluginInfoSetCache<?>> type() {
+        return Cast.to(PluginInfoSetCache.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
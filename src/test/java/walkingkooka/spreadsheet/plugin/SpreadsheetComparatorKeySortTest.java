@@ -0,0 +1,357 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.tree.expression.ExpressionNumberKind;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetComparatorKeySortTest implements ClassTesting2<SpreadsheetComparatorKeySort> {
+
+    private final static int COUNT = 1000;
+
+    @Test
+    public void testSortNullValuesFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorKeySort.sort(
+                null,
+                SpreadsheetComparators.date()
+            )
+        );
+    }
+
+    @Test
+    public void testSortNullComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorKeySort.sort(
+                Lists.empty(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSortEmpty() {
+        this.sortAndCheck(
+            Lists.empty(),
+            SpreadsheetComparators.date()
+        );
+    }
+
+    @Test
+    public void testSortDates() {
+        final Random random = new Random(1);
+        final List<Object> values = Lists.array();
+
+        for (int i = 0; i < COUNT; i++) {
+            values.add(
+                LocalDate.ofEpochDay(random.nextInt(100))
+            );
+        }
+
+        this.sortAndCheck(
+            values,
+            SpreadsheetComparators.date()
+        );
+    }
+
+    @Test
+    public void testSortDateTimes() {
+        final Random random = new Random(2);
+        final List<Object> values = Lists.array();
+
+        for (int i = 0; i < COUNT; i++) {
+            values.add(
+                LocalDateTime.of(2000, 1, 1, 0, 0)
+                    .plusSeconds(random.nextInt(10))
+                    .plusNanos(random.nextInt(3))
+            );
+        }
+
+        this.sortAndCheck(
+            values,
+            SpreadsheetComparators.dateTime()
+        );
+    }
+
+    @Test
+    public void testSortTimes() {
+        final Random random = new Random(3);
+        final List<Object> values = Lists.array();
+
+        for (int i = 0; i < COUNT; i++) {
+            values.add(
+                LocalTime.ofSecondOfDay(random.nextInt(100))
+            );
+        }
+
+        this.sortAndCheck(
+            values,
+            SpreadsheetComparators.time()
+        );
+    }
+
+    @Test
+    public void testSortNumbersSameDouble() {
+        final Random random = new Random(4);
+        final List<Object> values = Lists.array();
+
+        // both values convert to the same double
+        final BigDecimal small = new BigDecimal("0.1");
+        final BigDecimal large = new BigDecimal("0.10000000000000000001");
+
+        for (int i = 0; i < COUNT; i++) {
+            values.add(
+                ExpressionNumberKind.BIG_DECIMAL.create(
+                    random.nextBoolean() ?
+                        small :
+                        large
+                )
+            );
+        }
+
+        this.sortAndCheck(
+            values,
+            SpreadsheetComparators.number()
+        );
+    }
+
+    @Test
+    public void testSortNumbers() {
+        final Random random = new Random(5);
+        final List<Object> values = Lists.array();
+
+        for (int i = 0; i < COUNT; i++) {
+            values.add(
+                ExpressionNumberKind.DOUBLE.create(
+                    random.nextInt(50) - 25
+                )
+            );
+        }
+
+        this.sortAndCheck(
+            values,
+            SpreadsheetComparators.number()
+        );
+    }
+
+    @Test
+    public void testSortFallbackComparator() {
+        final Random random = new Random(6);
+        final List<Object> values = Lists.array();
+
+        for (int i = 0; i < COUNT; i++) {
+            values.add(
+                LocalDate.ofEpochDay(random.nextInt(1000))
+            );
+        }
+
+        this.sortAndCheck(
+            values,
+            SpreadsheetComparators.dayOfMonth()
+        );
+    }
+
+    @Test
+    public void testSortRowsNullRowsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorKeySort.sortRows(
+                null,
+                Lists.of(
+                    SpreadsheetComparators.date()
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testSortRowsNullComparatorsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorKeySort.sortRows(
+                Lists.empty(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSortRowsEmptyComparatorsFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetComparatorKeySort.sortRows(
+                Lists.empty(),
+                Lists.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testSortRowsDateThenTime() {
+        final Random random = new Random(7);
+        final List<List<?>> rows = Lists.array();
+
+        for (int i = 0; i < COUNT; i++) {
+            rows.add(
+                Lists.of(
+                    LocalDate.ofEpochDay(random.nextInt(10)),
+                    LocalTime.ofSecondOfDay(random.nextInt(100))
+                )
+            );
+        }
+
+        this.sortRowsAndCheck(
+            rows,
+            Lists.of(
+                SpreadsheetComparators.date(),
+                SpreadsheetComparators.time()
+            )
+        );
+    }
+
+    @Test
+    public void testSortRowsSingleColumn() {
+        final Random random = new Random(8);
+        final List<List<?>> rows = Lists.array();
+
+        for (int i = 0; i < COUNT; i++) {
+            rows.add(
+                Lists.of(
+                    LocalTime.ofSecondOfDay(random.nextInt(100)),
+                    i
+                )
+            );
+        }
+
+        this.sortRowsAndCheck(
+            rows,
+            Lists.of(
+                SpreadsheetComparators.time()
+            )
+        );
+    }
+
+    @Test
+    public void testSortRowsFallbackComparator() {
+        final Random random = new Random(9);
+        final List<List<?>> rows = Lists.array();
+
+        for (int i = 0; i < COUNT; i++) {
+            rows.add(
+                Lists.of(
+                    LocalDate.ofEpochDay(random.nextInt(1000)),
+                    LocalDate.ofEpochDay(random.nextInt(1000))
+                )
+            );
+        }
+
+        this.sortRowsAndCheck(
+            rows,
+            Lists.of(
+                SpreadsheetComparators.dayOfMonth(),
+                SpreadsheetComparators.date()
+            )
+        );
+    }
+
+    private void sortRowsAndCheck(final List<List<?>> rows,
+                                  final List<SpreadsheetComparator<?>> comparators) {
+        final Comparator<List<?>> rowComparator = SpreadsheetComparatorRowComparator.with(comparators);
+
+        final List<Integer> expected = Lists.array();
+        for (int i = 0; i < rows.size(); i++) {
+            expected.add(i);
+        }
+        // List.sort is stable
+        expected.sort(
+            (l, r) -> rowComparator.compare(
+                rows.get(l),
+                rows.get(r)
+            )
+        );
+
+        final List<Integer> actual = Lists.array();
+        for (final int index : SpreadsheetComparatorKeySort.sortRows(rows, comparators)) {
+            actual.add(index);
+        }
+
+        this.checkEquals(
+            expected,
+            actual,
+            comparators::toString
+        );
+    }
+
+    private void sortAndCheck(final List<Object> values,
+                              final SpreadsheetComparator<?> comparator) {
+        final Comparator<Object> objectComparator = Cast.to(comparator);
+
+        final List<Integer> expected = Lists.array();
+        for (int i = 0; i < values.size(); i++) {
+            expected.add(i);
+        }
+        // List.sort is stable
+        expected.sort(
+            (l, r) -> objectComparator.compare(
+                values.get(l),
+                values.get(r)
+            )
+        );
+
+        final List<Integer> actual = Lists.array();
+        for (final int index : SpreadsheetComparatorKeySort.sort(values, comparator)) {
+            actual.add(index);
+        }
+
+        this.checkEquals(
+            expected,
+            actual,
+            comparator::toString
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetComparatorKeySort> type() {
+        return SpreadsheetComparatorKeySort.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetComparatorParallelSortTest implements ClassTesting2<SpreadsheetComparatorParallelSort> {
+
+    private final static Comparator<List<?>> COMPARATOR = SpreadsheetComparatorRowComparator.with(
+        Lists.<SpreadsheetComparator<?>>of(
+            SpreadsheetComparators.date()
+        )
+    );
+
+    @Test
+    public void testSortNullRowsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorParallelSort.sort(
+                null,
+                COMPARATOR
+            )
+        );
+    }
+
+    @Test
+    public void testSortNullComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorParallelSort.sort(
+                Lists.empty(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSortEmpty() {
+        this.sortAndCheck(
+            rows(0)
+        );
+    }
+
+    @Test
+    public void testSortFew() {
+        this.sortAndCheck(
+            rows(10)
+        );
+    }
+
+    @Test
+    public void testSortParallel() {
+        this.sortAndCheck(
+            rows(100_000)
+        );
+    }
+
+    /**
+     * Rows hold a date with many duplicates followed by a unique time which is ignored by the comparator, so
+     * stability is verified by comparing against {@link List#sort(Comparator)}.
+     */
+    private static List<List<?>> rows(final int count) {
+        final Random random = new Random(count);
+        final List<List<?>> rows = Lists.array();
+
+        for (int i = 0; i < count; i++) {
+            rows.add(
+                Lists.of(
+                    LocalDate.ofEpochDay(random.nextInt(20)),
+                    LocalTime.ofNanoOfDay(i)
+                )
+            );
+        }
+
+        return rows;
+    }
+
+    private void sortAndCheck(final List<List<?>> rows) {
+        final List<List<?>> expected = Lists.array();
+        expected.addAll(rows);
+        expected.sort(COMPARATOR);
+
+        this.checkEquals(
+            expected,
+            SpreadsheetComparatorParallelSort.sort(
+                rows,
+                COMPARATOR
+            )
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetComparatorParallelSort> type() {
+        return SpreadsheetComparatorParallelSort.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviderTesting;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetComparatorProviderCacheTest implements SpreadsheetComparatorProviderTesting<SpreadsheetComparatorProviderCache>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetComparatorProviderCache>,
+    ToStringTesting<SpreadsheetComparatorProviderCache> {
+
+    private final static SpreadsheetComparatorProvider PROVIDER = SpreadsheetComparatorProviders.spreadsheetComparators();
+
+    private final static int MAX_SIZE = 10;
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderCache.with(
+                null,
+                MAX_SIZE
+            )
+        );
+    }
+
+    @Test
+    public void testWithInvalidMaxSizeFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetComparatorProviderCache.with(
+                PROVIDER,
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorName() {
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        this.spreadsheetComparatorAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            comparator.name(),
+            Lists.empty(),
+            PROVIDER_CONTEXT,
+            comparator
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorNameCached() {
+        final SpreadsheetComparatorProviderCache provider = this.createSpreadsheetComparatorProvider();
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        final SpreadsheetComparator<?> first = provider.spreadsheetComparator(
+            comparator.name(),
+            Lists.empty(),
+            PROVIDER_CONTEXT
+        );
+        assertSame(
+            first,
+            provider.spreadsheetComparator(
+                comparator.name(),
+                Lists.empty(),
+                PROVIDER_CONTEXT
+            )
+        );
+
+        this.checkEquals(1L, provider.hits(), "hits");
+        this.checkEquals(1L, provider.misses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetComparatorNameDifferentContextNotShared() {
+        final SpreadsheetComparatorProviderCache provider = this.createSpreadsheetComparatorProvider();
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        provider.spreadsheetComparator(
+            comparator.name(),
+            Lists.empty(),
+            PROVIDER_CONTEXT
+        );
+        provider.spreadsheetComparator(
+            comparator.name(),
+            Lists.empty(),
+            SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+        );
+
+        this.checkEquals(0L, provider.hits(), "hits");
+        this.checkEquals(2L, provider.misses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetComparatorSelector() {
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        this.checkEquals(
+            comparator,
+            this.createSpreadsheetComparatorProvider()
+                .spreadsheetComparator(
+                    SpreadsheetComparatorSelector.parse("date"),
+                    PROVIDER_CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorSelectorCached() {
+        final SpreadsheetComparatorProviderCache provider = this.createSpreadsheetComparatorProvider();
+
+        final SpreadsheetComparator<?> first = provider.spreadsheetComparator(
+            SpreadsheetComparatorSelector.parse("date"),
+            PROVIDER_CONTEXT
+        );
+        assertSame(
+            first,
+            provider.spreadsheetComparator(
+                SpreadsheetComparatorSelector.parse("date"),
+                PROVIDER_CONTEXT
+            )
+        );
+
+        this.checkEquals(1L, provider.hits(), "hits");
+        this.checkEquals(1L, provider.misses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetComparatorTextCached() {
+        final SpreadsheetComparatorProviderCache provider = this.createSpreadsheetComparatorProvider();
+
+        final SpreadsheetComparator<?> first = provider.spreadsheetComparator(
+            "date",
+            PROVIDER_CONTEXT
+        );
+        assertSame(
+            first,
+            provider.spreadsheetComparator(
+                SpreadsheetComparatorSelector.parse("date"),
+                PROVIDER_CONTEXT
+            )
+        );
+        assertSame(
+            first,
+            provider.spreadsheetComparator(
+                new String("date"),
+                PROVIDER_CONTEXT
+            )
+        );
+
+        this.checkEquals(2L, provider.hits(), "hits");
+        this.checkEquals(1L, provider.misses(), "misses");
+        this.checkEquals(1L, provider.selectors().hits(), "selector hits");
+        this.checkEquals(1L, provider.selectors().misses(), "selector misses");
+    }
+
+    @Test
+    public void testSpreadsheetComparatorInfos() {
+        this.spreadsheetComparatorInfosAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            PROVIDER.spreadsheetComparatorInfos()
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetComparatorProviderCache createSpreadsheetComparatorProvider() {
+        return SpreadsheetComparatorProviderCache.with(
+            PROVIDER,
+            MAX_SIZE
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetComparatorProviderCache> type() {
+        return SpreadsheetComparatorProviderCache.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviderTesting;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetComparatorProviderGuardedTest implements SpreadsheetComparatorProviderTesting<SpreadsheetComparatorProviderGuarded>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetComparatorProviderGuarded>,
+    ToStringTesting<SpreadsheetComparatorProviderGuarded> {
+
+    private final static SpreadsheetComparatorProvider PROVIDER = SpreadsheetComparatorProviders.spreadsheetComparators();
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderGuarded.with(
+                null,
+                bulkhead()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullBulkheadFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderGuarded.with(
+                PROVIDER,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorName() {
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        this.spreadsheetComparatorAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            comparator.name(),
+            Lists.empty(),
+            PROVIDER_CONTEXT,
+            comparator
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorUnknownFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createSpreadsheetComparatorProvider()
+                .spreadsheetComparator(
+                    SpreadsheetComparatorName.with("unknown"),
+                    Lists.empty(),
+                    PROVIDER_CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorSaturatedRejected() {
+        final SpreadsheetPluginProviderBulkhead bulkhead = SpreadsheetPluginProviderBulkhead.with(
+            PluginProviderName.with("Saturated123"),
+            1,
+            Duration.ofMillis(20),
+            (r) -> {
+                // never runs, so the first call times out and keeps its permit
+            }
+        );
+        final SpreadsheetComparatorProviderGuarded provider = SpreadsheetComparatorProviderGuarded.with(
+            PROVIDER,
+            bulkhead
+        );
+
+        assertThrows(
+            IllegalStateException.class,
+            provider::spreadsheetComparatorInfos
+        );
+        assertThrows(
+            RejectedExecutionException.class,
+            provider::spreadsheetComparatorInfos
+        );
+
+        this.checkEquals(
+            1L,
+            bulkhead.timeouts(),
+            "timeouts"
+        );
+        this.checkEquals(
+            1L,
+            bulkhead.rejections(),
+            "rejections"
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorInfos() {
+        this.spreadsheetComparatorInfosAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            PROVIDER.spreadsheetComparatorInfos()
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetComparatorProviderGuarded createSpreadsheetComparatorProvider() {
+        return SpreadsheetComparatorProviderGuarded.with(
+            PROVIDER,
+            bulkhead()
+        );
+    }
+
+    private static SpreadsheetPluginProviderBulkhead bulkhead() {
+        return SpreadsheetPluginProviderBulkhead.with(
+            PluginProviderName.with("Guarded123"),
+            2,
+            Duration.ofSeconds(10),
+            Runnable::run
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetComparatorProviderGuarded> type() {
+        return SpreadsheetComparatorProviderGuarded.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviderTesting;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetComparatorProviderInstrumentedTest implements SpreadsheetComparatorProviderTesting<SpreadsheetComparatorProviderInstrumented>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetComparatorProviderInstrumented>,
+    ToStringTesting<SpreadsheetComparatorProviderInstrumented> {
+
+    private final static SpreadsheetComparatorProvider PROVIDER = SpreadsheetComparatorProviders.spreadsheetComparators();
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderInstrumented.with(
+                null,
+                SpreadsheetPluginProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullMetricsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderInstrumented.with(
+                PROVIDER,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorName() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        this.spreadsheetComparatorAndCheck(
+            SpreadsheetComparatorProviderInstrumented.with(
+                PROVIDER,
+                metrics
+            ),
+            comparator.name(),
+            Lists.empty(),
+            PROVIDER_CONTEXT,
+            comparator
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.snapshot()
+                .get("spreadsheetComparator " + comparator.name())
+                .count(),
+            () -> metrics.toString()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorUnknownRecordsError() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetComparatorProviderInstrumented.with(
+                PROVIDER,
+                metrics
+            ).spreadsheetComparator(
+                SpreadsheetComparatorName.with("unknown"),
+                Lists.empty(),
+                PROVIDER_CONTEXT
+            )
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.snapshot()
+                .get("spreadsheetComparator unknown")
+                .errors(),
+            () -> metrics.toString()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorInfos() {
+        this.spreadsheetComparatorInfosAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            PROVIDER.spreadsheetComparatorInfos()
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetComparatorProviderInstrumented createSpreadsheetComparatorProvider() {
+        return SpreadsheetComparatorProviderInstrumented.with(
+            PROVIDER,
+            SpreadsheetPluginProviderMetrics.empty()
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetComparatorProviderInstrumented> type() {
+        return SpreadsheetComparatorProviderInstrumented.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
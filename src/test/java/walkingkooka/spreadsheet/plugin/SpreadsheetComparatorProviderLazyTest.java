@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviderTesting;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetComparatorProviderLazyTest implements SpreadsheetComparatorProviderTesting<SpreadsheetComparatorProviderLazy>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetComparatorProviderLazy>,
+    ToStringTesting<SpreadsheetComparatorProviderLazy> {
+
+    private final static SpreadsheetComparatorProvider PROVIDER = SpreadsheetComparatorProviders.spreadsheetComparators();
+
+    @Test
+    public void testWithNullSupplierFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderLazy.with(null)
+        );
+    }
+
+    @Test
+    public void testWithDoesNotInvokeSupplier() {
+        SpreadsheetComparatorProviderLazy.with(
+            () -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorName() {
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        this.spreadsheetComparatorAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            comparator.name(),
+            Lists.empty(),
+            PROVIDER_CONTEXT,
+            comparator
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorInfos() {
+        this.spreadsheetComparatorInfosAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            PROVIDER.spreadsheetComparatorInfos()
+        );
+    }
+
+    @Test
+    public void testSupplierInvokedOnce() {
+        final AtomicInteger counter = new AtomicInteger();
+        final SpreadsheetComparatorProviderLazy provider = SpreadsheetComparatorProviderLazy.with(
+            () -> {
+                counter.incrementAndGet();
+                return PROVIDER;
+            }
+        );
+
+        provider.spreadsheetComparatorInfos();
+        provider.spreadsheetComparatorInfos();
+
+        this.checkEquals(
+            1,
+            counter.get(),
+            "supplier invocations"
+        );
+    }
+
+    @Test
+    public void testToStringAfterCreate() {
+        final SpreadsheetComparatorProviderLazy provider = this.createSpreadsheetComparatorProvider();
+        provider.spreadsheetComparatorInfos();
+
+        this.toStringAndCheck(
+            provider,
+            PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetComparatorProviderLazy createSpreadsheetComparatorProvider() {
+        return SpreadsheetComparatorProviderLazy.with(
+            () -> PROVIDER
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetComparatorProviderLazy> type() {
+        return SpreadsheetComparatorProviderLazy.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -20,6 +20,7 @@ package walkingkooka.spreadsheet.plugin;
 import org.junit.jupiter.api.Test;
 import walkingkooka.ToStringTesting;
 import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.net.Url;
 import walkingkooka.plugin.PluginInfo;
@@ -38,9 +39,13 @@ import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviderTe
 import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
 import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
 import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
 
 import java.util.List;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class SpreadsheetComparatorProviderPluginProviderTest implements PluginProviderTesting<SpreadsheetComparatorProviderPluginProvider>,
@@ -140,6 +145,51 @@ public final class SpreadsheetComparatorProviderPluginProviderTest implements Pl
         );
     }
 
+    @Test
+    public void testSpreadsheetComparatorText() {
+        final SpreadsheetComparatorProviderPluginProvider provider = this.createPluginProvider();
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        for (int i = 0; i < 2; i++) {
+            this.checkEquals(
+                comparator,
+                provider.spreadsheetComparator(
+                    comparator.name()
+                        .value(),
+                    PROVIDER_CONTEXT
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testSpreadsheetComparatorTextUsesCacheSelectors() {
+        final SpreadsheetComparatorProviderCache cache = SpreadsheetComparatorProviderCache.with(
+            SPREADSHEET_COMPARATOR_PROVIDER,
+            16
+        );
+        final SpreadsheetComparatorProviderPluginProvider provider = SpreadsheetComparatorProviderPluginProvider.with(
+            cache,
+            NAME,
+            URL
+        );
+        final String text = SpreadsheetComparators.date()
+            .name()
+            .value();
+
+        provider.spreadsheetComparator(
+            text,
+            PROVIDER_CONTEXT
+        );
+        provider.spreadsheetComparator(
+            text,
+            PROVIDER_CONTEXT
+        );
+
+        this.checkEquals(1L, cache.selectors().misses(), "misses");
+        this.checkEquals(1L, cache.selectors().hits(), "hits");
+    }
+
     @Test
     public void testSpreadsheetComparatorInfos() {
         this.spreadsheetComparatorInfosAndCheck(
@@ -158,6 +208,125 @@ public final class SpreadsheetComparatorProviderPluginProviderTest implements Pl
         );
     }
 
+    @Test
+    public void testPluginInfosCached() {
+        final SpreadsheetComparatorProviderPluginProvider provider = this.createPluginProvider();
+
+        assertSame(
+            provider.pluginInfos(),
+            provider.pluginInfos()
+        );
+    }
+
+    @Test
+    public void testPluginInfosSince() {
+        final SpreadsheetComparatorProviderPluginProvider provider = this.createPluginProvider();
+        final SpreadsheetPluginInfosDelta delta = provider.pluginInfosSince(0);
+
+        this.checkEquals(
+            SpreadsheetPluginInfosDelta.resync(
+                delta.version(),
+                provider.pluginInfos()
+            ),
+            delta
+        );
+    }
+
+    @Test
+    public void testPluginInfosSinceCurrentVersion() {
+        final SpreadsheetComparatorProviderPluginProvider provider = this.createPluginProvider();
+        final long version = provider.pluginInfosSince(0)
+            .version();
+
+        this.checkEquals(
+            true,
+            provider.pluginInfosSince(version)
+                .isEmpty()
+        );
+    }
+
+    @Test
+    public void testPluginInfosSinceUnknownVersionResync() {
+        final SpreadsheetComparatorProviderPluginProvider provider = this.createPluginProvider();
+        final long version = provider.pluginInfosSince(0)
+            .version();
+
+        this.checkEquals(
+            SpreadsheetPluginInfosDelta.resync(
+                version,
+                provider.pluginInfos()
+            ),
+            provider.pluginInfosSince(999)
+        );
+    }
+
+    @Test
+    public void testPluginInfosSinceOtherInstanceVersionResync() {
+        final long version = this.createPluginProvider()
+            .pluginInfosSince(0)
+            .version();
+
+        this.checkEquals(
+            true,
+            this.createPluginProvider()
+                .pluginInfosSince(version)
+                .isResync()
+        );
+    }
+
+    @Test
+    public void testPluginInfosInternedAcrossWrappers() {
+        final Set<PluginInfo> infos = this.createPluginProvider()
+            .pluginInfos();
+        final Set<PluginInfo> other = this.createPluginProvider()
+            .pluginInfos();
+
+        for (final PluginInfo info : infos) {
+            assertSame(
+                info,
+                other.stream()
+                    .filter(info::equals)
+                    .findFirst()
+                    .orElse(null),
+                info::toString
+            );
+        }
+    }
+
+    @Test
+    public void testPluginInfosJsonCached() {
+        final SpreadsheetComparatorProviderPluginProvider provider = this.createPluginProvider();
+        final JsonNodeMarshallContext context = JsonNodeMarshallContexts.basic();
+
+        final SpreadsheetPluginJsonPayload payload = provider.pluginInfosJson(context);
+        this.checkEquals(
+            context.marshallCollection(provider.pluginInfos())
+                .toString(),
+            payload.toString()
+        );
+        assertSame(
+            payload,
+            provider.pluginInfosJson(context)
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorInfosJsonCached() {
+        final SpreadsheetComparatorProviderPluginProvider provider = this.createPluginProvider();
+        final JsonNodeMarshallContext context = JsonNodeMarshallContexts.basic();
+
+        final SpreadsheetPluginJsonPayload payload = provider.spreadsheetComparatorInfosJson(context);
+        this.checkEquals(
+            context.marshall(provider.spreadsheetComparatorInfos())
+                .toString(),
+            payload.toString()
+        );
+        assertSame(
+            payload,
+            provider.spreadsheetComparatorInfosJson(context)
+        );
+    }
+
     @Test
     public void testToString() {
         this.toStringAndCheck(
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviderTesting;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetComparatorProviderReloadableTest implements SpreadsheetComparatorProviderTesting<SpreadsheetComparatorProviderReloadable>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetComparatorProviderReloadable>,
+    ToStringTesting<SpreadsheetComparatorProviderReloadable> {
+
+    private final static SpreadsheetComparatorProvider PROVIDER = SpreadsheetComparatorProviders.spreadsheetComparators();
+
+    /**
+     * A provider without any comparators.
+     */
+    private final static SpreadsheetComparatorProvider EMPTY = new SpreadsheetComparatorProvider() {
+        @Override
+        public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                              final ProviderContext context) {
+            throw new IllegalArgumentException("Unknown comparator " + selector.name());
+        }
+
+        @Override
+        public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                              final List<?> values,
+                                                              final ProviderContext context) {
+            throw new IllegalArgumentException("Unknown comparator " + name);
+        }
+
+        @Override
+        public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+            return SpreadsheetComparatorInfoSet.with(Sets.empty());
+        }
+
+        @Override
+        public String toString() {
+            return "Empty";
+        }
+    };
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderReloadable.with(
+                null,
+                (p) -> p
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullDecoratorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderReloadable.with(
+                PROVIDER,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testWithDecoratorReturnsNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorProviderReloadable.with(
+                PROVIDER,
+                (p) -> null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorName() {
+        final SpreadsheetComparator<?> comparator = SpreadsheetComparators.date();
+
+        this.spreadsheetComparatorAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            comparator.name(),
+            Lists.empty(),
+            PROVIDER_CONTEXT,
+            comparator
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorInfos() {
+        this.spreadsheetComparatorInfosAndCheck(
+            this.createSpreadsheetComparatorProvider(),
+            PROVIDER.spreadsheetComparatorInfos()
+        );
+    }
+
+    @Test
+    public void testReloadNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createSpreadsheetComparatorProvider()
+                .reload(null)
+        );
+    }
+
+    @Test
+    public void testReload() {
+        final SpreadsheetComparatorProviderReloadable reloadable = this.createSpreadsheetComparatorProvider();
+
+        assertSame(
+            PROVIDER,
+            reloadable.reload(EMPTY)
+        );
+        assertSame(
+            EMPTY,
+            reloadable.provider()
+        );
+
+        this.spreadsheetComparatorInfosAndCheck(
+            reloadable,
+            EMPTY.spreadsheetComparatorInfos()
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> reloadable.spreadsheetComparator(
+                SpreadsheetComparators.date()
+                    .name(),
+                Lists.empty(),
+                PROVIDER_CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testReloadDecoratesWithNewCache() {
+        final AtomicInteger decorated = new AtomicInteger();
+        final SpreadsheetComparatorProviderReloadable reloadable = SpreadsheetComparatorProviderReloadable.with(
+            PROVIDER,
+            (p) -> {
+                decorated.incrementAndGet();
+                return SpreadsheetComparatorProviderCache.with(
+                    p,
+                    16
+                );
+            }
+        );
+
+        reloadable.spreadsheetComparator(
+            SpreadsheetComparators.date()
+                .name(),
+            Lists.empty(),
+            PROVIDER_CONTEXT
+        );
+        reloadable.reload(EMPTY);
+
+        this.checkEquals(
+            2,
+            decorated.get(),
+            "decorated"
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> reloadable.spreadsheetComparator(
+                SpreadsheetComparators.date()
+                    .name(),
+                Lists.empty(),
+                PROVIDER_CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testReloadPluginProviderPluginInfos() {
+        final SpreadsheetComparatorProviderReloadable reloadable = this.createSpreadsheetComparatorProvider();
+        final SpreadsheetComparatorProviderPluginProvider pluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+            reloadable,
+            PluginProviderName.with("Reloadable123"),
+            Url.parseAbsolute("https://example.com/reloadable123")
+        );
+
+        this.checkEquals(
+            PROVIDER.spreadsheetComparatorInfos()
+                .size(),
+            pluginProvider.pluginInfos()
+                .size(),
+            "before reload"
+        );
+
+        reloadable.reload(EMPTY);
+
+        this.checkEquals(
+            Sets.empty(),
+            pluginProvider.pluginInfos(),
+            "after reload"
+        );
+    }
+
+    @Test
+    public void testAddReloadListenerWithNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createSpreadsheetComparatorProvider()
+                .addReloadListener(null)
+        );
+    }
+
+    @Test
+    public void testReloadRunsListener() {
+        final SpreadsheetComparatorProviderReloadable reloadable = this.createSpreadsheetComparatorProvider();
+        final List<SpreadsheetComparatorProvider> providers = Lists.array();
+
+        final Runnable remover = reloadable.addReloadListener(
+            () -> providers.add(reloadable.provider())
+        );
+
+        reloadable.reload(EMPTY);
+        this.checkEquals(
+            Lists.of(EMPTY),
+            providers,
+            "listener sees reloaded provider"
+        );
+
+        remover.run();
+
+        reloadable.reload(PROVIDER);
+        this.checkEquals(
+            Lists.of(EMPTY),
+            providers,
+            "removed listener not run"
+        );
+    }
+
+    @Test
+    public void testReloadListenerRebuildsCollection() {
+        final SpreadsheetComparatorProviderReloadable reloadable = this.createSpreadsheetComparatorProvider();
+        final SpreadsheetComparatorProviderPluginProvider pluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+            reloadable,
+            PluginProviderName.with("Reloadable123"),
+            Url.parseAbsolute("https://example.com/reloadable123")
+        );
+
+        final AtomicReference<SpreadsheetPluginProviderCollection> collection = new AtomicReference<>(
+            collection(pluginProvider)
+        );
+        final SpreadsheetPluginProviderCollection before = collection.get();
+
+        reloadable.addReloadListener(
+            () -> collection.set(
+                collection(pluginProvider)
+            )
+        );
+
+        reloadable.reload(EMPTY);
+
+        this.checkEquals(
+            PROVIDER.spreadsheetComparatorInfos()
+                .size(),
+            before.spreadsheetComparatorInfos()
+                .size(),
+            "indices of collection built before reload"
+        );
+        this.checkEquals(
+            Sets.empty(),
+            collection.get()
+                .spreadsheetComparatorInfos(),
+            "indices of collection rebuilt by listener"
+        );
+    }
+
+    private static SpreadsheetPluginProviderCollection collection(final SpreadsheetComparatorProviderPluginProvider provider) {
+        return SpreadsheetPluginProviderCollection.with(
+            PluginProviderName.with("Collection123"),
+            Url.parseAbsolute("https://example.com/collection123"),
+            Sets.of(provider)
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final SpreadsheetComparatorProviderReloadable reloadable = this.createSpreadsheetComparatorProvider();
+        reloadable.reload(EMPTY);
+
+        this.toStringAndCheck(
+            reloadable,
+            "Empty"
+        );
+    }
+
+    @Override
+    public SpreadsheetComparatorProviderReloadable createSpreadsheetComparatorProvider() {
+        return SpreadsheetComparatorProviderReloadable.with(
+            PROVIDER,
+            (p) -> p
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetComparatorProviderReloadable> type() {
+        return SpreadsheetComparatorProviderReloadable.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetComparatorRowComparatorTest implements ClassTesting2<SpreadsheetComparatorRowComparator>,
+    SpreadsheetMetadataTesting,
+    ToStringTesting<SpreadsheetComparatorRowComparator> {
+
+    private final static LocalDate DATE1 = LocalDate.of(2000, 1, 1);
+    private final static LocalDate DATE2 = LocalDate.of(2000, 12, 31);
+
+    private final static LocalTime TIME1 = LocalTime.of(1, 2, 3);
+    private final static LocalTime TIME2 = LocalTime.of(12, 58, 59);
+
+    @Test
+    public void testCompareFirstColumnLess() {
+        this.compareAndCheck(
+            Lists.of(DATE1, TIME2),
+            Lists.of(DATE2, TIME1),
+            -1
+        );
+    }
+
+    @Test
+    public void testCompareFirstColumnGreater() {
+        this.compareAndCheck(
+            Lists.of(DATE2, TIME1),
+            Lists.of(DATE1, TIME2),
+            1
+        );
+    }
+
+    @Test
+    public void testCompareFirstColumnEqualSecondColumnLess() {
+        this.compareAndCheck(
+            Lists.of(DATE1, TIME1),
+            Lists.of(DATE1, TIME2),
+            -1
+        );
+    }
+
+    @Test
+    public void testCompareAllColumnsEqual() {
+        this.compareAndCheck(
+            Lists.of(DATE1, TIME1),
+            Lists.of(DATE1, TIME1),
+            0
+        );
+    }
+
+    private void compareAndCheck(final List<?> left,
+                                 final List<?> right,
+                                 final int expected) {
+        this.checkEquals(
+            expected,
+            Integer.signum(
+                this.createComparator()
+                    .compare(left, right)
+            ),
+            () -> left + " compare " + right
+        );
+    }
+
+    @Test
+    public void testResolveNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetComparatorRowComparator.resolve(
+                null,
+                Lists.empty(),
+                PROVIDER_CONTEXT
+            )
+        );
+    }
+
+    @Test
+    public void testResolve() {
+        final SpreadsheetComparatorRowComparator comparator = SpreadsheetComparatorRowComparator.resolve(
+            SpreadsheetComparatorProviders.spreadsheetComparators(),
+            Lists.of(
+                SpreadsheetComparatorSelector.parse("date"),
+                SpreadsheetComparatorSelector.parse("time")
+            ),
+            PROVIDER_CONTEXT
+        );
+
+        this.checkEquals(
+            -1,
+            Integer.signum(
+                comparator.compare(
+                    Lists.of(DATE1, TIME1),
+                    Lists.of(DATE1, TIME2)
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testResolveDuplicateSelectorResolvedOnce() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+
+        SpreadsheetComparatorRowComparator.resolve(
+            SpreadsheetComparatorProviderInstrumented.with(
+                SpreadsheetComparatorProviders.spreadsheetComparators(),
+                metrics
+            ),
+            Lists.of(
+                SpreadsheetComparatorSelector.parse("date"),
+                SpreadsheetComparatorSelector.parse("date")
+            ),
+            PROVIDER_CONTEXT
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.snapshot()
+                .get("spreadsheetComparator date")
+                .count(),
+            metrics::toString
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createComparator(),
+            "[" + SpreadsheetComparators.date() + ", " + SpreadsheetComparators.time() + "]"
+        );
+    }
+
+    private SpreadsheetComparatorRowComparator createComparator() {
+        return SpreadsheetComparatorRowComparator.with(
+            Lists.<SpreadsheetComparator<?>>of(
+                SpreadsheetComparators.date(),
+                SpreadsheetComparators.time()
+            )
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetComparatorRowComparator> type() {
+        return SpreadsheetComparatorRowComparator.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
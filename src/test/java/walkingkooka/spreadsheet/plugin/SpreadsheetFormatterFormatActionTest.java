@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+import walkingkooka.tree.text.TextNode;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetFormatterFormatActionTest implements ClassTesting2<SpreadsheetFormatterFormatAction>,
+    SpreadsheetMetadataTesting {
+
+    private final static SpreadsheetFormatter FORMATTER = SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+        SpreadsheetFormatterSelector.parse("text @@"),
+        PROVIDER_CONTEXT
+    );
+
+    @Test
+    public void testFormatNullFormatterFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterFormatAction.format(
+                null,
+                Lists.empty(),
+                () -> SPREADSHEET_FORMATTER_CONTEXT,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testFormatNullValuesFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterFormatAction.format(
+                FORMATTER,
+                null,
+                () -> SPREADSHEET_FORMATTER_CONTEXT,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testFormatNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterFormatAction.format(
+                FORMATTER,
+                Lists.empty(),
+                null,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testFormatNullPoolFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterFormatAction.format(
+                FORMATTER,
+                Lists.empty(),
+                () -> SPREADSHEET_FORMATTER_CONTEXT,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testFormatEmpty() {
+        this.formatAndCheck(
+            0,
+            1
+        );
+    }
+
+    @Test
+    public void testFormatThreshold() {
+        this.formatAndCheck(
+            SpreadsheetFormatterFormatAction.THRESHOLD,
+            1
+        );
+    }
+
+    @Test
+    public void testFormatSplit() {
+        this.formatAndCheck(
+            SpreadsheetFormatterFormatAction.THRESHOLD + 1,
+            2
+        );
+    }
+
+    @Test
+    public void testFormatSplitSeveralTimes() {
+        this.formatAndCheck(
+            SpreadsheetFormatterFormatAction.THRESHOLD * 3 + 1,
+            4
+        );
+    }
+
+    private void formatAndCheck(final int count,
+                                final int contextCount) {
+        final List<Object> values = Lists.array();
+        final List<Optional<TextNode>> expected = Lists.array();
+
+        for (int i = 0; i < count; i++) {
+            final String value = "value-" + i;
+            values.add(value);
+            expected.add(
+                FORMATTER.format(
+                    value,
+                    SPREADSHEET_FORMATTER_CONTEXT
+                )
+            );
+        }
+
+        final AtomicInteger contexts = new AtomicInteger();
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            this.checkEquals(
+                expected,
+                SpreadsheetFormatterFormatAction.format(
+                    FORMATTER,
+                    values,
+                    () -> {
+                        contexts.incrementAndGet();
+                        return SPREADSHEET_FORMATTER_CONTEXT;
+                    },
+                    pool
+                )
+            );
+        } finally {
+            pool.shutdown();
+        }
+
+        this.checkEquals(
+            contextCount,
+            contexts.get(),
+            "one context for each chunk"
+        );
+    }
+
+    @Test
+    public void testFormatFormatterThrows() {
+        final SpreadsheetFormatter formatter = (SpreadsheetFormatter) Proxy.newProxyInstance(
+            SpreadsheetFormatter.class.getClassLoader(),
+            new Class<?>[]{SpreadsheetFormatter.class},
+            (proxy, method, args) -> {
+                if ("toString".equals(method.getName())) {
+                    return "Throwing";
+                }
+                throw new IllegalStateException("Formatter failed");
+            }
+        );
+
+        final List<Object> values = Lists.array();
+        for (int i = 0; i < SpreadsheetFormatterFormatAction.THRESHOLD * 2; i++) {
+            values.add("value-" + i);
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertThrows(
+                IllegalStateException.class,
+                () -> SpreadsheetFormatterFormatAction.format(
+                    formatter,
+                    values,
+                    () -> SPREADSHEET_FORMATTER_CONTEXT,
+                    pool
+                )
+            );
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFormatContextSupplierReturnsNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterFormatAction.format(
+                FORMATTER,
+                Lists.of("value"),
+                () -> null,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetFormatterFormatAction> type() {
+        return SpreadsheetFormatterFormatAction.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.pattern.SpreadsheetPattern;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderTesting;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetFormatterProviderCacheTest implements SpreadsheetFormatterProviderTesting<SpreadsheetFormatterProviderCache>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetFormatterProviderCache>,
+    ToStringTesting<SpreadsheetFormatterProviderCache> {
+
+    private final static int MAX_SIZE = 10;
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderCache.with(
+                null,
+                MAX_SIZE
+            )
+        );
+    }
+
+    @Test
+    public void testWithInvalidMaxSizeFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetFormatterProviderCache.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelector() {
+        this.spreadsheetFormatterAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SpreadsheetFormatterSelector.parse("text @@"),
+            PROVIDER_CONTEXT,
+            SpreadsheetPattern.parseTextFormatPattern("@@")
+                .formatter()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelectorCached() {
+        final SpreadsheetFormatterProviderCache provider = this.createSpreadsheetFormatterProvider();
+        final SpreadsheetFormatterSelector selector = SpreadsheetFormatterSelector.parse("text @@");
+
+        final SpreadsheetFormatter formatter = provider.spreadsheetFormatter(
+            selector,
+            PROVIDER_CONTEXT
+        );
+        assertSame(
+            formatter,
+            provider.spreadsheetFormatter(
+                SpreadsheetFormatterSelector.parse("text @@"),
+                PROVIDER_CONTEXT
+            )
+        );
+
+        this.checkEquals(1L, provider.hits(), "hits");
+        this.checkEquals(1L, provider.misses(), "misses");
+    }
+
+    @Test
+    public void testWithNullSelectorsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderCache.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                MAX_SIZE,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterTextCached() {
+        final SpreadsheetFormatterProviderCache provider = this.createSpreadsheetFormatterProvider();
+
+        final SpreadsheetFormatter formatter = provider.spreadsheetFormatter(
+            "text @@",
+            PROVIDER_CONTEXT
+        );
+        assertSame(
+            formatter,
+            provider.spreadsheetFormatter(
+                SpreadsheetFormatterSelector.parse("text @@"),
+                PROVIDER_CONTEXT
+            )
+        );
+        assertSame(
+            formatter,
+            provider.spreadsheetFormatter(
+                new String("text @@"),
+                PROVIDER_CONTEXT
+            )
+        );
+
+        this.checkEquals(2L, provider.hits(), "hits");
+        this.checkEquals(1L, provider.misses(), "misses");
+        this.checkEquals(1L, provider.selectors().hits(), "selector hits");
+        this.checkEquals(1L, provider.selectors().misses(), "selector misses");
+    }
+
+    @Test
+    public void testSpreadsheetFormatterTextSharedSelectors() {
+        final SpreadsheetPluginSelectorCache selectors = SpreadsheetPluginSelectorCache.with(MAX_SIZE);
+
+        SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            MAX_SIZE,
+            selectors
+        ).spreadsheetFormatter(
+            "text @@",
+            PROVIDER_CONTEXT
+        );
+
+        final SpreadsheetFormatterProviderCache provider = SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            MAX_SIZE,
+            selectors
+        );
+        provider.spreadsheetFormatter(
+            "text @@",
+            PROVIDER_CONTEXT
+        );
+
+        assertSame(
+            selectors,
+            provider.selectors()
+        );
+        this.checkEquals(1L, selectors.hits(), "selector hits");
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelectorDifferentContextNotShared() {
+        final SpreadsheetFormatterProviderCache provider = this.createSpreadsheetFormatterProvider();
+        final SpreadsheetFormatterSelector selector = SpreadsheetFormatterSelector.parse("text @@");
+
+        provider.spreadsheetFormatter(
+            selector,
+            PROVIDER_CONTEXT
+        );
+        provider.spreadsheetFormatter(
+            selector,
+            SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+        );
+
+        this.checkEquals(0L, provider.hits(), "hits");
+        this.checkEquals(2L, provider.misses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetFormatterNextToken() {
+        final SpreadsheetFormatterSelector selector = SpreadsheetFormatterSelector.parse("date dd/mm");
+
+        this.checkEquals(
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterNextToken(selector),
+            this.createSpreadsheetFormatterProvider()
+                .spreadsheetFormatterNextToken(selector)
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterNextTokenCached() {
+        final SpreadsheetFormatterProviderCache provider = this.createSpreadsheetFormatterProvider();
+
+        final Optional<SpreadsheetFormatterSelectorToken> token = provider.spreadsheetFormatterNextToken(
+            SpreadsheetFormatterSelector.parse("date dd/mm")
+        );
+        provider.spreadsheetFormatterNextToken(
+            SpreadsheetFormatterSelector.parse("date dd/mm/")
+        );
+        assertSame(
+            token,
+            provider.spreadsheetFormatterNextToken(
+                SpreadsheetFormatterSelector.parse("date dd/mm")
+            )
+        );
+
+        this.checkEquals(1L, provider.nextTokenHits(), "hits");
+        this.checkEquals(2L, provider.nextTokenMisses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSamples() {
+        final SpreadsheetFormatterSelector selector = SpreadsheetFormatterSelector.parse("date dd/mm/yyyy");
+
+        this.checkEquals(
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterSamples(
+                selector,
+                true, // includeSamples
+                SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+            ),
+            this.createSpreadsheetFormatterProvider()
+                .spreadsheetFormatterSamples(
+                    selector,
+                    true, // includeSamples
+                    SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSamplesCached() {
+        final SpreadsheetFormatterProviderCache provider = this.createSpreadsheetFormatterProvider();
+        final SpreadsheetFormatterSelector selector = SpreadsheetFormatterSelector.parse("date dd/mm/yyyy");
+
+        final List<SpreadsheetFormatterSample> samples = provider.spreadsheetFormatterSamples(
+            selector,
+            true, // includeSamples
+            SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+        );
+        assertSame(
+            samples,
+            provider.spreadsheetFormatterSamples(
+                selector,
+                true, // includeSamples
+                SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+            )
+        );
+
+        this.checkEquals(1L, provider.samplesHits(), "hits");
+        this.checkEquals(1L, provider.samplesMisses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSamplesIncludeSamplesDifferentKey() {
+        final SpreadsheetFormatterProviderCache provider = this.createSpreadsheetFormatterProvider();
+        final SpreadsheetFormatterSelector selector = SpreadsheetFormatterSelector.parse("date dd/mm/yyyy");
+
+        provider.spreadsheetFormatterSamples(
+            selector,
+            true, // includeSamples
+            SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+        );
+        provider.spreadsheetFormatterSamples(
+            selector,
+            false, // includeSamples
+            SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+        );
+
+        this.checkEquals(0L, provider.samplesHits(), "hits");
+        this.checkEquals(2L, provider.samplesMisses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetFormatterInfos() {
+        this.spreadsheetFormatterInfosAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterInfos()
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SPREADSHEET_FORMATTER_PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatterProviderCache createSpreadsheetFormatterProvider() {
+        return SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            MAX_SIZE
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetFormatterProviderCache> type() {
+        return SpreadsheetFormatterProviderCache.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
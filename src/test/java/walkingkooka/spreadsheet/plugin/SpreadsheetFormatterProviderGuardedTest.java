@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.format.pattern.SpreadsheetPattern;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderTesting;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetFormatterProviderGuardedTest implements SpreadsheetFormatterProviderTesting<SpreadsheetFormatterProviderGuarded>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetFormatterProviderGuarded>,
+    ToStringTesting<SpreadsheetFormatterProviderGuarded> {
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderGuarded.with(
+                null,
+                bulkhead()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullBulkheadFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderGuarded.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelector() {
+        this.spreadsheetFormatterAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SpreadsheetFormatterSelector.parse("text @@"),
+            PROVIDER_CONTEXT,
+            SpreadsheetPattern.parseTextFormatPattern("@@")
+                .formatter()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSaturatedRejected() {
+        final SpreadsheetPluginProviderBulkhead bulkhead = SpreadsheetPluginProviderBulkhead.with(
+            PluginProviderName.with("Saturated123"),
+            1,
+            Duration.ofMillis(20),
+            (r) -> {
+                // never runs, so the first call times out and keeps its permit
+            }
+        );
+        final SpreadsheetFormatterProviderGuarded provider = SpreadsheetFormatterProviderGuarded.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            bulkhead
+        );
+        final SpreadsheetFormatterSelector selector = SpreadsheetFormatterSelector.parse("text @@");
+
+        assertThrows(
+            IllegalStateException.class,
+            () -> provider.spreadsheetFormatter(
+                selector,
+                PROVIDER_CONTEXT
+            )
+        );
+        assertThrows(
+            RejectedExecutionException.class,
+            () -> provider.spreadsheetFormatter(
+                selector,
+                PROVIDER_CONTEXT
+            )
+        );
+
+        this.checkEquals(
+            1L,
+            bulkhead.timeouts(),
+            "timeouts"
+        );
+        this.checkEquals(
+            1L,
+            bulkhead.rejections(),
+            "rejections"
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterInfos() {
+        this.spreadsheetFormatterInfosAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterInfos()
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SPREADSHEET_FORMATTER_PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatterProviderGuarded createSpreadsheetFormatterProvider() {
+        return SpreadsheetFormatterProviderGuarded.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            bulkhead()
+        );
+    }
+
+    private static SpreadsheetPluginProviderBulkhead bulkhead() {
+        return SpreadsheetPluginProviderBulkhead.with(
+            PluginProviderName.with("Guarded123"),
+            2,
+            Duration.ofSeconds(10),
+            Runnable::run
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetFormatterProviderGuarded> type() {
+        return SpreadsheetFormatterProviderGuarded.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
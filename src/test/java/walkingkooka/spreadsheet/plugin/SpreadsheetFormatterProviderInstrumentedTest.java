@@ -0,0 +1,154 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.format.pattern.SpreadsheetPattern;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderTesting;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetFormatterProviderInstrumentedTest implements SpreadsheetFormatterProviderTesting<SpreadsheetFormatterProviderInstrumented>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetFormatterProviderInstrumented>,
+    ToStringTesting<SpreadsheetFormatterProviderInstrumented> {
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderInstrumented.with(
+                null,
+                SpreadsheetPluginProviderMetrics.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullMetricsFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderInstrumented.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelector() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+
+        this.spreadsheetFormatterAndCheck(
+            SpreadsheetFormatterProviderInstrumented.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                metrics
+            ),
+            SpreadsheetFormatterSelector.parse("text @@"),
+            PROVIDER_CONTEXT,
+            SpreadsheetPattern.parseTextFormatPattern("@@")
+                .formatter()
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.snapshot()
+                .get("spreadsheetFormatter text")
+                .count(),
+            () -> metrics.toString()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterUnknownRecordsError() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetFormatterProviderInstrumented.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                metrics
+            ).spreadsheetFormatter(
+                SpreadsheetFormatterSelector.parse("unknown"),
+                PROVIDER_CONTEXT
+            )
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.snapshot()
+                .get("spreadsheetFormatter unknown")
+                .errors(),
+            () -> metrics.toString()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterInfos() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+
+        this.spreadsheetFormatterInfosAndCheck(
+            SpreadsheetFormatterProviderInstrumented.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                metrics
+            ),
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterInfos()
+        );
+
+        this.checkEquals(
+            1L,
+            metrics.snapshot()
+                .get("spreadsheetFormatterInfos")
+                .count(),
+            () -> metrics.toString()
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SPREADSHEET_FORMATTER_PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatterProviderInstrumented createSpreadsheetFormatterProvider() {
+        return SpreadsheetFormatterProviderInstrumented.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            SpreadsheetPluginProviderMetrics.empty()
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetFormatterProviderInstrumented> type() {
+        return SpreadsheetFormatterProviderInstrumented.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.format.pattern.SpreadsheetPattern;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderTesting;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetFormatterProviderLazyTest implements SpreadsheetFormatterProviderTesting<SpreadsheetFormatterProviderLazy>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetFormatterProviderLazy>,
+    ToStringTesting<SpreadsheetFormatterProviderLazy> {
+
+    @Test
+    public void testWithNullSupplierFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderLazy.with(null)
+        );
+    }
+
+    @Test
+    public void testWithDoesNotInvokeSupplier() {
+        SpreadsheetFormatterProviderLazy.with(
+            () -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+    }
+
+    @Test
+    public void testSupplierReturnsNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderLazy.with(() -> null)
+                .spreadsheetFormatterInfos()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelector() {
+        this.spreadsheetFormatterAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SpreadsheetFormatterSelector.parse("text @@"),
+            PROVIDER_CONTEXT,
+            SpreadsheetPattern.parseTextFormatPattern("@@")
+                .formatter()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterInfos() {
+        this.spreadsheetFormatterInfosAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterInfos()
+        );
+    }
+
+    @Test
+    public void testSupplierInvokedOnce() {
+        final AtomicInteger counter = new AtomicInteger();
+        final SpreadsheetFormatterProviderLazy provider = SpreadsheetFormatterProviderLazy.with(
+            () -> {
+                counter.incrementAndGet();
+                return SPREADSHEET_FORMATTER_PROVIDER;
+            }
+        );
+
+        provider.spreadsheetFormatterInfos();
+        provider.spreadsheetFormatterInfos();
+
+        this.checkEquals(
+            1,
+            counter.get(),
+            "supplier invocations"
+        );
+    }
+
+    @Test
+    public void testToStringBeforeCreate() {
+        final Supplier<SpreadsheetFormatterProvider> supplier = new Supplier<>() {
+            @Override
+            public SpreadsheetFormatterProvider get() {
+                return SPREADSHEET_FORMATTER_PROVIDER;
+            }
+
+            @Override
+            public String toString() {
+                return "Supplier123";
+            }
+        };
+
+        this.toStringAndCheck(
+            SpreadsheetFormatterProviderLazy.with(supplier),
+            "Supplier123"
+        );
+    }
+
+    @Test
+    public void testToStringAfterCreate() {
+        final SpreadsheetFormatterProviderLazy provider = this.createSpreadsheetFormatterProvider();
+        provider.spreadsheetFormatterInfos();
+
+        this.toStringAndCheck(
+            provider,
+            SPREADSHEET_FORMATTER_PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatterProviderLazy createSpreadsheetFormatterProvider() {
+        return SpreadsheetFormatterProviderLazy.with(
+            () -> SPREADSHEET_FORMATTER_PROVIDER
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetFormatterProviderLazy> type() {
+        return SpreadsheetFormatterProviderLazy.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
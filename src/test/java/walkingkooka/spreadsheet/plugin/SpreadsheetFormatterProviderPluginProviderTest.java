@@ -19,6 +19,7 @@ package walkingkooka.spreadsheet.plugin;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.ToStringTesting;
+import walkingkooka.collect.set.Sets;
 import walkingkooka.net.AbsoluteUrl;
 import walkingkooka.net.Url;
 import walkingkooka.plugin.PluginInfo;
@@ -39,10 +40,14 @@ import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
 import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
 import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class SpreadsheetFormatterProviderPluginProviderTest implements PluginProviderTesting<SpreadsheetFormatterProviderPluginProvider>,
@@ -155,6 +160,47 @@ public final class SpreadsheetFormatterProviderPluginProviderTest implements Plu
         );
     }
 
+    @Test
+    public void testSpreadsheetFormatterText() {
+        final SpreadsheetFormatterProviderPluginProvider provider = this.createPluginProvider();
+
+        for (int i = 0; i < 2; i++) {
+            this.checkEquals(
+                SpreadsheetPattern.parseTextFormatPattern("@@")
+                    .formatter(),
+                provider.spreadsheetFormatter(
+                    "text @@",
+                    PROVIDER_CONTEXT
+                )
+            );
+        }
+    }
+
+    @Test
+    public void testSpreadsheetFormatterTextUsesCacheSelectors() {
+        final SpreadsheetFormatterProviderCache cache = SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            16
+        );
+        final SpreadsheetFormatterProviderPluginProvider provider = SpreadsheetFormatterProviderPluginProvider.with(
+            cache,
+            NAME,
+            URL
+        );
+
+        provider.spreadsheetFormatter(
+            "text @@",
+            PROVIDER_CONTEXT
+        );
+        provider.spreadsheetFormatter(
+            "text @@",
+            PROVIDER_CONTEXT
+        );
+
+        this.checkEquals(1L, cache.selectors().misses(), "misses");
+        this.checkEquals(1L, cache.selectors().hits(), "hits");
+    }
+
     @Test
     public void testSpreadsheetFormatterInfos() {
         this.spreadsheetFormatterInfosAndCheck(
@@ -178,6 +224,125 @@ public final class SpreadsheetFormatterProviderPluginProviderTest implements Plu
         );
     }
 
+    @Test
+    public void testPluginInfosCached() {
+        final SpreadsheetFormatterProviderPluginProvider provider = this.createPluginProvider();
+
+        assertSame(
+            provider.pluginInfos(),
+            provider.pluginInfos()
+        );
+    }
+
+    @Test
+    public void testPluginInfosSince() {
+        final SpreadsheetFormatterProviderPluginProvider provider = this.createPluginProvider();
+        final SpreadsheetPluginInfosDelta delta = provider.pluginInfosSince(0);
+
+        this.checkEquals(
+            SpreadsheetPluginInfosDelta.resync(
+                delta.version(),
+                provider.pluginInfos()
+            ),
+            delta
+        );
+    }
+
+    @Test
+    public void testPluginInfosSinceCurrentVersion() {
+        final SpreadsheetFormatterProviderPluginProvider provider = this.createPluginProvider();
+        final long version = provider.pluginInfosSince(0)
+            .version();
+
+        this.checkEquals(
+            true,
+            provider.pluginInfosSince(version)
+                .isEmpty()
+        );
+    }
+
+    @Test
+    public void testPluginInfosSinceUnknownVersionResync() {
+        final SpreadsheetFormatterProviderPluginProvider provider = this.createPluginProvider();
+        final long version = provider.pluginInfosSince(0)
+            .version();
+
+        this.checkEquals(
+            SpreadsheetPluginInfosDelta.resync(
+                version,
+                provider.pluginInfos()
+            ),
+            provider.pluginInfosSince(999)
+        );
+    }
+
+    @Test
+    public void testPluginInfosSinceOtherInstanceVersionResync() {
+        final long version = this.createPluginProvider()
+            .pluginInfosSince(0)
+            .version();
+
+        this.checkEquals(
+            true,
+            this.createPluginProvider()
+                .pluginInfosSince(version)
+                .isResync()
+        );
+    }
+
+    @Test
+    public void testPluginInfosInternedAcrossWrappers() {
+        final Set<PluginInfo> infos = this.createPluginProvider()
+            .pluginInfos();
+        final Set<PluginInfo> other = this.createPluginProvider()
+            .pluginInfos();
+
+        for (final PluginInfo info : infos) {
+            assertSame(
+                info,
+                other.stream()
+                    .filter(info::equals)
+                    .findFirst()
+                    .orElse(null),
+                info::toString
+            );
+        }
+    }
+
+    @Test
+    public void testPluginInfosJsonCached() {
+        final SpreadsheetFormatterProviderPluginProvider provider = this.createPluginProvider();
+        final JsonNodeMarshallContext context = JsonNodeMarshallContexts.basic();
+
+        final SpreadsheetPluginJsonPayload payload = provider.pluginInfosJson(context);
+        this.checkEquals(
+            context.marshallCollection(provider.pluginInfos())
+                .toString(),
+            payload.toString()
+        );
+        assertSame(
+            payload,
+            provider.pluginInfosJson(context)
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterInfosJsonCached() {
+        final SpreadsheetFormatterProviderPluginProvider provider = this.createPluginProvider();
+        final JsonNodeMarshallContext context = JsonNodeMarshallContexts.basic();
+
+        final SpreadsheetPluginJsonPayload payload = provider.spreadsheetFormatterInfosJson(context);
+        this.checkEquals(
+            context.marshall(provider.spreadsheetFormatterInfos())
+                .toString(),
+            payload.toString()
+        );
+        assertSame(
+            payload,
+            provider.spreadsheetFormatterInfosJson(context)
+        );
+    }
+
     @Test
     public void testToString() {
         this.toStringAndCheck(
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.format.pattern.SpreadsheetPattern;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderTesting;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetFormatterProviderReloadableTest implements SpreadsheetFormatterProviderTesting<SpreadsheetFormatterProviderReloadable>,
+    SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetFormatterProviderReloadable>,
+    ToStringTesting<SpreadsheetFormatterProviderReloadable> {
+
+    private final static SpreadsheetFormatterSelector TEXT = SpreadsheetFormatterSelector.parse("text @@");
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderReloadable.with(
+                null,
+                (p) -> p
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullDecoratorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterProviderReloadable.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelector() {
+        this.spreadsheetFormatterAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            TEXT,
+            PROVIDER_CONTEXT,
+            SpreadsheetPattern.parseTextFormatPattern("@@")
+                .formatter()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterInfos() {
+        this.spreadsheetFormatterInfosAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterInfos()
+        );
+    }
+
+    @Test
+    public void testReloadNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createSpreadsheetFormatterProvider()
+                .reload(null)
+        );
+    }
+
+    @Test
+    public void testReloadReturnsPrevious() {
+        final SpreadsheetFormatterProviderReloadable reloadable = this.createSpreadsheetFormatterProvider();
+        final SpreadsheetFormatterProvider next = SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            16
+        );
+
+        assertSame(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            reloadable.reload(next)
+        );
+        assertSame(
+            next,
+            reloadable.provider()
+        );
+    }
+
+    @Test
+    public void testReloadInvalidatesCache() {
+        final AtomicInteger decorated = new AtomicInteger();
+        final SpreadsheetFormatterProviderReloadable reloadable = SpreadsheetFormatterProviderReloadable.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            (p) -> {
+                decorated.incrementAndGet();
+                return SpreadsheetFormatterProviderCache.with(
+                    p,
+                    16
+                );
+            }
+        );
+
+        final Object before = reloadable.spreadsheetFormatter(
+            TEXT,
+            PROVIDER_CONTEXT
+        );
+        assertSame(
+            before,
+            reloadable.spreadsheetFormatter(
+                TEXT,
+                PROVIDER_CONTEXT
+            ),
+            "cached before reload"
+        );
+
+        reloadable.reload(SPREADSHEET_FORMATTER_PROVIDER);
+
+        assertNotSame(
+            before,
+            reloadable.spreadsheetFormatter(
+                TEXT,
+                PROVIDER_CONTEXT
+            ),
+            "cache replaced by reload"
+        );
+        this.checkEquals(
+            2,
+            decorated.get(),
+            "decorated"
+        );
+    }
+
+    @Test
+    public void testAddReloadListenerWithNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createSpreadsheetFormatterProvider()
+                .addReloadListener(null)
+        );
+    }
+
+    @Test
+    public void testReloadRunsListener() {
+        final SpreadsheetFormatterProviderReloadable reloadable = this.createSpreadsheetFormatterProvider();
+        final SpreadsheetFormatterProvider next = SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            16
+        );
+        final List<SpreadsheetFormatterProvider> providers = Lists.array();
+
+        final Runnable remover = reloadable.addReloadListener(
+            () -> providers.add(reloadable.provider())
+        );
+
+        reloadable.reload(next);
+        this.checkEquals(
+            Lists.of(next),
+            providers,
+            "listener sees reloaded provider"
+        );
+
+        remover.run();
+
+        reloadable.reload(SPREADSHEET_FORMATTER_PROVIDER);
+        this.checkEquals(
+            Lists.of(next),
+            providers,
+            "removed listener not run"
+        );
+    }
+
+    @Test
+    public void testReloadWithRenderCacheAndCollection() {
+        final SpreadsheetFormatterProviderReloadable reloadable = this.createSpreadsheetFormatterProvider();
+        final SpreadsheetFormatterRenderCache renderCache = SpreadsheetFormatterRenderCache.with(
+            reloadable,
+            64 * 1024
+        );
+        final SpreadsheetFormatterProviderPluginProvider pluginProvider = SpreadsheetFormatterProviderPluginProvider.with(
+            reloadable,
+            PluginProviderName.with("Reloadable123"),
+            Url.parseAbsolute("https://example.com/reloadable123")
+        );
+
+        final AtomicReference<SpreadsheetPluginProviderCollection> collection = new AtomicReference<>(
+            collection(pluginProvider)
+        );
+        final SpreadsheetPluginProviderCollection before = collection.get();
+
+        reloadable.addReloadListener(
+            () -> collection.set(
+                collection(pluginProvider)
+            )
+        );
+
+        renderCache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+
+        reloadable.reload(
+            SpreadsheetFormatterProviderCache.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                16
+            )
+        );
+
+        assertNotSame(
+            before,
+            collection.get(),
+            "collection rebuilt by listener"
+        );
+        this.checkEquals(
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterInfos(),
+            collection.get()
+                .spreadsheetFormatterInfos(),
+            "rebuilt collection infos"
+        );
+
+        renderCache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+        this.checkEquals(
+            0L,
+            renderCache.hits(),
+            "render cache hits after reload"
+        );
+        this.checkEquals(
+            2L,
+            renderCache.misses(),
+            "render cache misses after reload"
+        );
+    }
+
+    private static SpreadsheetPluginProviderCollection collection(final SpreadsheetFormatterProviderPluginProvider provider) {
+        return SpreadsheetPluginProviderCollection.with(
+            PluginProviderName.with("Collection123"),
+            Url.parseAbsolute("https://example.com/collection123"),
+            Sets.of(provider)
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createSpreadsheetFormatterProvider(),
+            SPREADSHEET_FORMATTER_PROVIDER.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetFormatterProviderReloadable createSpreadsheetFormatterProvider() {
+        return SpreadsheetFormatterProviderReloadable.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            (p) -> p
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetFormatterProviderReloadable> type() {
+        return SpreadsheetFormatterProviderReloadable.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatterContext;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatterContextDelegator;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+import walkingkooka.tree.text.TextNode;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetFormatterRenderCacheTest implements SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetFormatterRenderCache>,
+    ToStringTesting<SpreadsheetFormatterRenderCache> {
+
+    private final static SpreadsheetFormatterSelector TEXT = SpreadsheetFormatterSelector.parse("text @@");
+
+    private final static long MAX_BYTES = 64 * 1024;
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetFormatterRenderCache.with(
+                null,
+                MAX_BYTES
+            )
+        );
+    }
+
+    @Test
+    public void testWithZeroMaxBytesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetFormatterRenderCache.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testFormatNullSelectorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createCache()
+                .format(
+                    null,
+                    "abc",
+                    PROVIDER_CONTEXT,
+                    SPREADSHEET_FORMATTER_CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testFormat() {
+        this.checkEquals(
+            this.formatDirect("abc"),
+            this.createCache()
+                .format(
+                    TEXT,
+                    "abc",
+                    PROVIDER_CONTEXT,
+                    SPREADSHEET_FORMATTER_CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testFormatCachedSkipsFormatter() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+        final SpreadsheetFormatterRenderCache cache = SpreadsheetFormatterRenderCache.with(
+            SpreadsheetFormatterProviderInstrumented.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                metrics
+            ),
+            MAX_BYTES
+        );
+
+        for (int i = 0; i < 3; i++) {
+            this.checkEquals(
+                this.formatDirect("abc"),
+                cache.format(
+                    TEXT,
+                    "abc",
+                    PROVIDER_CONTEXT,
+                    SPREADSHEET_FORMATTER_CONTEXT
+                )
+            );
+        }
+
+        this.checkEquals(
+            1L,
+            metrics.snapshot()
+                .get("spreadsheetFormatter text")
+                .count(),
+            () -> metrics.toString()
+        );
+        this.checkEquals(2L, cache.hits(), "hits");
+        this.checkEquals(1L, cache.misses(), "misses");
+    }
+
+    @Test
+    public void testFormatLongStringNotCached() {
+        final SpreadsheetFormatterRenderCache cache = this.createCache();
+        final String value = new String(new char[SpreadsheetFormatterRenderCache.MAX_STRING_LENGTH + 1])
+            .replace('\0', 'a');
+
+        this.checkEquals(
+            this.formatDirect(value),
+            cache.format(
+                TEXT,
+                value,
+                PROVIDER_CONTEXT,
+                SPREADSHEET_FORMATTER_CONTEXT
+            )
+        );
+        this.checkEquals(
+            0,
+            cache.size()
+        );
+    }
+
+    @Test
+    public void testFormatMaxBytesEvicts() {
+        final SpreadsheetFormatterRenderCache sizer = this.createCache();
+        sizer.format(
+            TEXT,
+            "a",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+        final long entryBytes = sizer.bytes();
+
+        final SpreadsheetFormatterRenderCache cache = SpreadsheetFormatterRenderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            entryBytes + entryBytes / 2
+        );
+
+        for (final String value : new String[]{"a", "b", "c"}) {
+            cache.format(
+                TEXT,
+                value,
+                PROVIDER_CONTEXT,
+                SPREADSHEET_FORMATTER_CONTEXT
+            );
+
+            this.checkEquals(
+                true,
+                cache.bytes() <= cache.maxBytes(),
+                () -> cache.toString()
+            );
+        }
+
+        this.checkEquals(
+            1,
+            cache.size(),
+            () -> cache.toString()
+        );
+    }
+
+    @Test
+    public void testFormatBytesIncludesKey() {
+        final SpreadsheetFormatterRenderCache cache = this.createCache();
+        cache.format(
+            TEXT,
+            "a",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+
+        final long text = SpreadsheetFormatterRenderCache.STRING_OVERHEAD + 2;
+        this.checkEquals(
+            true,
+            cache.bytes() >= SpreadsheetFormatterRenderCache.ENTRY_OVERHEAD + text + text,
+            () -> "value, selector and parts should be counted " + cache
+        );
+    }
+
+    @Test
+    public void testFormatBytesIncludesValue() {
+        final SpreadsheetFormatterRenderCache short1 = this.createCache();
+        short1.format(
+            TEXT,
+            "a",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+
+        final SpreadsheetFormatterRenderCache long1 = this.createCache();
+        long1.format(
+            TEXT,
+            "abcdefghij",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+
+        // the value and the formatted text are both at least 9 characters longer
+        this.checkEquals(
+            true,
+            long1.bytes() >= short1.bytes() + 2 * 2 * 9,
+            () -> short1 + " " + long1
+        );
+    }
+
+    @Test
+    public void testFormatEquivalentContextShared() {
+        final SpreadsheetFormatterRenderCache cache = this.createCache();
+
+        cache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+        cache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            new TestSpreadsheetFormatterContext()
+        );
+
+        this.checkEquals(1L, cache.hits(), "hits");
+        this.checkEquals(1, cache.size(), "size");
+    }
+
+    @Test
+    public void testFormatDifferentCellCharacterWidthNotShared() {
+        this.formatDifferentContextAndCheck(
+            new TestSpreadsheetFormatterContext() {
+                @Override
+                public int cellCharacterWidth() {
+                    return SPREADSHEET_FORMATTER_CONTEXT.cellCharacterWidth() + 1;
+                }
+            }
+        );
+    }
+
+    @Test
+    public void testFormatDifferentGeneralFormatNumberDigitCountNotShared() {
+        this.formatDifferentContextAndCheck(
+            new TestSpreadsheetFormatterContext() {
+                @Override
+                public int generalFormatNumberDigitCount() {
+                    return SPREADSHEET_FORMATTER_CONTEXT.generalFormatNumberDigitCount() + 1;
+                }
+            }
+        );
+    }
+
+    @Test
+    public void testFormatDifferentMonthNameAbbreviationsNotShared() {
+        this.formatDifferentContextAndCheck(
+            new TestSpreadsheetFormatterContext() {
+                @Override
+                public List<String> monthNameAbbreviations() {
+                    return Lists.of("J", "F", "M", "A", "M", "J", "J", "A", "S", "O", "N", "D");
+                }
+            }
+        );
+    }
+
+    private void formatDifferentContextAndCheck(final SpreadsheetFormatterContext different) {
+        final SpreadsheetFormatterRenderCache cache = this.createCache();
+
+        cache.format(
+            TEXT,
+            123,
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+        cache.format(
+            TEXT,
+            123,
+            PROVIDER_CONTEXT,
+            different
+        );
+
+        this.checkEquals(0L, cache.hits(), "hits");
+        this.checkEquals(2, cache.size(), "size");
+    }
+
+    /**
+     * A {@link SpreadsheetFormatterContext} with the same state as {@link #SPREADSHEET_FORMATTER_CONTEXT}, tests
+     * override a single method to change one part of the key.
+     */
+    private static class TestSpreadsheetFormatterContext implements SpreadsheetFormatterContextDelegator {
+
+        @Override
+        public SpreadsheetFormatterContext spreadsheetFormatterContext() {
+            return SPREADSHEET_FORMATTER_CONTEXT;
+        }
+    }
+
+    @Test
+    public void testFormatReloadClears() {
+        final SpreadsheetFormatterProviderReloadable provider = SpreadsheetFormatterProviderReloadable.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            (p) -> p
+        );
+        final SpreadsheetFormatterRenderCache cache = SpreadsheetFormatterRenderCache.with(
+            provider,
+            MAX_BYTES
+        );
+
+        cache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+        this.checkEquals(1, cache.size(), "size");
+
+        provider.reload(
+            SpreadsheetFormatterProviderCache.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                1
+            )
+        );
+
+        cache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+
+        this.checkEquals(0L, cache.hits(), "hits");
+        this.checkEquals(2L, cache.misses(), "misses");
+        this.checkEquals(1, cache.size(), "size");
+    }
+
+    @Test
+    public void testFormatReloadSameProviderClears() {
+        final SpreadsheetFormatterProviderReloadable provider = SpreadsheetFormatterProviderReloadable.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            (p) -> p
+        );
+        final SpreadsheetFormatterRenderCache cache = SpreadsheetFormatterRenderCache.with(
+            provider,
+            MAX_BYTES
+        );
+
+        cache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+        this.checkEquals(1, cache.size(), "size");
+
+        provider.reload(SPREADSHEET_FORMATTER_PROVIDER);
+
+        this.checkEquals(0, cache.size(), "size after reload");
+        this.checkEquals(0L, cache.bytes(), "bytes after reload");
+
+        cache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+
+        this.checkEquals(0L, cache.hits(), "hits");
+        this.checkEquals(2L, cache.misses(), "misses");
+    }
+
+    @Test
+    public void testClear() {
+        final SpreadsheetFormatterRenderCache cache = this.createCache();
+        cache.format(
+            TEXT,
+            "abc",
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+        cache.clear();
+
+        this.checkEquals(0, cache.size(), "size");
+        this.checkEquals(0L, cache.bytes(), "bytes");
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createCache(),
+            "size=0 bytes=0 maxBytes=65536 hits=0 misses=0"
+        );
+    }
+
+    private SpreadsheetFormatterRenderCache createCache() {
+        return SpreadsheetFormatterRenderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            MAX_BYTES
+        );
+    }
+
+    private Optional<TextNode> formatDirect(final Object value) {
+        return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+            TEXT,
+            PROVIDER_CONTEXT
+        ).format(
+            value,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetFormatterRenderCache> type() {
+        return SpreadsheetFormatterRenderCache.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginName;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+public final class SpreadsheetPluginInfosDeltaTest implements ClassTesting2<SpreadsheetPluginInfosDelta>,
+    ToStringTesting<SpreadsheetPluginInfosDelta> {
+
+    private final static PluginInfo INFO = PluginInfo.with(
+        Url.parseAbsolute("https://example.com/plugin1"),
+        PluginName.with("plugin1")
+    );
+
+    @Test
+    public void testChanges() {
+        final SpreadsheetPluginInfosDelta delta = SpreadsheetPluginInfosDelta.changes(
+            2,
+            Sets.of(INFO),
+            Sets.empty()
+        );
+
+        this.checkEquals(2L, delta.version(), "version");
+        this.checkEquals(false, delta.isResync(), "resync");
+        this.checkEquals(Sets.of(INFO), delta.added(), "added");
+        this.checkEquals(Sets.empty(), delta.removed(), "removed");
+        this.checkEquals(false, delta.isEmpty(), "isEmpty");
+    }
+
+    @Test
+    public void testChangesEmpty() {
+        this.checkEquals(
+            true,
+            SpreadsheetPluginInfosDelta.changes(
+                2,
+                Sets.empty(),
+                Sets.empty()
+            ).isEmpty()
+        );
+    }
+
+    @Test
+    public void testResync() {
+        final SpreadsheetPluginInfosDelta delta = SpreadsheetPluginInfosDelta.resync(
+            3,
+            Sets.empty()
+        );
+
+        this.checkEquals(3L, delta.version(), "version");
+        this.checkEquals(true, delta.isResync(), "resync");
+        this.checkEquals(false, delta.isEmpty(), "isEmpty");
+    }
+
+    @Test
+    public void testEquals() {
+        this.checkEquals(
+            SpreadsheetPluginInfosDelta.changes(1, Sets.of(INFO), Sets.empty()),
+            SpreadsheetPluginInfosDelta.changes(1, Sets.of(INFO), Sets.empty())
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentVersion() {
+        this.checkNotEquals(
+            SpreadsheetPluginInfosDelta.changes(1, Sets.of(INFO), Sets.empty()),
+            SpreadsheetPluginInfosDelta.changes(2, Sets.of(INFO), Sets.empty())
+        );
+    }
+
+    @Test
+    public void testEqualsDifferentResync() {
+        this.checkNotEquals(
+            SpreadsheetPluginInfosDelta.changes(1, Sets.of(INFO), Sets.empty()),
+            SpreadsheetPluginInfosDelta.resync(1, Sets.of(INFO))
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            SpreadsheetPluginInfosDelta.resync(1, Sets.of(INFO)),
+            "version=1 resync added=[" + INFO + "] removed=[]"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginInfosDelta> type() {
+        return SpreadsheetPluginInfosDelta.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
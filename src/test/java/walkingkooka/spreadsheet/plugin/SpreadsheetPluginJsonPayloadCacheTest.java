@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.tree.json.JsonNode;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContext;
+import walkingkooka.tree.json.marshall.JsonNodeMarshallContexts;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginJsonPayloadCacheTest implements ClassTesting2<SpreadsheetPluginJsonPayloadCache<?>> {
+
+    @Test
+    public void testWithNullMarshallerFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginJsonPayloadCache.with(null)
+        );
+    }
+
+    @Test
+    public void testGet() {
+        this.checkEquals(
+            JsonNode.string("abc")
+                .toString(),
+            this.createCache(new AtomicInteger())
+                .get(
+                    "abc",
+                    JsonNodeMarshallContexts.basic()
+                ).toString()
+        );
+    }
+
+    @Test
+    public void testGetSameSourceAndContextCached() {
+        final AtomicInteger counter = new AtomicInteger();
+        final SpreadsheetPluginJsonPayloadCache<String> cache = this.createCache(counter);
+        final JsonNodeMarshallContext context = JsonNodeMarshallContexts.basic();
+        final String source = "abc";
+
+        assertSame(
+            cache.get(source, context),
+            cache.get(source, context)
+        );
+        this.checkEquals(1, counter.get(), "marshaller invocations");
+    }
+
+    @Test
+    public void testGetDifferentSource() {
+        final AtomicInteger counter = new AtomicInteger();
+        final SpreadsheetPluginJsonPayloadCache<String> cache = this.createCache(counter);
+        final JsonNodeMarshallContext context = JsonNodeMarshallContexts.basic();
+
+        assertNotSame(
+            cache.get("abc", context),
+            cache.get("def", context)
+        );
+        this.checkEquals(2, counter.get(), "marshaller invocations");
+    }
+
+    @Test
+    public void testGetDifferentContext() {
+        final AtomicInteger counter = new AtomicInteger();
+        final SpreadsheetPluginJsonPayloadCache<String> cache = this.createCache(counter);
+        final String source = "abc";
+
+        cache.get(source, JsonNodeMarshallContexts.basic());
+        cache.get(source, JsonNodeMarshallContexts.basic());
+
+        this.checkEquals(2, counter.get(), "marshaller invocations");
+    }
+
+    @Test
+    public void testGetLongLivedContextSharedByRequests() {
+        final AtomicInteger counter = new AtomicInteger();
+        final SpreadsheetPluginJsonPayloadCache<String> cache = this.createCache(counter);
+        final JsonNodeMarshallContext context = JsonNodeMarshallContexts.basic();
+        final String source = "abc";
+
+        final SpreadsheetPluginJsonPayload payload = cache.get(source, context);
+        for (int i = 0; i < 100; i++) {
+            assertSame(
+                payload,
+                cache.get(source, context),
+                "request " + i
+            );
+        }
+
+        this.checkEquals(1, counter.get(), "marshaller invocations");
+    }
+
+    @Test
+    public void testGetContextPerRequestNeverCached() {
+        final AtomicInteger counter = new AtomicInteger();
+        final SpreadsheetPluginJsonPayloadCache<String> cache = this.createCache(counter);
+        final String source = "abc";
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(source, JsonNodeMarshallContexts.basic());
+        }
+
+        this.checkEquals(10, counter.get(), "marshaller invocations");
+    }
+
+    private SpreadsheetPluginJsonPayloadCache<String> createCache(final AtomicInteger counter) {
+        return SpreadsheetPluginJsonPayloadCache.with(
+            (s, c) -> {
+                counter.incrementAndGet();
+                return JsonNode.string(s);
+            }
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginJsonPayloadCache<?>> type() {
+        return Cast.to(SpreadsheetPluginJsonPayloadCache.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.tree.json.JsonNode;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginJsonPayloadTest implements ClassTesting2<SpreadsheetPluginJsonPayload>,
+    ToStringTesting<SpreadsheetPluginJsonPayload> {
+
+    private final static JsonNode JSON = JsonNode.string("Hello");
+
+    @Test
+    public void testWithNullJsonFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginJsonPayload.with(null)
+        );
+    }
+
+    @Test
+    public void testByteBuffer() {
+        final ByteBuffer buffer = this.createPayload()
+            .byteBuffer();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        this.checkEquals(
+            JSON.toString(),
+            new String(bytes, StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    public void testByteBufferReadOnly() {
+        assertThrows(
+            ReadOnlyBufferException.class,
+            () -> this.createPayload()
+                .byteBuffer()
+                .put((byte) 0)
+        );
+    }
+
+    @Test
+    public void testLength() {
+        this.checkEquals(
+            JSON.toString()
+                .getBytes(StandardCharsets.UTF_8)
+                .length,
+            this.createPayload()
+                .length()
+        );
+    }
+
+    @Test
+    public void testEtagSameJson() {
+        this.checkEquals(
+            this.createPayload()
+                .etag(),
+            this.createPayload()
+                .etag()
+        );
+    }
+
+    @Test
+    public void testEtagDifferentJson() {
+        this.checkNotEquals(
+            this.createPayload()
+                .etag(),
+            SpreadsheetPluginJsonPayload.with(JsonNode.string("Different"))
+                .etag()
+        );
+    }
+
+    @Test
+    public void testEtagQuoted() {
+        final String etag = this.createPayload()
+            .etag();
+
+        this.checkEquals(
+            true,
+            etag.startsWith("\"") && etag.endsWith("\""),
+            etag
+        );
+    }
+
+    @Test
+    public void testIsNotModifiedNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createPayload()
+                .isNotModified(null)
+        );
+    }
+
+    @Test
+    public void testIsNotModifiedSameEtag() {
+        final SpreadsheetPluginJsonPayload payload = this.createPayload();
+
+        this.isNotModifiedAndCheck(
+            payload,
+            payload.etag(),
+            true
+        );
+    }
+
+    @Test
+    public void testIsNotModifiedWeakEtag() {
+        final SpreadsheetPluginJsonPayload payload = this.createPayload();
+
+        this.isNotModifiedAndCheck(
+            payload,
+            "W/" + payload.etag(),
+            true
+        );
+    }
+
+    @Test
+    public void testIsNotModifiedEtagList() {
+        final SpreadsheetPluginJsonPayload payload = this.createPayload();
+
+        this.isNotModifiedAndCheck(
+            payload,
+            "\"abc\", " + payload.etag(),
+            true
+        );
+    }
+
+    @Test
+    public void testIsNotModifiedStar() {
+        this.isNotModifiedAndCheck(
+            this.createPayload(),
+            "*",
+            true
+        );
+    }
+
+    @Test
+    public void testIsNotModifiedDifferentEtag() {
+        this.isNotModifiedAndCheck(
+            this.createPayload(),
+            "\"abc\"",
+            false
+        );
+    }
+
+    private void isNotModifiedAndCheck(final SpreadsheetPluginJsonPayload payload,
+                                       final String ifNoneMatch,
+                                       final boolean expected) {
+        this.checkEquals(
+            expected,
+            payload.isNotModified(ifNoneMatch),
+            ifNoneMatch
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createPayload(),
+            JSON.toString()
+        );
+    }
+
+    private SpreadsheetPluginJsonPayload createPayload() {
+        return SpreadsheetPluginJsonPayload.with(JSON);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginJsonPayload> type() {
+        return SpreadsheetPluginJsonPayload.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
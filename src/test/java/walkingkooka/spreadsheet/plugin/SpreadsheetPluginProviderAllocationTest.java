@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Fails when the bytes allocated per call on a zero allocation path exceed its budget plus {@link #TOLERANCE}, measured
+ * with the per thread allocation counter of {@link com.sun.management.ThreadMXBean}, so any new allocation on these
+ * paths fails. Paths whose allocations depend on escape analysis, such as cache hits, are measured by the gc profiler
+ * of the JMH benchmarks instead. Each budget may be overridden with a system property named
+ * {@code walkingkooka.spreadsheet.plugin.allocation.} followed by the test name, for example
+ * <pre>
+ * mvn test -Dwalkingkooka.spreadsheet.plugin.allocation.formatterPluginInfos=64
+ * </pre>
+ * The tests are skipped on JVMs without allocation counters.
+ */
+public final class SpreadsheetPluginProviderAllocationTest implements SpreadsheetMetadataTesting {
+
+    private final static String PROPERTY_PREFIX = "walkingkooka.spreadsheet.plugin.allocation.";
+
+    /**
+     * Calls made before measuring, so the JIT has compiled the path and escape analysis has removed what it can.
+     */
+    private final static int WARMUP = 20_000;
+
+    private final static int ITERATIONS = 10_000;
+
+    /**
+     * Bytes per call allowed over each budget, which absorbs the counter reads and any allocation by the JIT or the
+     * test harness while measuring, amortized over {@link #ITERATIONS}. It is smaller than the smallest object, so a
+     * single new allocation per call always fails.
+     */
+    private final static long TOLERANCE = 8;
+
+    /**
+     * The cached infos are returned, nothing is allocated.
+     */
+    private final static long PLUGIN_INFOS_BUDGET = 0;
+
+    private final SpreadsheetFormatterProviderPluginProvider formatterPluginProvider = SpreadsheetFormatterProviderPluginProvider.with(
+        SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            16
+        ),
+        PluginProviderName.with("formatter"),
+        Url.parseAbsolute("https://example.com/formatter")
+    );
+
+    private final SpreadsheetComparatorProviderPluginProvider comparatorPluginProvider = SpreadsheetComparatorProviderPluginProvider.with(
+        SpreadsheetComparatorProviderCache.with(
+            SpreadsheetComparatorProviders.spreadsheetComparators(),
+            16
+        ),
+        PluginProviderName.with("comparator"),
+        Url.parseAbsolute("https://example.com/comparator")
+    );
+
+    @Test
+    public void testFormatterPluginInfos() {
+        this.allocationAndCheck(
+            "formatterPluginInfos",
+            PLUGIN_INFOS_BUDGET,
+            this.formatterPluginProvider::pluginInfos
+        );
+    }
+
+    @Test
+    public void testComparatorPluginInfos() {
+        this.allocationAndCheck(
+            "comparatorPluginInfos",
+            PLUGIN_INFOS_BUDGET,
+            this.comparatorPluginProvider::pluginInfos
+        );
+    }
+
+    private void allocationAndCheck(final String name,
+                                    final long defaultBudget,
+                                    final Supplier<?> call) {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(
+            bean instanceof com.sun.management.ThreadMXBean,
+            "ThreadMXBean allocation counters unavailable"
+        );
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(
+            threads.isThreadAllocatedMemorySupported(),
+            "ThreadMXBean allocation counters unsupported"
+        );
+        if (false == threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        final long budget = Long.getLong(
+            PROPERTY_PREFIX + name,
+            defaultBudget
+        );
+
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = call.get();
+        }
+
+        final long threadId = Thread.currentThread()
+            .getId();
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = call.get();
+        }
+        final long after = threads.getThreadAllocatedBytes(threadId);
+
+        final long perCall = (after - before) / ITERATIONS;
+        final Object result = sink;
+
+        this.checkEquals(
+            true,
+            perCall <= budget + TOLERANCE,
+            () -> name + " allocated " + perCall + " bytes per call, budget " + budget + " + " + TOLERANCE + " bytes, last result " + result
+        );
+    }
+}
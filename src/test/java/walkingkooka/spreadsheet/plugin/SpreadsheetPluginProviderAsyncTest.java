@@ -0,0 +1,221 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.pattern.SpreadsheetPattern;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginProviderAsyncTest implements SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetPluginProviderAsync> {
+
+    private final static Executor EXECUTOR = Runnable::run;
+
+    private final static SpreadsheetFormatterSelector TEXT = SpreadsheetFormatterSelector.parse("text @@");
+
+    @Test
+    public void testSpreadsheetFormatterNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderAsync.spreadsheetFormatter(
+                null,
+                TEXT,
+                PROVIDER_CONTEXT,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterNullSelectorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderAsync.spreadsheetFormatter(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                null,
+                PROVIDER_CONTEXT,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderAsync.spreadsheetFormatter(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                TEXT,
+                null,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterNullExecutorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderAsync.spreadsheetFormatter(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                TEXT,
+                PROVIDER_CONTEXT,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatter() {
+        this.checkEquals(
+            SpreadsheetPattern.parseTextFormatPattern("@@")
+                .formatter(),
+            SpreadsheetPluginProviderAsync.spreadsheetFormatter(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                TEXT,
+                PROVIDER_CONTEXT,
+                EXECUTOR
+            ).join()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterRunsOnExecutor() {
+        final List<Runnable> submitted = Lists.array();
+
+        final CompletableFuture<SpreadsheetFormatter> future = SpreadsheetPluginProviderAsync.spreadsheetFormatter(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            TEXT,
+            PROVIDER_CONTEXT,
+            submitted::add
+        );
+        this.checkEquals(
+            false,
+            future.isDone(),
+            "done before executor ran"
+        );
+
+        submitted.forEach(Runnable::run);
+
+        this.checkEquals(
+            true,
+            future.isDone(),
+            "done after executor ran"
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterUnknownCompletesExceptionally() {
+        final CompletableFuture<SpreadsheetFormatter> future = SpreadsheetPluginProviderAsync.spreadsheetFormatter(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            SpreadsheetFormatterSelector.parse("unknown123"),
+            PROVIDER_CONTEXT,
+            EXECUTOR
+        );
+
+        assertThrows(
+            CompletionException.class,
+            future::join
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSamplesNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderAsync.spreadsheetFormatterSamples(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                TEXT,
+                true,
+                null,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSamples() {
+        this.checkEquals(
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterSamples(
+                TEXT,
+                true,
+                SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+            ),
+            SpreadsheetPluginProviderAsync.spreadsheetFormatterSamples(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                TEXT,
+                true,
+                SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT,
+                EXECUTOR
+            ).join()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorNullSelectorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderAsync.spreadsheetComparator(
+                SpreadsheetComparatorProviders.spreadsheetComparators(),
+                null,
+                PROVIDER_CONTEXT,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparator() {
+        this.checkEquals(
+            SpreadsheetComparators.date(),
+            SpreadsheetPluginProviderAsync.spreadsheetComparator(
+                SpreadsheetComparatorProviders.spreadsheetComparators(),
+                SpreadsheetComparatorSelector.parse("date"),
+                PROVIDER_CONTEXT,
+                EXECUTOR
+            ).join()
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginProviderAsync> type() {
+        return SpreadsheetPluginProviderAsync.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginProviderBulkheadTest implements ClassTesting2<SpreadsheetPluginProviderBulkhead>,
+    ToStringTesting<SpreadsheetPluginProviderBulkhead> {
+
+    private final static PluginProviderName NAME = PluginProviderName.with("Bulkhead123");
+
+    private final static Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final static Executor EXECUTOR = Runnable::run;
+
+    @Test
+    public void testWithNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderBulkhead.with(
+                null,
+                1,
+                TIMEOUT,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testWithZeroMaxConcurrentFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetPluginProviderBulkhead.with(
+                NAME,
+                0,
+                TIMEOUT,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullTimeoutFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderBulkhead.with(
+                NAME,
+                1,
+                null,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testWithZeroTimeoutFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetPluginProviderBulkhead.with(
+                NAME,
+                1,
+                Duration.ZERO,
+                EXECUTOR
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullExecutorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderBulkhead.with(
+                NAME,
+                1,
+                TIMEOUT,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testCall() {
+        final SpreadsheetPluginProviderBulkhead bulkhead = this.createBulkhead();
+
+        this.checkEquals(
+            "result",
+            bulkhead.call(() -> "result")
+        );
+        this.checkEquals(
+            0,
+            bulkhead.active(),
+            "active"
+        );
+    }
+
+    @Test
+    public void testCallThrowsRethrown() {
+        final SpreadsheetPluginProviderBulkhead bulkhead = this.createBulkhead();
+        final IllegalArgumentException thrown = new IllegalArgumentException("Invalid 123");
+
+        assertSame(
+            thrown,
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> bulkhead.call(
+                    () -> {
+                        throw thrown;
+                    }
+                )
+            )
+        );
+        this.checkEquals(
+            0,
+            bulkhead.active(),
+            "active"
+        );
+    }
+
+    @Test
+    public void testCallExecutorRejectsReleasesPermit() {
+        final SpreadsheetPluginProviderBulkhead bulkhead = SpreadsheetPluginProviderBulkhead.with(
+            NAME,
+            1,
+            TIMEOUT,
+            (r) -> {
+                throw new RejectedExecutionException();
+            }
+        );
+
+        assertThrows(
+            RejectedExecutionException.class,
+            () -> bulkhead.call(() -> "result")
+        );
+        this.checkEquals(
+            0,
+            bulkhead.active(),
+            "active"
+        );
+    }
+
+    @Test
+    public void testTimeoutThenRejected() {
+        final List<Runnable> submitted = Lists.array();
+
+        final SpreadsheetPluginProviderBulkhead bulkhead = SpreadsheetPluginProviderBulkhead.with(
+            NAME,
+            1,
+            Duration.ofMillis(20),
+            submitted::add
+        );
+
+        assertThrows(
+            IllegalStateException.class,
+            () -> bulkhead.call(() -> "never run")
+        );
+        this.checkEquals(
+            1L,
+            bulkhead.timeouts(),
+            "timeouts"
+        );
+        this.checkEquals(
+            1,
+            bulkhead.active(),
+            "timed out call keeps its permit"
+        );
+
+        assertThrows(
+            RejectedExecutionException.class,
+            () -> bulkhead.call(() -> "rejected")
+        );
+        this.checkEquals(
+            1L,
+            bulkhead.rejections(),
+            "rejections"
+        );
+
+        submitted.forEach(Runnable::run);
+
+        this.checkEquals(
+            0,
+            bulkhead.active(),
+            "permit released once the call returns"
+        );
+    }
+
+    @Test
+    public void testTimeoutWhileQueuedSkipsCallAndReleasesPermit() {
+        final List<Runnable> submitted = Lists.array();
+        final AtomicBoolean called = new AtomicBoolean();
+
+        final SpreadsheetPluginProviderBulkhead bulkhead = SpreadsheetPluginProviderBulkhead.with(
+            NAME,
+            1,
+            Duration.ofMillis(20),
+            submitted::add
+        );
+
+        assertThrows(
+            IllegalStateException.class,
+            () -> bulkhead.call(
+                () -> {
+                    called.set(true);
+                    return "never run";
+                }
+            )
+        );
+
+        submitted.forEach(Runnable::run);
+
+        this.checkEquals(
+            false,
+            called.get(),
+            "timed out queued call skipped"
+        );
+        this.checkEquals(
+            0,
+            bulkhead.active(),
+            "permit released"
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createBulkhead(),
+            "Bulkhead123 active=0 maxConcurrent=2 timeout=PT10S rejections=0 timeouts=0"
+        );
+    }
+
+    private SpreadsheetPluginProviderBulkhead createBulkhead() {
+        return SpreadsheetPluginProviderBulkhead.with(
+            NAME,
+            2,
+            TIMEOUT,
+            EXECUTOR
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginProviderBulkhead> type() {
+        return SpreadsheetPluginProviderBulkhead.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,636 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginName;
+import walkingkooka.plugin.PluginProvider;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.plugin.PluginProviderTesting;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfo;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.pattern.SpreadsheetPattern;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfo;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginProviderCollectionTest implements PluginProviderTesting<SpreadsheetPluginProviderCollection>,
+    SpreadsheetMetadataTesting,
+    ToStringTesting<SpreadsheetPluginProviderCollection> {
+
+    private final static AbsoluteUrl TEXT_FORMATTER_URL = Url.parseAbsolute("https://example.com/text");
+
+    private final static SpreadsheetFormatterName TEXT_FORMATTER_NAME = SpreadsheetFormatterName.with("text");
+
+    private final static SpreadsheetComparator<?> DATE_COMPARATOR = SpreadsheetComparators.date();
+
+    private final static AbsoluteUrl DATE_COMPARATOR_URL = Url.parseAbsolute("https://example.com/date");
+
+    private final static PluginProviderName NAME = PluginProviderName.with("Collection123");
+
+    private final static AbsoluteUrl URL = Url.parseAbsolute("https://example.com/collection");
+
+    @Test
+    public void testWithNullNameFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderCollection.with(
+                null,
+                URL,
+                Sets.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullUrlFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderCollection.with(
+                NAME,
+                null,
+                Sets.empty()
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullProvidersFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderCollection.with(
+                NAME,
+                URL,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testWithDuplicateFormatterFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetPluginProviderCollection.with(
+                NAME,
+                URL,
+                Sets.of(
+                    formatterPluginProvider(),
+                    formatterPluginProvider()
+                )
+            )
+        );
+        this.checkEquals(
+            true,
+            thrown.getMessage()
+                .startsWith("Duplicate formatter " + TEXT_FORMATTER_NAME),
+            thrown::getMessage
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelector() {
+        this.checkEquals(
+            SpreadsheetPattern.parseTextFormatPattern("@@")
+                .formatter(),
+            this.createPluginProvider()
+                .spreadsheetFormatter(
+                    SpreadsheetFormatterSelector.parse("text @@"),
+                    PROVIDER_CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterUnknownFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createPluginProvider()
+                .spreadsheetFormatter(
+                    SpreadsheetFormatterSelector.parse("unknown-formatter"),
+                    PROVIDER_CONTEXT
+                )
+        );
+        this.checkEquals(
+            "Unknown formatter unknown-formatter",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterInfos() {
+        this.checkEquals(
+            SpreadsheetFormatterInfoSet.EMPTY.concat(
+                SpreadsheetFormatterInfo.with(
+                    TEXT_FORMATTER_URL,
+                    TEXT_FORMATTER_NAME
+                )
+            ),
+            this.createPluginProvider()
+                .spreadsheetFormatterInfos()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorName() {
+        this.checkEquals(
+            DATE_COMPARATOR,
+            this.createPluginProvider()
+                .spreadsheetComparator(
+                    DATE_COMPARATOR.name(),
+                    Lists.empty(),
+                    PROVIDER_CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorUnknownFails() {
+        final IllegalArgumentException thrown = assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createPluginProvider()
+                .spreadsheetComparator(
+                    SpreadsheetComparatorName.with("unknown-comparator"),
+                    Lists.empty(),
+                    PROVIDER_CONTEXT
+                )
+        );
+        this.checkEquals(
+            "Unknown comparator unknown-comparator",
+            thrown.getMessage()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorInfos() {
+        this.checkEquals(
+            SpreadsheetComparatorInfoSet.EMPTY.concat(
+                SpreadsheetComparatorInfo.with(
+                    DATE_COMPARATOR_URL,
+                    DATE_COMPARATOR.name()
+                )
+            ),
+            this.createPluginProvider()
+                .spreadsheetComparatorInfos()
+        );
+    }
+
+    @Test
+    public void testPluginInfos() {
+        this.pluginInfosAndCheck(
+            PluginInfo.with(
+                TEXT_FORMATTER_URL,
+                PluginName.with(TEXT_FORMATTER_NAME.value())
+            ),
+            PluginInfo.with(
+                DATE_COMPARATOR_URL,
+                PluginName.with(DATE_COMPARATOR.name().value())
+            )
+        );
+    }
+
+    @Test
+    public void testPluginProvider() {
+        final PluginProvider formatter = formatterPluginProvider();
+        final PluginProvider comparator = comparatorPluginProvider();
+
+        final SpreadsheetPluginProviderCollection collection = SpreadsheetPluginProviderCollection.with(
+            NAME,
+            URL,
+            Sets.of(
+                formatter,
+                comparator
+            )
+        );
+
+        this.checkEquals(
+            Optional.of(comparator),
+            collection.pluginProvider(
+                PluginName.with(DATE_COMPARATOR.name().value())
+            )
+        );
+    }
+
+    @Test
+    public void testPluginProviderPluginInfo() {
+        final PluginProvider formatter = formatterPluginProvider();
+        final PluginProvider comparator = comparatorPluginProvider();
+
+        final SpreadsheetPluginProviderCollection collection = SpreadsheetPluginProviderCollection.with(
+            NAME,
+            URL,
+            Sets.of(
+                formatter,
+                comparator
+            )
+        );
+
+        this.checkEquals(
+            Optional.of(formatter),
+            collection.pluginProvider(
+                PluginInfo.with(
+                    TEXT_FORMATTER_URL,
+                    PluginName.with(TEXT_FORMATTER_NAME.value())
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testStandardFormattersAndComparators() {
+        final PluginProvider formatter = SpreadsheetFormatterProviderPluginProvider.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            PluginProviderName.with("Formatters"),
+            Url.parseAbsolute("https://example.com/formatters")
+        );
+        final PluginProvider comparator = SpreadsheetComparatorProviderPluginProvider.with(
+            SpreadsheetComparatorProviders.spreadsheetComparators(),
+            PluginProviderName.with("Comparators"),
+            Url.parseAbsolute("https://example.com/comparators")
+        );
+
+        final SpreadsheetPluginProviderCollection collection = SpreadsheetPluginProviderCollection.with(
+            NAME,
+            URL,
+            Sets.of(
+                formatter,
+                comparator
+            )
+        );
+
+        this.checkEquals(
+            SpreadsheetPattern.parseDateFormatPattern("dd/mm/yyyy")
+                .formatter(),
+            collection.spreadsheetFormatter(
+                SpreadsheetFormatterSelector.parse("date dd/mm/yyyy"),
+                PROVIDER_CONTEXT
+            ),
+            "formatter"
+        );
+        this.checkEquals(
+            DATE_COMPARATOR,
+            collection.spreadsheetComparator(
+                DATE_COMPARATOR.name(),
+                Lists.empty(),
+                PROVIDER_CONTEXT
+            ),
+            "comparator"
+        );
+        this.checkEquals(
+            formatter.pluginInfos()
+                .size() +
+                comparator.pluginInfos()
+                    .size(),
+            collection.pluginInfos()
+                .size(),
+            "pluginInfos"
+        );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> collection.pluginProvider(
+                PluginName.with(DATE_COMPARATOR.name().value())
+            )
+        );
+    }
+
+    @Test
+    public void testRefreshReindexes() {
+        final RefreshableFormatterPluginProvider refreshable = new RefreshableFormatterPluginProvider(TEXT_FORMATTER_NAME);
+
+        final SpreadsheetPluginProviderCollection collection = SpreadsheetPluginProviderCollection.with(
+            NAME,
+            URL,
+            Sets.of(refreshable)
+        );
+
+        this.checkEquals(
+            refreshable.spreadsheetFormatterInfos(),
+            collection.spreadsheetFormatterInfos(),
+            "spreadsheetFormatterInfos before refresh"
+        );
+
+        refreshable.refresh(
+            SpreadsheetFormatterName.with("date")
+        );
+
+        this.checkEquals(
+            refreshable.spreadsheetFormatterInfos(),
+            collection.spreadsheetFormatterInfos(),
+            "spreadsheetFormatterInfos after refresh"
+        );
+        this.checkEquals(
+            refreshable.pluginInfos(),
+            collection.pluginInfos(),
+            "pluginInfos after refresh"
+        );
+        this.checkEquals(
+            SpreadsheetPattern.parseDateFormatPattern("dd/mm/yyyy")
+                .formatter(),
+            collection.spreadsheetFormatter(
+                SpreadsheetFormatterSelector.parse("date dd/mm/yyyy"),
+                PROVIDER_CONTEXT
+            ),
+            "formatter"
+        );
+    }
+
+    @Test
+    public void testRefreshDuplicateKeepsIndices() {
+        final RefreshableFormatterPluginProvider refreshable = new RefreshableFormatterPluginProvider(
+            SpreadsheetFormatterName.with("date")
+        );
+
+        final SpreadsheetPluginProviderCollection collection = SpreadsheetPluginProviderCollection.with(
+            NAME,
+            URL,
+            Sets.of(
+                formatterPluginProvider(),
+                refreshable
+            )
+        );
+        final SpreadsheetFormatterInfoSet infos = collection.spreadsheetFormatterInfos();
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> refreshable.refresh(TEXT_FORMATTER_NAME)
+        );
+
+        this.checkEquals(
+            infos,
+            collection.spreadsheetFormatterInfos()
+        );
+    }
+
+    @Test
+    public void testPluginProviderUnknown() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createPluginProvider()
+                .pluginProvider(PluginName.with("unknown"))
+        );
+    }
+
+    // PluginProvider...................................................................................................
+
+    @Override
+    public SpreadsheetPluginProviderCollection createPluginProvider() {
+        return SpreadsheetPluginProviderCollection.with(
+            NAME,
+            URL,
+            Sets.of(
+                formatterPluginProvider(),
+                comparatorPluginProvider()
+            )
+        );
+    }
+
+    private static PluginProvider formatterPluginProvider() {
+        final SpreadsheetFormatterInfoSet infos = SpreadsheetFormatterInfoSet.EMPTY.concat(
+            SpreadsheetFormatterInfo.with(
+                TEXT_FORMATTER_URL,
+                TEXT_FORMATTER_NAME
+            )
+        );
+
+        return SpreadsheetFormatterProviderPluginProvider.with(
+            new SpreadsheetFormatterProvider() {
+                @Override
+                public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                                 final ProviderContext context) {
+                    return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+                        selector,
+                        context
+                    );
+                }
+
+                @Override
+                public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                                 final List<?> values,
+                                                                 final ProviderContext context) {
+                    return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+                        name,
+                        values,
+                        context
+                    );
+                }
+
+                @Override
+                public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+                    return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterNextToken(selector);
+                }
+
+                @Override
+                public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                                    final boolean includeSamples,
+                                                                                    final SpreadsheetFormatterProviderSamplesContext context) {
+                    return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterSamples(
+                        selector,
+                        includeSamples,
+                        context
+                    );
+                }
+
+                @Override
+                public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+                    return infos;
+                }
+            },
+            PluginProviderName.with("Formatter123"),
+            Url.parseAbsolute("https://example.com/formatter")
+        );
+    }
+
+    private static PluginProvider comparatorPluginProvider() {
+        final SpreadsheetComparatorProvider provider = SpreadsheetComparatorProviders.spreadsheetComparators();
+        final SpreadsheetComparatorInfoSet infos = SpreadsheetComparatorInfoSet.EMPTY.concat(
+            SpreadsheetComparatorInfo.with(
+                DATE_COMPARATOR_URL,
+                DATE_COMPARATOR.name()
+            )
+        );
+
+        return SpreadsheetComparatorProviderPluginProvider.with(
+            new SpreadsheetComparatorProvider() {
+                @Override
+                public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                                      final ProviderContext context) {
+                    return provider.spreadsheetComparator(
+                        selector,
+                        context
+                    );
+                }
+
+                @Override
+                public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                                      final List<?> values,
+                                                                      final ProviderContext context) {
+                    return provider.spreadsheetComparator(
+                        name,
+                        values,
+                        context
+                    );
+                }
+
+                @Override
+                public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+                    return infos;
+                }
+            },
+            PluginProviderName.with("Comparator123"),
+            Url.parseAbsolute("https://example.com/comparator")
+        );
+    }
+
+    /**
+     * A formatter {@link PluginProvider} providing a single formatter, which may be replaced by a refresh.
+     */
+    private static final class RefreshableFormatterPluginProvider implements SpreadsheetFormatterProvider,
+        SpreadsheetPluginProviderRefreshable {
+
+        RefreshableFormatterPluginProvider(final SpreadsheetFormatterName name) {
+            this.name = name;
+        }
+
+        void refresh(final SpreadsheetFormatterName name) {
+            this.name = name;
+            this.listener.run();
+        }
+
+        @Override
+        public Runnable addRefreshListener(final Runnable listener) {
+            this.listener = listener;
+            return () -> this.listener = null;
+        }
+
+        private Runnable listener;
+
+        @Override
+        public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                         final ProviderContext context) {
+            return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+                selector,
+                context
+            );
+        }
+
+        @Override
+        public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                         final List<?> values,
+                                                         final ProviderContext context) {
+            return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+                name,
+                values,
+                context
+            );
+        }
+
+        @Override
+        public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+            return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterNextToken(selector);
+        }
+
+        @Override
+        public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                            final boolean includeSamples,
+                                                                            final SpreadsheetFormatterProviderSamplesContext context) {
+            return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            );
+        }
+
+        @Override
+        public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+            return SpreadsheetFormatterInfoSet.EMPTY.concat(
+                SpreadsheetFormatterInfo.with(
+                    this.url(),
+                    this.name
+                )
+            );
+        }
+
+        @Override
+        public PluginProviderName name() {
+            return PluginProviderName.with("Refreshable123");
+        }
+
+        @Override
+        public AbsoluteUrl url() {
+            return Url.parseAbsolute("https://example.com/refreshable/" + this.name);
+        }
+
+        @Override
+        public Set<PluginInfo> pluginInfos() {
+            return Sets.of(
+                PluginInfo.with(
+                    this.url(),
+                    PluginName.with(
+                        this.name.value()
+                    )
+                )
+            );
+        }
+
+        private volatile SpreadsheetFormatterName name;
+
+        @Override
+        public String toString() {
+            return this.name().toString();
+        }
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginProviderCollection> type() {
+        return SpreadsheetPluginProviderCollection.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginProvider;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+import walkingkooka.tree.text.TextNode;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hammers the plugin wrappers, with and without their caches, along with the samples, next token, render and selector
+ * caches, from an increasing number of threads and verifies every result matches the single threaded result. Caches
+ * are sized to force evictions while threads race. Throughput scaling is measured by
+ * {@code SpreadsheetPluginProviderScalingBenchmark} in the benchmark profile.
+ */
+public final class SpreadsheetPluginProviderConcurrencyTest implements SpreadsheetMetadataTesting {
+
+    private final static int ITERATIONS = 2000;
+
+    private final static int MAX_THREADS = Math.max(
+        2,
+        Math.min(
+            Runtime.getRuntime().availableProcessors(),
+            8
+        )
+    );
+
+    private final static List<SpreadsheetFormatterSelector> FORMATTER_SELECTORS = Lists.of(
+        SpreadsheetFormatterSelector.parse("text @@"),
+        SpreadsheetFormatterSelector.parse("date dd/mm/yyyy")
+    );
+
+    private final static List<SpreadsheetComparatorName> COMPARATOR_NAMES = Lists.of(
+        SpreadsheetComparatorName.with("date"),
+        SpreadsheetComparatorName.with("time")
+    );
+
+    private final static List<String> FORMATTER_SELECTOR_TEXT = Lists.of(
+        "text @@",
+        "date dd/mm/yyyy"
+    );
+
+    private final static List<String> COMPARATOR_SELECTOR_TEXT = Lists.of(
+        "date",
+        "time"
+    );
+
+    private final static List<String> RENDER_VALUES = Lists.of(
+        "a",
+        "b",
+        "c"
+    );
+
+    @Test
+    public void testFormatterPluginProvider() throws Exception {
+        this.formatterAndCheck(
+            SpreadsheetFormatterProviderPluginProvider.with(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                PluginProviderName.with("formatter"),
+                Url.parseAbsolute("https://example.com/formatter")
+            )
+        );
+    }
+
+    @Test
+    public void testFormatterPluginProviderCache() throws Exception {
+        this.formatterAndCheck(
+            SpreadsheetFormatterProviderPluginProvider.with(
+                SpreadsheetFormatterProviderCache.with(
+                    SPREADSHEET_FORMATTER_PROVIDER,
+                    1 // forces evictions while threads race
+                ),
+                PluginProviderName.with("formatter-cache"),
+                Url.parseAbsolute("https://example.com/formatter-cache")
+            )
+        );
+    }
+
+    @Test
+    public void testComparatorPluginProvider() throws Exception {
+        this.comparatorAndCheck(
+            SpreadsheetComparatorProviderPluginProvider.with(
+                SpreadsheetComparatorProviders.spreadsheetComparators(),
+                PluginProviderName.with("comparator"),
+                Url.parseAbsolute("https://example.com/comparator")
+            )
+        );
+    }
+
+    @Test
+    public void testComparatorPluginProviderCache() throws Exception {
+        this.comparatorAndCheck(
+            SpreadsheetComparatorProviderPluginProvider.with(
+                SpreadsheetComparatorProviderCache.with(
+                    SpreadsheetComparatorProviders.spreadsheetComparators(),
+                    1 // forces evictions while threads race
+                ),
+                PluginProviderName.with("comparator-cache"),
+                Url.parseAbsolute("https://example.com/comparator-cache")
+            )
+        );
+    }
+
+    private void formatterAndCheck(final SpreadsheetFormatterProviderPluginProvider provider) throws Exception {
+        final Set<PluginInfo> pluginInfos = provider.pluginInfos();
+        final List<SpreadsheetFormatter> formatters = Lists.array();
+        for (final SpreadsheetFormatterSelector selector : FORMATTER_SELECTORS) {
+            formatters.add(
+                SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+                    selector,
+                    PROVIDER_CONTEXT
+                )
+            );
+        }
+
+        this.runAndCheck(
+            provider,
+            pluginInfos,
+            (i) -> {
+                final int index = i % FORMATTER_SELECTORS.size();
+                return this.failure(
+                    formatters.get(index),
+                    provider.spreadsheetFormatter(
+                        FORMATTER_SELECTORS.get(index),
+                        PROVIDER_CONTEXT
+                    )
+                );
+            }
+        );
+    }
+
+    private void comparatorAndCheck(final SpreadsheetComparatorProviderPluginProvider provider) throws Exception {
+        final Set<PluginInfo> pluginInfos = provider.pluginInfos();
+        final List<SpreadsheetComparator<?>> comparators = Lists.of(
+            SpreadsheetComparators.date(),
+            SpreadsheetComparators.time()
+        );
+
+        this.runAndCheck(
+            provider,
+            pluginInfos,
+            (i) -> {
+                final int index = i % COMPARATOR_NAMES.size();
+                return this.failure(
+                    comparators.get(index),
+                    provider.spreadsheetComparator(
+                        COMPARATOR_NAMES.get(index),
+                        Lists.empty(),
+                        PROVIDER_CONTEXT
+                    )
+                );
+            }
+        );
+    }
+
+    @Test
+    public void testFormatterCacheSamples() throws Exception {
+        final SpreadsheetFormatterProviderCache cache = SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            1 // forces evictions while threads race
+        );
+
+        final List<List<SpreadsheetFormatterSample>> samples = Lists.array();
+        for (final SpreadsheetFormatterSelector selector : FORMATTER_SELECTORS) {
+            samples.add(
+                SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterSamples(
+                    selector,
+                    true, // includeSamples
+                    SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+                )
+            );
+        }
+
+        this.runAndCheck(
+            "formatter samples cache",
+            (i) -> {
+                final int index = i % FORMATTER_SELECTORS.size();
+                return this.failure(
+                    samples.get(index),
+                    cache.spreadsheetFormatterSamples(
+                        FORMATTER_SELECTORS.get(index),
+                        true, // includeSamples
+                        SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT
+                    )
+                );
+            }
+        );
+    }
+
+    @Test
+    public void testFormatterCacheNextToken() throws Exception {
+        final SpreadsheetFormatterProviderCache cache = SpreadsheetFormatterProviderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            1 // forces evictions while threads race
+        );
+
+        final List<Optional<SpreadsheetFormatterSelectorToken>> nextTokens = Lists.array();
+        for (final SpreadsheetFormatterSelector selector : FORMATTER_SELECTORS) {
+            nextTokens.add(
+                SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterNextToken(selector)
+            );
+        }
+
+        this.runAndCheck(
+            "formatter next token cache",
+            (i) -> {
+                final int index = i % FORMATTER_SELECTORS.size();
+                return this.failure(
+                    nextTokens.get(index),
+                    cache.spreadsheetFormatterNextToken(
+                        FORMATTER_SELECTORS.get(index)
+                    )
+                );
+            }
+        );
+    }
+
+    @Test
+    public void testRenderCache() throws Exception {
+        final SpreadsheetFormatterSelector selector = FORMATTER_SELECTORS.get(0);
+        final SpreadsheetFormatter formatter = SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+            selector,
+            PROVIDER_CONTEXT
+        );
+
+        final List<Optional<TextNode>> texts = Lists.array();
+        for (final String value : RENDER_VALUES) {
+            texts.add(
+                formatter.format(
+                    value,
+                    SPREADSHEET_FORMATTER_CONTEXT
+                )
+            );
+        }
+
+        final SpreadsheetFormatterRenderCache sizer = SpreadsheetFormatterRenderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            Long.MAX_VALUE
+        );
+        sizer.format(
+            selector,
+            RENDER_VALUES.get(0),
+            PROVIDER_CONTEXT,
+            SPREADSHEET_FORMATTER_CONTEXT
+        );
+
+        final SpreadsheetFormatterRenderCache cache = SpreadsheetFormatterRenderCache.with(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            2 * sizer.bytes() // holds fewer entries than values, forcing evictions while threads race
+        );
+
+        this.runAndCheck(
+            "render cache",
+            (i) -> {
+                final int index = i % RENDER_VALUES.size();
+                final String failure = this.failure(
+                    texts.get(index),
+                    cache.format(
+                        selector,
+                        RENDER_VALUES.get(index),
+                        PROVIDER_CONTEXT,
+                        SPREADSHEET_FORMATTER_CONTEXT
+                    )
+                );
+                return null == failure && cache.bytes() > cache.maxBytes() ?
+                    "bytes exceeded maxBytes " + cache :
+                    failure;
+            }
+        );
+    }
+
+    @Test
+    public void testSelectorCache() throws Exception {
+        final SpreadsheetPluginSelectorCache cache = SpreadsheetPluginSelectorCache.with(1); // forces evictions
+
+        this.runAndCheck(
+            "selector cache",
+            (i) -> {
+                final int index = i % FORMATTER_SELECTOR_TEXT.size();
+
+                String failure = this.failure(
+                    SpreadsheetFormatterSelector.parse(
+                        FORMATTER_SELECTOR_TEXT.get(index)
+                    ),
+                    cache.spreadsheetFormatterSelector(
+                        FORMATTER_SELECTOR_TEXT.get(index)
+                    )
+                );
+                if (null == failure) {
+                    failure = this.failure(
+                        SpreadsheetComparatorSelector.parse(
+                            COMPARATOR_SELECTOR_TEXT.get(index)
+                        ),
+                        cache.spreadsheetComparatorSelector(
+                            COMPARATOR_SELECTOR_TEXT.get(index)
+                        )
+                    );
+                }
+                return failure;
+            }
+        );
+    }
+
+    /**
+     * Runs the call followed by pluginInfos, failing if the infos changed.
+     */
+    private void runAndCheck(final PluginProvider provider,
+                             final Set<PluginInfo> pluginInfos,
+                             final Call call) throws Exception {
+        this.runAndCheck(
+            provider.name()
+                .value(),
+            (i) -> {
+                final String failure = call.call(i);
+                return null == failure && false == pluginInfos.equals(provider.pluginInfos()) ?
+                    "pluginInfos changed" :
+                    failure;
+            }
+        );
+    }
+
+    /**
+     * Runs the call for each thread count from 1 to {@link #MAX_THREADS}, doubling each time, and fails with every
+     * mismatch that was found.
+     */
+    private void runAndCheck(final String label,
+                             final Call call) throws Exception {
+        for (int t = 1; t <= MAX_THREADS; t *= 2) {
+            final int threads = t;
+            final Queue<String> failures = new ConcurrentLinkedQueue<>();
+            final CountDownLatch start = new CountDownLatch(1);
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+            try {
+                for (int thread = 0; thread < threads; thread++) {
+                    final int offset = thread;
+                    executor.execute(
+                        () -> {
+                            try {
+                                start.await();
+
+                                for (int i = 0; i < ITERATIONS; i++) {
+                                    final String failure = call.call(i + offset);
+                                    if (null != failure) {
+                                        failures.add(failure);
+                                    }
+                                }
+                            } catch (final Throwable cause) {
+                                failures.add(cause.toString());
+                            }
+                        }
+                    );
+                }
+
+                start.countDown();
+            } finally {
+                executor.shutdown();
+            }
+
+            this.checkEquals(
+                true,
+                executor.awaitTermination(1, TimeUnit.MINUTES),
+                () -> label(label, threads) + " did not finish"
+            );
+            this.checkEquals(
+                Lists.empty(),
+                Lists.of(failures.toArray()),
+                () -> label(label, threads) + " failures"
+            );
+        }
+    }
+
+    private static String label(final String label,
+                                final int threads) {
+        return label + " with " + threads + " threads";
+    }
+
+    private String failure(final Object expected,
+                           final Object actual) {
+        return expected.equals(actual) ?
+            null :
+            "Expected " + expected + " got " + actual;
+    }
+
+    @FunctionalInterface
+    interface Call {
+        /**
+         * Returns a failure message or null if the result was correct.
+         */
+        String call(final int i);
+    }
+}
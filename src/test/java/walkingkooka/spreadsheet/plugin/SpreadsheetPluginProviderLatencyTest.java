@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.HashCodeEqualsDefinedTesting2;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginProviderLatencyTest implements ClassTesting2<SpreadsheetPluginProviderLatency>,
+    HashCodeEqualsDefinedTesting2<SpreadsheetPluginProviderLatency>,
+    ToStringTesting<SpreadsheetPluginProviderLatency> {
+
+    @Test
+    public void testBucket() {
+        this.bucketAndCheck(0, 0);
+        this.bucketAndCheck(1, 1);
+        this.bucketAndCheck(2, 2);
+        this.bucketAndCheck(3, 2);
+        this.bucketAndCheck(4, 3);
+        this.bucketAndCheck(1023, 10);
+        this.bucketAndCheck(1024, 11);
+        this.bucketAndCheck(Long.MAX_VALUE, 63);
+    }
+
+    private void bucketAndCheck(final long nanos,
+                                final int expected) {
+        this.checkEquals(
+            expected,
+            SpreadsheetPluginProviderLatency.bucket(nanos),
+            () -> "bucket " + nanos
+        );
+    }
+
+    @Test
+    public void testMeanNanos() {
+        this.checkEquals(
+            250L,
+            this.createObject()
+                .meanNanos()
+        );
+    }
+
+    @Test
+    public void testMeanNanosEmpty() {
+        this.checkEquals(
+            0L,
+            SpreadsheetPluginProviderLatency.with(
+                0,
+                0,
+                0,
+                0,
+                new long[SpreadsheetPluginProviderLatency.BUCKET_COUNT]
+            ).meanNanos()
+        );
+    }
+
+    @Test
+    public void testPercentileInvalidFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createObject()
+                .percentileNanos(101)
+        );
+    }
+
+    @Test
+    public void testPercentileNanos() {
+        final SpreadsheetPluginProviderLatency latency = this.createObject();
+
+        // 100ns is in the 64..127 bucket, 700ns in the 512..1023 bucket but capped by max
+        this.checkEquals(127L, latency.percentileNanos(50), "p50");
+        this.checkEquals(127L, latency.percentileNanos(75), "p75");
+        this.checkEquals(700L, latency.percentileNanos(99), "p99");
+    }
+
+    @Test
+    public void testDifferentCount() {
+        final long[] buckets = buckets();
+
+        this.checkNotEquals(
+            SpreadsheetPluginProviderLatency.with(
+                5,
+                0,
+                1000,
+                700,
+                buckets
+            )
+        );
+    }
+
+    @Test
+    public void testDifferentErrors() {
+        this.checkNotEquals(
+            SpreadsheetPluginProviderLatency.with(
+                4,
+                1,
+                1000,
+                700,
+                buckets()
+            )
+        );
+    }
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createObject(),
+            "count=4 errors=0 mean=250ns p50=127ns p99=700ns max=700ns"
+        );
+    }
+
+    @Override
+    public SpreadsheetPluginProviderLatency createObject() {
+        return SpreadsheetPluginProviderLatency.with(
+            4,
+            0,
+            1000,
+            700,
+            buckets()
+        );
+    }
+
+    /**
+     * Three calls of 100ns and one of 700ns.
+     */
+    private static long[] buckets() {
+        final long[] buckets = new long[SpreadsheetPluginProviderLatency.BUCKET_COUNT];
+        buckets[SpreadsheetPluginProviderLatency.bucket(100)] = 3;
+        buckets[SpreadsheetPluginProviderLatency.bucket(700)] = 1;
+        return buckets;
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginProviderLatency> type() {
+        return SpreadsheetPluginProviderLatency.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
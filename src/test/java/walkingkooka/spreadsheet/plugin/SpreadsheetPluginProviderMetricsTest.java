@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginProviderMetricsTest implements ClassTesting2<SpreadsheetPluginProviderMetrics> {
+
+    @Test
+    public void testWithNegativeMaxNamesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetPluginProviderMetrics.with(-1)
+        );
+    }
+
+    @Test
+    public void testSnapshotEmpty() {
+        this.checkEquals(
+            Maps.empty(),
+            SpreadsheetPluginProviderMetrics.empty()
+                .snapshot()
+        );
+    }
+
+    @Test
+    public void testRecord() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+        metrics.record("method", "name", 100, false);
+        metrics.record("method", "name", 700, true);
+        metrics.record("infos", null, 5, false);
+
+        final Map<String, SpreadsheetPluginProviderLatency> snapshot = metrics.snapshot();
+        this.checkEquals(
+            2,
+            snapshot.size(),
+            () -> snapshot.toString()
+        );
+
+        final SpreadsheetPluginProviderLatency latency = snapshot.get("method name");
+        this.checkEquals(2L, latency.count(), "count");
+        this.checkEquals(1L, latency.errors(), "errors");
+        this.checkEquals(800L, latency.totalNanos(), "totalNanos");
+        this.checkEquals(700L, latency.maxNanos(), "maxNanos");
+
+        this.checkEquals(
+            1L,
+            snapshot.get("infos")
+                .count(),
+            "infos count"
+        );
+    }
+
+    @Test
+    public void testRecordMaxNames() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.with(1);
+        metrics.record("method", "name1", 100, false);
+        metrics.record("method", "name2", 200, false);
+        metrics.record("method", "name3", 300, true);
+        metrics.record("method", "name1", 400, false);
+
+        final Map<String, SpreadsheetPluginProviderLatency> snapshot = metrics.snapshot();
+        this.checkEquals(
+            2,
+            snapshot.size(),
+            () -> snapshot.toString()
+        );
+        this.checkEquals(
+            2L,
+            snapshot.get("method name1")
+                .count(),
+            "name1 count"
+        );
+
+        final SpreadsheetPluginProviderLatency other = snapshot.get("method " + SpreadsheetPluginProviderMetrics.OTHER);
+        this.checkEquals(2L, other.count(), "other count");
+        this.checkEquals(1L, other.errors(), "other errors");
+    }
+
+    @Test
+    public void testSnapshotReadOnly() {
+        final SpreadsheetPluginProviderMetrics metrics = SpreadsheetPluginProviderMetrics.empty();
+        metrics.record("method", "name", 100, false);
+
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> metrics.snapshot()
+                .clear()
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginProviderMetrics> type() {
+        return SpreadsheetPluginProviderMetrics.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
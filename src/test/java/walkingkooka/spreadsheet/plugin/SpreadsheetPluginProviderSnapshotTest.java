@@ -0,0 +1,656 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.net.AbsoluteUrl;
+import walkingkooka.net.Url;
+import walkingkooka.plugin.PluginInfo;
+import walkingkooka.plugin.PluginName;
+import walkingkooka.plugin.PluginProvider;
+import walkingkooka.plugin.PluginProviderName;
+import walkingkooka.plugin.PluginProviderTesting;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfo;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.pattern.SpreadsheetPattern;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfo;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterInfoSet;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterName;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProvider;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterProviderSamplesContext;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSample;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelectorToken;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginProviderSnapshotTest implements PluginProviderTesting<SpreadsheetPluginProviderSnapshot>,
+    SpreadsheetMetadataTesting,
+    ToStringTesting<SpreadsheetPluginProviderSnapshot> {
+
+    private final static PluginProviderName NAME = PluginProviderName.with("Snapshot123");
+
+    private final static AbsoluteUrl URL = Url.parseAbsolute("https://example.com/snapshot123");
+
+    private final static Set<PluginInfo> PLUGIN_INFOS = Sets.of(
+        PluginInfo.with(
+            Url.parseAbsolute("https://example.com/plugin1"),
+            PluginName.with("plugin1")
+        ),
+        PluginInfo.with(
+            Url.parseAbsolute("https://example.com/plugin2"),
+            PluginName.with("plugin2")
+        )
+    );
+
+    private final static SpreadsheetFormatterInfoSet FORMATTER_INFOS = SpreadsheetFormatterInfoSet.EMPTY.concat(
+        SpreadsheetFormatterInfo.with(
+            Url.parseAbsolute("https://example.com/date"),
+            SpreadsheetFormatterName.with("date")
+        )
+    );
+
+    private final static SpreadsheetComparatorInfoSet COMPARATOR_INFOS = SpreadsheetComparatorInfoSet.EMPTY.concat(
+        SpreadsheetComparatorInfo.with(
+            Url.parseAbsolute("https://example.com/text"),
+            SpreadsheetComparatorName.with("text")
+        )
+    );
+
+    private final static SpreadsheetPluginProviderSnapshot.Infos INFOS = new SpreadsheetPluginProviderSnapshot.Infos(
+        PLUGIN_INFOS,
+        FORMATTER_INFOS,
+        COMPARATOR_INFOS
+    );
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger enumerations = new AtomicInteger();
+
+    private final List<Runnable> refreshes = Lists.array();
+
+    private Set<PluginInfo> pluginInfos = PLUGIN_INFOS;
+
+    @Test
+    public void testWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderSnapshot.with(
+                null,
+                this.file(),
+                this.refreshes::add
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullFileFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderSnapshot.with(
+                new TestPluginProvider(NAME, URL),
+                null,
+                this.refreshes::add
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullExecutorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderSnapshot.with(
+                new TestPluginProvider(NAME, URL),
+                this.file(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testNameAndUrl() {
+        final SpreadsheetPluginProviderSnapshot snapshot = this.createPluginProvider();
+        this.checkEquals(NAME, snapshot.name(), "name");
+        this.checkEquals(URL, snapshot.url(), "url");
+    }
+
+    @Test
+    public void testPluginInfosMissingFileEnumeratesAndWrites() {
+        this.pluginInfosAndCheck(
+            this.createPluginProvider(),
+            PLUGIN_INFOS
+        );
+        this.checkEquals(1, this.enumerations.get(), "enumerations");
+        this.checkEquals(true, Files.exists(this.file()), "snapshot written");
+        this.checkEquals(0, this.refreshes.size(), "refreshes");
+    }
+
+    @Test
+    public void testPluginInfosCachedInstance() {
+        final SpreadsheetPluginProviderSnapshot snapshot = this.createPluginProvider();
+        assertSame(snapshot.pluginInfos(), snapshot.pluginInfos());
+        this.checkEquals(1, this.enumerations.get(), "enumerations");
+    }
+
+    @Test
+    public void testValidSnapshotNotEnumeratedOrRefreshed() {
+        this.createPluginProvider()
+            .pluginInfos();
+
+        final SpreadsheetPluginProviderSnapshot snapshot = this.createPluginProvider();
+        this.pluginInfosAndCheck(
+            snapshot,
+            PLUGIN_INFOS
+        );
+        this.checkEquals(FORMATTER_INFOS, snapshot.spreadsheetFormatterInfos(), "spreadsheetFormatterInfos");
+        this.checkEquals(COMPARATOR_INFOS, snapshot.spreadsheetComparatorInfos(), "spreadsheetComparatorInfos");
+
+        this.checkEquals(1, this.enumerations.get(), "enumerations");
+        this.checkEquals(0, this.refreshes.size(), "refreshes");
+    }
+
+    @Test
+    public void testPluginInfosDifferentNameEnumerates() {
+        this.createPluginProvider()
+            .pluginInfos();
+
+        this.pluginInfosAndCheck(
+            SpreadsheetPluginProviderSnapshot.with(
+                new TestPluginProvider(
+                    PluginProviderName.with("Different"),
+                    URL
+                ),
+                this.file(),
+                this.refreshes::add
+            ),
+            PLUGIN_INFOS
+        );
+        this.checkEquals(2, this.enumerations.get(), "enumerations");
+    }
+
+    @Test
+    public void testPluginInfosDifferentUrlEnumerates() {
+        this.createPluginProvider()
+            .pluginInfos();
+
+        this.pluginInfosAndCheck(
+            SpreadsheetPluginProviderSnapshot.with(
+                new TestPluginProvider(
+                    NAME,
+                    Url.parseAbsolute("https://example.com/different")
+                ),
+                this.file(),
+                this.refreshes::add
+            ),
+            PLUGIN_INFOS
+        );
+        this.checkEquals(2, this.enumerations.get(), "enumerations");
+    }
+
+    @Test
+    public void testPluginInfosCorruptSnapshotEnumerates() throws IOException {
+        Files.write(
+            this.file(),
+            new byte[]{1, 2, 3}
+        );
+
+        this.pluginInfosAndCheck(
+            this.createPluginProvider(),
+            PLUGIN_INFOS
+        );
+        this.checkEquals(1, this.enumerations.get(), "enumerations");
+    }
+
+    // refresh..........................................................................................................
+
+    @Test
+    public void testRefreshUnchanged() {
+        final SpreadsheetPluginProviderSnapshot snapshot = this.createPluginProvider();
+        final Set<PluginInfo> loaded = snapshot.pluginInfos();
+
+        final AtomicInteger listened = new AtomicInteger();
+        snapshot.addRefreshListener(listened::incrementAndGet);
+
+        this.checkEquals(true, snapshot.refresh(), "refresh");
+        this.refreshes.forEach(Runnable::run);
+
+        assertSame(
+            loaded,
+            snapshot.pluginInfos()
+        );
+        this.checkEquals(2, this.enumerations.get(), "enumerations");
+        this.checkEquals(0, listened.get(), "listener");
+    }
+
+    @Test
+    public void testRefreshChanged() throws IOException {
+        final SpreadsheetPluginProviderSnapshot snapshot = this.createPluginProvider();
+        this.pluginInfosAndCheck(
+            snapshot,
+            PLUGIN_INFOS
+        );
+
+        final AtomicInteger listened = new AtomicInteger();
+        snapshot.addRefreshListener(listened::incrementAndGet);
+
+        final Set<PluginInfo> upgraded = Sets.of(
+            PluginInfo.with(
+                Url.parseAbsolute("https://example.com/plugin3"),
+                PluginName.with("plugin3")
+            )
+        );
+        this.pluginInfos = upgraded;
+
+        this.checkEquals(true, snapshot.refresh(), "refresh");
+        this.refreshes.forEach(Runnable::run);
+
+        this.pluginInfosAndCheck(
+            snapshot,
+            upgraded
+        );
+        this.checkEquals(1, listened.get(), "listener");
+        this.checkEquals(
+            Optional.of(
+                new SpreadsheetPluginProviderSnapshot.Infos(
+                    upgraded,
+                    FORMATTER_INFOS,
+                    COMPARATOR_INFOS
+                )
+            ),
+            SpreadsheetPluginProviderSnapshot.read(
+                this.file(),
+                NAME,
+                URL
+            ),
+            "snapshot rewritten"
+        );
+    }
+
+    @Test
+    public void testRefreshRemovedListener() {
+        final SpreadsheetPluginProviderSnapshot snapshot = this.createPluginProvider();
+        snapshot.pluginInfos();
+
+        final AtomicInteger listened = new AtomicInteger();
+        snapshot.addRefreshListener(listened::incrementAndGet)
+            .run();
+
+        this.pluginInfos = Sets.empty();
+
+        snapshot.refresh();
+        this.refreshes.forEach(Runnable::run);
+
+        this.checkEquals(0, listened.get(), "listener");
+    }
+
+    @Test
+    public void testRefreshRejectedKeepsInfos() {
+        final SpreadsheetPluginProviderSnapshot snapshot = SpreadsheetPluginProviderSnapshot.with(
+            new TestPluginProvider(NAME, URL),
+            this.file(),
+            (r) -> {
+                throw new RejectedExecutionException();
+            }
+        );
+        final Set<PluginInfo> loaded = snapshot.pluginInfos();
+
+        this.pluginInfos = Sets.empty();
+
+        this.checkEquals(false, snapshot.refresh(), "refresh");
+        assertSame(
+            loaded,
+            snapshot.pluginInfos()
+        );
+    }
+
+    @Test
+    public void testRefreshReindexesCollection() {
+        final SpreadsheetPluginProviderSnapshot snapshot = this.createPluginProvider();
+
+        final SpreadsheetPluginProviderCollection collection = SpreadsheetPluginProviderCollection.with(
+            PluginProviderName.with("Collection123"),
+            Url.parseAbsolute("https://example.com/collection"),
+            Sets.of(snapshot)
+        );
+        this.checkEquals(
+            PLUGIN_INFOS,
+            collection.pluginInfos(),
+            "pluginInfos"
+        );
+
+        final Set<PluginInfo> upgraded = Sets.of(
+            PluginInfo.with(
+                Url.parseAbsolute("https://example.com/plugin3"),
+                PluginName.with("plugin3")
+            )
+        );
+        this.pluginInfos = upgraded;
+
+        snapshot.refresh();
+        this.refreshes.forEach(Runnable::run);
+
+        this.checkEquals(
+            upgraded,
+            collection.pluginInfos(),
+            "pluginInfos after refresh"
+        );
+    }
+
+    // SpreadsheetFormatterProvider.....................................................................................
+
+    @Test
+    public void testSpreadsheetFormatter() {
+        this.checkEquals(
+            SpreadsheetPattern.parseDateFormatPattern("dd/mm/yyyy")
+                .formatter(),
+            this.createPluginProvider()
+                .spreadsheetFormatter(
+                    SpreadsheetFormatterSelector.parse("date dd/mm/yyyy"),
+                    PROVIDER_CONTEXT
+                )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterNotFormatterProviderFails() {
+        final SpreadsheetPluginProviderSnapshot snapshot = SpreadsheetPluginProviderSnapshot.with(
+            new PluginProvider() {
+                @Override
+                public PluginProviderName name() {
+                    return NAME;
+                }
+
+                @Override
+                public AbsoluteUrl url() {
+                    return URL;
+                }
+
+                @Override
+                public Set<PluginInfo> pluginInfos() {
+                    return PLUGIN_INFOS;
+                }
+            },
+            this.file(),
+            this.refreshes::add
+        );
+        this.checkEquals(
+            SpreadsheetFormatterInfoSet.EMPTY,
+            snapshot.spreadsheetFormatterInfos(),
+            "spreadsheetFormatterInfos"
+        );
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> snapshot.spreadsheetFormatter(
+                SpreadsheetFormatterSelector.parse("date dd/mm/yyyy"),
+                PROVIDER_CONTEXT
+            )
+        );
+    }
+
+    // SpreadsheetComparatorProvider....................................................................................
+
+    @Test
+    public void testSpreadsheetComparator() {
+        this.checkEquals(
+            SpreadsheetComparatorProviders.spreadsheetComparators()
+                .spreadsheetComparator(
+                    SpreadsheetComparatorSelector.parse("text"),
+                    PROVIDER_CONTEXT
+                ),
+            this.createPluginProvider()
+                .spreadsheetComparator(
+                    SpreadsheetComparatorSelector.parse("text"),
+                    PROVIDER_CONTEXT
+                )
+        );
+    }
+
+    // file.............................................................................................................
+
+    @Test
+    public void testReadMissingFile() throws IOException {
+        this.checkEquals(
+            Optional.empty(),
+            SpreadsheetPluginProviderSnapshot.read(
+                this.file(),
+                NAME,
+                URL
+            )
+        );
+    }
+
+    @Test
+    public void testWriteTruncatedRead() throws IOException {
+        final Path file = this.file();
+        SpreadsheetPluginProviderSnapshot.write(
+            file,
+            NAME,
+            URL,
+            INFOS
+        );
+
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(
+            file,
+            Arrays.copyOf(bytes, bytes.length - 1)
+        );
+
+        this.checkEquals(
+            Optional.empty(),
+            SpreadsheetPluginProviderSnapshot.read(
+                file,
+                NAME,
+                URL
+            )
+        );
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        final Path file = this.file();
+        SpreadsheetPluginProviderSnapshot.write(
+            file,
+            NAME,
+            URL,
+            INFOS
+        );
+
+        this.checkEquals(
+            Optional.of(INFOS),
+            SpreadsheetPluginProviderSnapshot.read(
+                file,
+                NAME,
+                URL
+            )
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final TestPluginProvider provider = new TestPluginProvider(NAME, URL);
+
+        this.toStringAndCheck(
+            SpreadsheetPluginProviderSnapshot.with(
+                provider,
+                this.file(),
+                this.refreshes::add
+            ),
+            provider.toString()
+        );
+    }
+
+    @Override
+    public SpreadsheetPluginProviderSnapshot createPluginProvider() {
+        return SpreadsheetPluginProviderSnapshot.with(
+            new TestPluginProvider(
+                NAME,
+                URL
+            ),
+            this.file(),
+            this.refreshes::add
+        );
+    }
+
+    private Path file() {
+        return this.directory.resolve("plugins.snapshot");
+    }
+
+    /**
+     * A formatter and comparator provider counting enumerations of its {@link PluginInfo}.
+     */
+    private final class TestPluginProvider implements SpreadsheetFormatterProvider,
+        SpreadsheetComparatorProvider {
+
+        TestPluginProvider(final PluginProviderName name,
+                           final AbsoluteUrl url) {
+            this.name = name;
+            this.url = url;
+        }
+
+        @Override
+        public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterSelector selector,
+                                                         final ProviderContext context) {
+            return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+                selector,
+                context
+            );
+        }
+
+        @Override
+        public SpreadsheetFormatter spreadsheetFormatter(final SpreadsheetFormatterName name,
+                                                         final List<?> values,
+                                                         final ProviderContext context) {
+            return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+                name,
+                values,
+                context
+            );
+        }
+
+        @Override
+        public Optional<SpreadsheetFormatterSelectorToken> spreadsheetFormatterNextToken(final SpreadsheetFormatterSelector selector) {
+            return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterNextToken(selector);
+        }
+
+        @Override
+        public List<SpreadsheetFormatterSample> spreadsheetFormatterSamples(final SpreadsheetFormatterSelector selector,
+                                                                            final boolean includeSamples,
+                                                                            final SpreadsheetFormatterProviderSamplesContext context) {
+            return SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterSamples(
+                selector,
+                includeSamples,
+                context
+            );
+        }
+
+        @Override
+        public SpreadsheetFormatterInfoSet spreadsheetFormatterInfos() {
+            return FORMATTER_INFOS;
+        }
+
+        @Override
+        public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                              final ProviderContext context) {
+            return SpreadsheetComparatorProviders.spreadsheetComparators()
+                .spreadsheetComparator(
+                    selector,
+                    context
+                );
+        }
+
+        @Override
+        public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                              final List<?> values,
+                                                              final ProviderContext context) {
+            return SpreadsheetComparatorProviders.spreadsheetComparators()
+                .spreadsheetComparator(
+                    name,
+                    values,
+                    context
+                );
+        }
+
+        @Override
+        public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+            return COMPARATOR_INFOS;
+        }
+
+        @Override
+        public PluginProviderName name() {
+            return this.name;
+        }
+
+        private final PluginProviderName name;
+
+        @Override
+        public AbsoluteUrl url() {
+            return this.url;
+        }
+
+        private final AbsoluteUrl url;
+
+        @Override
+        public Set<PluginInfo> pluginInfos() {
+            SpreadsheetPluginProviderSnapshotTest.this.enumerations.incrementAndGet();
+            return SpreadsheetPluginProviderSnapshotTest.this.pluginInfos;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + " " + this.url;
+        }
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginProviderSnapshot> type() {
+        return SpreadsheetPluginProviderSnapshot.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.plugin.ProviderContext;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparator;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfo;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorInfoSet;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorName;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProvider;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorProviders;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginProviderWarmupTest implements SpreadsheetMetadataTesting,
+    ClassTesting2<SpreadsheetPluginProviderWarmup> {
+
+    private final static Executor EXECUTOR = Runnable::run;
+
+    private final static BiConsumer<String, Optional<Throwable>> PROGRESS = (n, f) -> {
+    };
+
+    @Test
+    public void testSpreadsheetFormatterProviderWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderWarmup.spreadsheetFormatterProvider(
+                null,
+                SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT,
+                EXECUTOR,
+                PROGRESS
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterProviderWithNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderWarmup.spreadsheetFormatterProvider(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                null,
+                EXECUTOR,
+                PROGRESS
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterProviderWithNullExecutorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderWarmup.spreadsheetFormatterProvider(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT,
+                null,
+                PROGRESS
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterProviderWithNullProgressFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderWarmup.spreadsheetFormatterProvider(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT,
+                EXECUTOR,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterProviderReportsEveryFormatter() {
+        final List<String> names = Lists.array();
+        final List<String> failed = Lists.array();
+
+        final Map<String, Throwable> failures = SpreadsheetPluginProviderWarmup.spreadsheetFormatterProvider(
+            SPREADSHEET_FORMATTER_PROVIDER,
+            SPREADSHEET_FORMATTER_PROVIDER_SAMPLES_CONTEXT,
+            EXECUTOR,
+            (n, f) -> {
+                names.add(n);
+                if (f.isPresent()) {
+                    failed.add(n);
+                }
+            }
+        ).join();
+
+        this.checkEquals(
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatterInfos()
+                .stream()
+                .map(i -> i.name().value())
+                .collect(Collectors.toList()),
+            names,
+            "progress names"
+        );
+
+        this.checkEquals(
+            new TreeSet<>(failed),
+            new TreeSet<>(failures.keySet()),
+            "failures"
+        );
+        this.checkEquals(
+            true,
+            failures.isEmpty(),
+            () -> failures.toString()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorProviderWithNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderWarmup.spreadsheetComparatorProvider(
+                null,
+                PROVIDER_CONTEXT,
+                EXECUTOR,
+                PROGRESS
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorProviderWithNullContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderWarmup.spreadsheetComparatorProvider(
+                SpreadsheetComparatorProviders.spreadsheetComparators(),
+                null,
+                EXECUTOR,
+                PROGRESS
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorProviderWithNullExecutorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderWarmup.spreadsheetComparatorProvider(
+                SpreadsheetComparatorProviders.spreadsheetComparators(),
+                PROVIDER_CONTEXT,
+                null,
+                PROGRESS
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorProviderWithNullProgressFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviderWarmup.spreadsheetComparatorProvider(
+                SpreadsheetComparatorProviders.spreadsheetComparators(),
+                PROVIDER_CONTEXT,
+                EXECUTOR,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorProvider() {
+        final SpreadsheetComparatorProvider provider = SpreadsheetComparatorProviders.spreadsheetComparators();
+        final List<String> names = Lists.array();
+
+        final Map<String, Throwable> failures = SpreadsheetPluginProviderWarmup.spreadsheetComparatorProvider(
+            provider,
+            PROVIDER_CONTEXT,
+            EXECUTOR,
+            (n, f) -> {
+                this.checkEquals(
+                    Optional.empty(),
+                    f,
+                    n
+                );
+                names.add(n);
+            }
+        ).join();
+
+        this.checkEquals(
+            provider.spreadsheetComparatorInfos()
+                .stream()
+                .map(SpreadsheetComparatorInfo::name)
+                .map(n -> n.value())
+                .collect(Collectors.toList()),
+            names,
+            "progress names"
+        );
+        this.checkEquals(
+            true,
+            failures.isEmpty(),
+            () -> failures.toString()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorProviderLinkageErrorContinues() {
+        final SpreadsheetComparatorProvider standard = SpreadsheetComparatorProviders.spreadsheetComparators();
+        final ExceptionInInitializerError error = new ExceptionInInitializerError("Broken date");
+
+        final SpreadsheetComparatorProvider provider = new SpreadsheetComparatorProvider() {
+            @Override
+            public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorSelector selector,
+                                                                  final ProviderContext context) {
+                return standard.spreadsheetComparator(
+                    selector,
+                    context
+                );
+            }
+
+            @Override
+            public SpreadsheetComparator<?> spreadsheetComparator(final SpreadsheetComparatorName name,
+                                                                  final List<?> values,
+                                                                  final ProviderContext context) {
+                if (name.value().equals("date")) {
+                    throw error;
+                }
+                return standard.spreadsheetComparator(
+                    name,
+                    values,
+                    context
+                );
+            }
+
+            @Override
+            public SpreadsheetComparatorInfoSet spreadsheetComparatorInfos() {
+                return standard.spreadsheetComparatorInfos();
+            }
+        };
+
+        final List<String> names = Lists.array();
+
+        final Map<String, Throwable> failures = SpreadsheetPluginProviderWarmup.spreadsheetComparatorProvider(
+            provider,
+            PROVIDER_CONTEXT,
+            EXECUTOR,
+            (n, f) -> names.add(n)
+        ).join();
+
+        this.checkEquals(
+            standard.spreadsheetComparatorInfos()
+                .stream()
+                .map(SpreadsheetComparatorInfo::name)
+                .map(n -> n.value())
+                .collect(Collectors.toList()),
+            names,
+            "progress names"
+        );
+        this.checkEquals(
+            1,
+            failures.size(),
+            () -> failures.toString()
+        );
+        assertSame(
+            error,
+            failures.get("date")
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorProviderRunsOnExecutor() {
+        final List<Runnable> submitted = Lists.array();
+
+        SpreadsheetPluginProviderWarmup.spreadsheetComparatorProvider(
+            SpreadsheetComparatorProviders.spreadsheetComparators(),
+            PROVIDER_CONTEXT,
+            submitted::add,
+            PROGRESS
+        );
+
+        this.checkEquals(
+            1,
+            submitted.size(),
+            "submitted"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginProviderWarmup> type() {
+        return SpreadsheetPluginProviderWarmup.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
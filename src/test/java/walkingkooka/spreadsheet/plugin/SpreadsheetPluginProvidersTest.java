@@ -17,12 +17,166 @@
 
 package walkingkooka.spreadsheet.plugin;
 
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
 import walkingkooka.reflect.JavaVisibility;
 import walkingkooka.reflect.PublicStaticHelperTesting;
+import walkingkooka.spreadsheet.compare.SpreadsheetComparators;
+import walkingkooka.spreadsheet.format.SpreadsheetFormatter;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+import walkingkooka.spreadsheet.meta.SpreadsheetMetadataTesting;
+import walkingkooka.tree.text.TextNode;
 
 import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-public final class SpreadsheetPluginProvidersTest implements PublicStaticHelperTesting<SpreadsheetPluginProviders> {
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginProvidersTest implements PublicStaticHelperTesting<SpreadsheetPluginProviders>,
+    SpreadsheetMetadataTesting {
+
+    private final static SpreadsheetFormatterSelector TEXT = SpreadsheetFormatterSelector.parse("text @@");
+
+    @Test
+    public void testFormatNullProviderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviders.format(
+                null,
+                TEXT,
+                Lists.empty(),
+                PROVIDER_CONTEXT,
+                () -> SPREADSHEET_FORMATTER_CONTEXT,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testFormatNullSelectorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviders.format(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                null,
+                Lists.empty(),
+                PROVIDER_CONTEXT,
+                () -> SPREADSHEET_FORMATTER_CONTEXT,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testFormatNullProviderContextFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> SpreadsheetPluginProviders.format(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                TEXT,
+                Lists.empty(),
+                null,
+                () -> SPREADSHEET_FORMATTER_CONTEXT,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testFormat() {
+        final SpreadsheetFormatter formatter = SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+            TEXT,
+            PROVIDER_CONTEXT
+        );
+
+        final List<Object> values = Lists.array();
+        final List<Optional<TextNode>> expected = Lists.array();
+
+        for (int i = 0; i < SpreadsheetFormatterFormatAction.THRESHOLD * 2 + 1; i++) {
+            final String value = "value-" + i;
+            values.add(value);
+            expected.add(
+                formatter.format(
+                    value,
+                    SPREADSHEET_FORMATTER_CONTEXT
+                )
+            );
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            this.checkEquals(
+                expected,
+                SpreadsheetPluginProviders.format(
+                    SPREADSHEET_FORMATTER_PROVIDER,
+                    TEXT,
+                    values,
+                    PROVIDER_CONTEXT,
+                    () -> SPREADSHEET_FORMATTER_CONTEXT,
+                    pool
+                )
+            );
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFormatUnknownSelectorFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetPluginProviders.format(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                SpreadsheetFormatterSelector.parse("unknown"),
+                Lists.of("value"),
+                PROVIDER_CONTEXT,
+                () -> SPREADSHEET_FORMATTER_CONTEXT,
+                ForkJoinPool.commonPool()
+            )
+        );
+    }
+
+    @Test
+    public void testKeySort() {
+        this.checkEquals(
+            Lists.of(1, 2, 0),
+            IntStream.of(
+                SpreadsheetPluginProviders.keySort(
+                    Lists.of(
+                        LocalDate.of(2000, 12, 31),
+                        LocalDate.of(1999, 1, 1),
+                        LocalDate.of(2000, 1, 1)
+                    ),
+                    SpreadsheetComparators.date()
+                )
+            ).boxed()
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterText() {
+        this.checkEquals(
+            SPREADSHEET_FORMATTER_PROVIDER.spreadsheetFormatter(
+                TEXT,
+                PROVIDER_CONTEXT
+            ),
+            SpreadsheetPluginProviders.spreadsheetFormatter(
+                SPREADSHEET_FORMATTER_PROVIDER,
+                TEXT.toString(),
+                PROVIDER_CONTEXT
+            )
+        );
+    }
+
+    // PublicStaticHelperTesting........................................................................................
     @Override
     public Class<SpreadsheetPluginProviders> type() {
         return SpreadsheetPluginProviders.class;
@@ -35,6 +189,31 @@ public final class SpreadsheetPluginProvidersTest implements PublicStaticHelperT
 
     @Override
     public boolean canHavePublicTypes(final Method method) {
-        return false;
+        return PUBLIC_TYPES.contains(
+            method.getName()
+        );
     }
+
+    /**
+     * The factories returning or accepting the public types of this package.
+     */
+    private final static Set<String> PUBLIC_TYPES = Sets.of(
+        "collection",
+        "pluginInfosJson",
+        "pluginInfosSince",
+        "spreadsheetComparatorInfosJson",
+        "spreadsheetComparatorProviderCache",
+        "spreadsheetComparatorProviderGuarded",
+        "spreadsheetComparatorProviderInstrumented",
+        "spreadsheetComparatorProviderReloadable",
+        "spreadsheetFormatterInfosJson",
+        "spreadsheetFormatterProviderCache",
+        "spreadsheetFormatterProviderGuarded",
+        "spreadsheetFormatterProviderInstrumented",
+        "spreadsheetFormatterProviderReloadable",
+        "spreadsheetFormatterRenderCache",
+        "spreadsheetPluginProviderBulkhead",
+        "spreadsheetPluginProviderMetrics",
+        "spreadsheetPluginSelectorCache"
+    );
 }
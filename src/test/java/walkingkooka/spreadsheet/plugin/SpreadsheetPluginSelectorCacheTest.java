@@ -0,0 +1,205 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+import walkingkooka.spreadsheet.compare.provider.SpreadsheetComparatorSelector;
+import walkingkooka.spreadsheet.format.provider.SpreadsheetFormatterSelector;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SpreadsheetPluginSelectorCacheTest implements ClassTesting2<SpreadsheetPluginSelectorCache>,
+    ToStringTesting<SpreadsheetPluginSelectorCache> {
+
+    @Test
+    public void testWithZeroMaxSizeFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SpreadsheetPluginSelectorCache.with(0)
+        );
+    }
+
+    @Test
+    public void testMaxSize() {
+        this.checkEquals(
+            2,
+            SpreadsheetPluginSelectorCache.with(2)
+                .maxSize()
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelectorNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createCache()
+                .spreadsheetFormatterSelector(null)
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelector() {
+        final String text = "text @@";
+
+        this.checkEquals(
+            SpreadsheetFormatterSelector.parse(text),
+            this.createCache()
+                .spreadsheetFormatterSelector(text)
+        );
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelectorCached() {
+        final SpreadsheetPluginSelectorCache cache = this.createCache();
+        final String text = "date dd/mm/yyyy";
+
+        assertSame(
+            cache.spreadsheetFormatterSelector(text),
+            cache.spreadsheetFormatterSelector(
+                new String(text)
+            )
+        );
+        this.checkEquals(1L, cache.hits(), "hits");
+        this.checkEquals(1L, cache.misses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetFormatterSelectorNotSharedBetweenCaches() {
+        final String text = "date dd/mm/yyyy";
+        final SpreadsheetPluginSelectorCache cache = this.createCache();
+        cache.spreadsheetFormatterSelector(text);
+
+        final SpreadsheetPluginSelectorCache other = this.createCache();
+        other.spreadsheetFormatterSelector(text);
+
+        this.checkEquals(1L, other.misses(), "misses");
+    }
+
+    @Test
+    public void testSpreadsheetComparatorSelectorNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createCache()
+                .spreadsheetComparatorSelector(null)
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorSelector() {
+        final String text = "date";
+
+        this.checkEquals(
+            SpreadsheetComparatorSelector.parse(text),
+            this.createCache()
+                .spreadsheetComparatorSelector(text)
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorSelectorCached() {
+        final SpreadsheetPluginSelectorCache cache = this.createCache();
+        final String text = "time";
+
+        assertSame(
+            cache.spreadsheetComparatorSelector(text),
+            cache.spreadsheetComparatorSelector(
+                new String(text)
+            )
+        );
+    }
+
+    @Test
+    public void testSpreadsheetComparatorSelectorInvalidNotCached() {
+        final SpreadsheetPluginSelectorCache cache = this.createCache();
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> cache.spreadsheetComparatorSelector("!invalid")
+        );
+        this.checkEquals(
+            0,
+            cache.size()
+        );
+    }
+
+    @Test
+    public void testMaxSizeEvicts() {
+        final SpreadsheetPluginSelectorCache cache = SpreadsheetPluginSelectorCache.with(1);
+
+        final SpreadsheetComparatorSelector date = cache.spreadsheetComparatorSelector("date");
+        cache.spreadsheetComparatorSelector("time");
+
+        this.checkEquals(
+            1,
+            cache.size(),
+            "size"
+        );
+        this.checkEquals(
+            date,
+            cache.spreadsheetComparatorSelector("date")
+        );
+        this.checkEquals(3L, cache.misses(), "misses");
+    }
+
+    @Test
+    public void testClear() {
+        final SpreadsheetPluginSelectorCache cache = this.createCache();
+        cache.spreadsheetFormatterSelector("text @@");
+        cache.spreadsheetComparatorSelector("date");
+
+        this.checkEquals(2, cache.size(), "size");
+
+        cache.clear();
+
+        this.checkEquals(0, cache.size(), "size after clear");
+
+        cache.spreadsheetComparatorSelector("date");
+        this.checkEquals(3L, cache.misses(), "misses");
+    }
+
+    @Test
+    public void testToString() {
+        final SpreadsheetPluginSelectorCache cache = this.createCache();
+        cache.spreadsheetComparatorSelector("date");
+
+        this.toStringAndCheck(
+            cache,
+            "formatters size=0 maxSize=4 hits=0 misses=0, comparators size=1 maxSize=4 hits=0 misses=1"
+        );
+    }
+
+    private SpreadsheetPluginSelectorCache createCache() {
+        return SpreadsheetPluginSelectorCache.with(4);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<SpreadsheetPluginSelectorCache> type() {
+        return SpreadsheetPluginSelectorCache.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
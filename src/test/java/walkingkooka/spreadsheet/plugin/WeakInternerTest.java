@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.spreadsheet.plugin;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class WeakInternerTest implements ClassTesting2<WeakInterner<?>>,
+    ToStringTesting<WeakInterner<?>> {
+
+    @Test
+    public void testInternNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> WeakInterner.empty()
+                .intern(null)
+        );
+    }
+
+    @Test
+    public void testInternReturnsFirstInstance() {
+        final WeakInterner<String> interner = WeakInterner.empty();
+        final String first = new String("abc");
+
+        assertSame(
+            first,
+            interner.intern(first)
+        );
+        assertSame(
+            first,
+            interner.intern(new String("abc"))
+        );
+        this.checkEquals(
+            1,
+            interner.size()
+        );
+    }
+
+    @Test
+    public void testInternDifferentValues() {
+        final WeakInterner<String> interner = WeakInterner.empty();
+        final String abc = new String("abc");
+        final String xyz = new String("xyz");
+
+        assertSame(
+            abc,
+            interner.intern(abc)
+        );
+        assertSame(
+            xyz,
+            interner.intern(xyz)
+        );
+        this.checkEquals(
+            2,
+            interner.size()
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final WeakInterner<String> interner = WeakInterner.empty();
+        final String abc = new String("abc");
+        interner.intern(abc);
+
+        this.toStringAndCheck(
+            interner,
+            "size=1"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<WeakInterner<?>> type() {
+        return Cast.to(WeakInterner.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}